@@ -0,0 +1,32 @@
+package com.example.bank.bench;
+
+import com.example.bank.util.AccountNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contended throughput of the CAS-based account number generator; with 8 threads hammering
+ * one instance this is the worst case the bulk onboarding job can produce.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountNumberBenchmark {
+    private final AccountNumberGenerator generator = new AccountNumberGenerator(1);
+
+    @Benchmark
+    @Threads(1)
+    public String nextUncontended() {
+        return generator.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextContended() {
+        return generator.next();
+    }
+}
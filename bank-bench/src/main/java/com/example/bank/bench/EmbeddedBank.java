@@ -0,0 +1,78 @@
+package com.example.bank.bench;
+
+import com.example.bank.servlet.AccountOwnershipFilter;
+import com.example.bank.servlet.AccountServlet;
+import com.example.bank.servlet.AppLifecycleListener;
+import com.example.bank.servlet.AuthFilter;
+import com.example.bank.servlet.AuthServlet;
+import com.example.bank.servlet.MetricsFilter;
+import com.example.bank.servlet.MetricsServlet;
+import com.example.bank.servlet.StatsServlet;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+
+import jakarta.servlet.FilterRegistration;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRegistration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * The account and auth APIs in an embedded Tomcat, wired the way web.xml and the annotations
+ * wire them in the war: metrics filter, then authentication, then the ownership check. The
+ * database is whatever {@code bank.db.url} points at when this starts.
+ */
+public final class EmbeddedBank implements AutoCloseable {
+    private final Tomcat tomcat = new Tomcat();
+
+    /** Starts on {@code port}, or on a free port when it is 0. */
+    public EmbeddedBank(int port) throws LifecycleException, IOException {
+        tomcat.setBaseDir(Files.createTempDirectory("bank-tomcat").toString());
+        tomcat.setPort(port);
+        tomcat.getConnector();
+
+        Context ctx = tomcat.addContext("", null);
+        ctx.addServletContainerInitializer((classes, sc) -> register(sc), null);
+        tomcat.start();
+    }
+
+    public int port() {
+        return tomcat.getConnector().getLocalPort();
+    }
+
+    private static void register(ServletContext sc) {
+        sc.addListener(AppLifecycleListener.class);
+
+        filter(sc, "MetricsFilter", MetricsFilter.class, "/api/*");
+        filter(sc, "AuthFilter", AuthFilter.class, "/api/accounts/*");
+        filter(sc, "AccountOwnershipFilter", AccountOwnershipFilter.class, "/api/accounts/*");
+
+        servlet(sc, "AuthServlet", AuthServlet.class, "/api/auth/*");
+        servlet(sc, "AccountServlet", AccountServlet.class, "/api/accounts/*");
+        servlet(sc, "MetricsServlet", MetricsServlet.class, "/api/metrics");
+        servlet(sc, "StatsServlet", StatsServlet.class, "/api/stats");
+    }
+
+    private static void filter(ServletContext sc, String name, Class<? extends jakarta.servlet.Filter> type,
+                               String pattern) {
+        FilterRegistration.Dynamic f = sc.addFilter(name, type);
+        f.setAsyncSupported(true);
+        f.addMappingForUrlPatterns(null, true, pattern);
+    }
+
+    private static void servlet(ServletContext sc, String name, Class<? extends jakarta.servlet.Servlet> type,
+                                String pattern) {
+        ServletRegistration.Dynamic s = sc.addServlet(name, type);
+        s.setAsyncSupported(true);
+        s.setLoadOnStartup(1);
+        s.addMapping(pattern);
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
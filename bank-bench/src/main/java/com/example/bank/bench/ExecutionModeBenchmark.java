@@ -0,0 +1,112 @@
+package com.example.bank.bench;
+
+import com.example.bank.ConnectionPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the two {@code bank.execution.mode}s: a burst of requests, each borrowing a
+ * pooled connection for a point select plus {@code queryMillis} of simulated MySQL round-trip,
+ * served either by a container-sized pool of platform threads or by one virtual thread per
+ * request behind the same semaphore limiter as {@code RequestExecutor} (twice the pool size).
+ * Reports the time to drain the burst.
+ *
+ * <p>{@code virtual} needs a Java 21 runtime and fails its setup on older ones:
+ * {@code java -jar target/benchmarks.jar ExecutionMode}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionModeBenchmark {
+    private static final int POOL_SIZE = 20;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"5000"})
+    public int requests;
+
+    @Param({"2"})
+    public int queryMillis;
+
+    /** Tomcat's default maxThreads. */
+    @Param({"200"})
+    public int containerThreads;
+
+    private ConnectionPool pool;
+    private ExecutorService executor;
+    private Semaphore limiter;
+
+    @Setup
+    public void setup() throws Exception {
+        try (Connection conn = H2Database.open("execmode");
+             Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO accounts (user_id,account_number,account_type,balance) " +
+                    "VALUES (1,'AC0001000000001','Savings',1250.75)");
+        }
+        pool = new ConnectionPool("jdbc:h2:mem:execmode;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "", "", POOL_SIZE, POOL_SIZE, 30_000L, 300_000L, 500L, 0L, false);
+
+        if ("virtual".equals(mode)) {
+            try {
+                executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("virtual mode needs a Java 21 runtime", e);
+            }
+            limiter = new Semaphore(POOL_SIZE * 2, true);
+        } else {
+            executor = Executors.newFixedThreadPool(containerThreads);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    @Benchmark
+    public void burst() throws Exception {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    if (limiter != null) limiter.acquire();
+                    try {
+                        handle();
+                    } finally {
+                        if (limiter != null) limiter.release();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void handle() throws Exception {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT balance FROM accounts WHERE account_id = ?")) {
+            ps.setInt(1, 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+            }
+            Thread.sleep(queryMillis);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.bank.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * In-memory H2 databases in MySQL mode: the users/accounts tables from schema.sql for the DAO
+ * benchmarks, or the whole schema for the load test.
+ */
+public final class H2Database {
+
+    private H2Database() {
+    }
+
+    public static Connection open(String name) throws SQLException {
+        Connection conn = DriverManager.getConnection(
+                "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS users (" +
+                    " user_id INT AUTO_INCREMENT PRIMARY KEY, first_name VARCHAR(100) NOT NULL," +
+                    " last_name VARCHAR(100) NOT NULL, father_name VARCHAR(150), mother_name VARCHAR(150)," +
+                    " gender VARCHAR(20), age INT, phone VARCHAR(15), aadhaar CHAR(12), pan CHAR(10)," +
+                    " email VARCHAR(150), password_hash VARCHAR(1024)," +
+                    " created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            st.execute("CREATE UNIQUE INDEX IF NOT EXISTS uq_users_email ON users (email)");
+            st.execute("CREATE TABLE IF NOT EXISTS accounts (" +
+                    " account_id INT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL," +
+                    " account_number VARCHAR(40) NOT NULL UNIQUE, account_type VARCHAR(20) NOT NULL," +
+                    " balance DECIMAL(15,2) NOT NULL DEFAULT 0," +
+                    " opened_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, status VARCHAR(20) DEFAULT 'ACTIVE')");
+        }
+        return conn;
+    }
+
+    /**
+     * Creates an in-memory database from the full schema.sql (bundled from bank-webapp) and
+     * returns its JDBC URL. The database lives until the JVM exits.
+     */
+    public static String fromSchema(String name) throws SQLException, IOException {
+        String url = "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        String ddl;
+        try (InputStream in = H2Database.class.getResourceAsStream("/schema.sql")) {
+            if (in == null) throw new IOException("schema.sql not on the classpath");
+            ddl = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement st = conn.createStatement()) {
+            for (String sql : ddl.replaceAll("(?m)--.*$", "").split(";")) {
+                sql = sql.trim();
+                // the database is the connection's own; H2 has no CREATE DATABASE / USE
+                if (sql.isEmpty() || sql.startsWith("CREATE DATABASE") || sql.startsWith("USE ")) continue;
+                st.execute(sql);
+            }
+        }
+        return url;
+    }
+}
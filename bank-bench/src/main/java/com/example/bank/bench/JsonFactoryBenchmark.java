@@ -0,0 +1,57 @@
+package com.example.bank.bench;
+
+import com.example.bank.util.JsonUtil;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the static {@code Json.createXxx} entry points (a provider lookup on
+ * every call) against the shared factories in {@link JsonUtil}. Run with {@code -prof gc} to
+ * compare allocation per operation as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonFactoryBenchmark {
+    private static final String BODY = "{\"userId\":7,\"accountType\":\"Savings\",\"initialDeposit\":1500.00}";
+
+    @Benchmark
+    public String buildResponseStatic() {
+        return Json.createObjectBuilder()
+                .add("accountId", 42)
+                .add("balance", "1250.75")
+                .build()
+                .toString();
+    }
+
+    @Benchmark
+    public String buildResponseFactory() {
+        return JsonUtil.objectBuilder()
+                .add("accountId", 42)
+                .add("balance", "1250.75")
+                .build()
+                .toString();
+    }
+
+    @Benchmark
+    public JsonObject readBodyStatic() {
+        try (JsonReader jr = Json.createReader(new StringReader(BODY))) {
+            return jr.readObject();
+        }
+    }
+
+    @Benchmark
+    public JsonObject readBodyFactory() {
+        try (JsonReader jr = JsonUtil.reader(new StringReader(BODY))) {
+            return jr.readObject();
+        }
+    }
+}
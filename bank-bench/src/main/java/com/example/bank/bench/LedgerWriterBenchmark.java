@@ -0,0 +1,132 @@
+package com.example.bank.bench;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.Transaction;
+import com.example.bank.service.LedgerWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposits from 32 concurrent clients, posted either through {@link LedgerWriter}, which
+ * group-commits whatever queued up since its last flush, or the direct way, one
+ * {@code adjustBalance} + ledger insert + commit per request on its own pooled connection.
+ * {@code accounts} sets how many accounts the deposits spread over: with 1 every direct
+ * request queues on the same row lock.
+ *
+ * <p>On in-memory H2 a commit costs no fsync, which is most of what group commit saves on
+ * MySQL, so the gap here is the lower bound; run with {@code -Dbank.db.url=...} (and user and
+ * password) against a MySQL loaded with schema.sql for the real one:
+ * {@code java -jar target/benchmarks.jar LedgerWriter}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LedgerWriterBenchmark {
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Param({"ledger", "direct"})
+    public String path;
+
+    @Param({"1", "64"})
+    public int accounts;
+
+    private int[] accountIds;
+    private AccountDao accountDao;
+    private TransactionDao transactionDao;
+    private LedgerWriter ledgerWriter;
+
+    @Setup
+    public void setup() throws Exception {
+        if (System.getProperty("bank.db.url") == null) {
+            System.setProperty("bank.db.url", H2Database.fromSchema("ledger"));
+            System.setProperty("bank.db.user", "");
+            System.setProperty("bank.db.password", "");
+        }
+        accountIds = createAccounts(accounts);
+        accountDao = DaoFactory.accountDao();
+        transactionDao = DaoFactory.transactionDao();
+        if ("ledger".equals(path)) {
+            ledgerWriter = new LedgerWriter(accountDao, transactionDao, DaoFactory.idempotencyDao(),
+                    Integer.getInteger("bank.ledger.writers", 4));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (ledgerWriter != null) ledgerWriter.close();
+        DBConnectionManager.shutdown();
+    }
+
+    @Benchmark
+    public BigDecimal deposit() throws Exception {
+        int accountId = accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+        if (ledgerWriter != null) return ledgerWriter.deposit(accountId, AMOUNT, "Benchmark deposit");
+
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                BigDecimal balance = accountDao.adjustBalance(accountId, AMOUNT, conn);
+                Transaction t = new Transaction();
+                t.setToAccountId(accountId);
+                t.setAmount(AMOUNT);
+                t.setTxnType("DEPOSIT");
+                t.setDescription("Benchmark deposit");
+                t.setPostBalance(balance);
+                transactionDao.insert(t, conn);
+                conn.commit();
+                accountDao.afterCommit(accountId);
+                return balance;
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static int[] createAccounts(int n) throws Exception {
+        int[] ids = new int[n];
+        String run = Long.toString(System.nanoTime(), 36);
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            int userId;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO users (first_name,last_name,email) VALUES ('Ledger','Bench',?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, "ledger-" + run + "@example.com");
+                ps.executeUpdate();
+                userId = generatedKey(ps);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO accounts (user_id,account_number,account_type,balance) VALUES (?,?,'Savings',0)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < n; i++) {
+                    ps.setInt(1, userId);
+                    ps.setString(2, "LB" + run + "-" + i);
+                    ps.executeUpdate();
+                    ids[i] = generatedKey(ps);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static int generatedKey(PreparedStatement ps) throws Exception {
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.bank.bench;
+
+import com.example.bank.util.JsonUtil;
+import com.example.bank.util.LatencyHistogram;
+
+import jakarta.json.JsonObject;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load test: boots {@link EmbeddedBank} on an in-memory H2 database created from
+ * schema.sql, signs up {@code load.users} users with one funded account each, then has
+ * {@code load.threads} closed-loop clients drive a weighted mix of login, balance read, deposit
+ * and withdraw over HTTP for {@code load.seconds}. Prints throughput and p50/p99/p99.9 latency
+ * per operation, with requests shed by the server (503) apart from other failures; the first
+ * {@code load.warmupSeconds} aren't counted.
+ *
+ * <pre>
+ *   mvn -Ploadtest verify
+ *   java -Dload.threads=64 -cp target/benchmarks.jar com.example.bank.bench.LoadTest
+ * </pre>
+ *
+ * Set {@code bank.db.url} (and user/password) to run against a real MySQL loaded with
+ * schema.sql instead; every {@code bank.*} property reaches the webapp as usual.
+ */
+public final class LoadTest {
+    private static final int USERS = Integer.getInteger("load.users", 50);
+    private static final int THREADS = Integer.getInteger("load.threads", 32);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 5);
+    private static final int PORT = Integer.getInteger("load.port", 0);
+    private static final String MIX = System.getProperty("load.mix", "login:5,balance:55,deposit:25,withdraw:15");
+    private static final String PASSWORD = "load-test-password";
+
+    private enum Op { LOGIN, BALANCE, DEPOSIT, WITHDRAW }
+
+    private static final class Customer {
+        final String email;
+        volatile String token;
+        int accountId;
+
+        Customer(String email) {
+            this.email = email;
+        }
+    }
+
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder shed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String base;
+    private final Op[] ops = new Op[100];
+    private final Stats[] stats = new Stats[Op.values().length];
+
+    private LoadTest(int port) {
+        this.base = "http://localhost:" + port;
+        parseMix();
+        for (int i = 0; i < stats.length; i++) stats[i] = new Stats();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("bank.db.url") == null) {
+            System.setProperty("bank.db.url", H2Database.fromSchema("loadtest"));
+            System.setProperty("bank.db.user", "");
+            System.setProperty("bank.db.password", "");
+        }
+        // background jobs would only add noise to the request latencies
+        if (System.getProperty("bank.fd.maturity.enabled") == null) System.setProperty("bank.fd.maturity.enabled", "false");
+        if (System.getProperty("bank.sip.enabled") == null) System.setProperty("bank.sip.enabled", "false");
+
+        try (EmbeddedBank bank = new EmbeddedBank(PORT)) {
+            new LoadTest(bank.port()).run();
+        }
+    }
+
+    private void run() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Customer> customers = seed(clients);
+            System.out.printf("Seeded %d users; %d clients for %ds (+%ds warm-up), mix %s%n",
+                    customers.size(), THREADS, SECONDS, WARMUP_SECONDS, MIX);
+
+            long start = System.nanoTime();
+            long measureFrom = start + WARMUP_SECONDS * 1_000_000_000L;
+            long end = measureFrom + SECONDS * 1_000_000_000L;
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                running.add(clients.submit(() -> drive(customers, measureFrom, end)));
+            }
+            for (Future<?> f : running) f.get();
+            report((end - measureFrom) / 1e9);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private List<Customer> seed(ExecutorService pool) throws Exception {
+        // unique per run, so a real database can be reused between runs
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<Future<Customer>> pending = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String email = "load" + i + "-" + run + "@example.com";
+            pending.add(pool.submit(() -> {
+                Customer c = new Customer(email);
+                JsonObject user = expect(201, postUntilAccepted("/api/auth/signup", null,
+                        "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"email\":\"" + email
+                                + "\",\"password\":\"" + PASSWORD + "\"}"));
+                c.token = user.getString("token");
+                JsonObject account = expect(201, postUntilAccepted("/api/accounts/create", c.token,
+                        "{\"accountType\":\"Savings\",\"initialDeposit\":10000000}"));
+                c.accountId = account.getInt("accountId");
+                return c;
+            }));
+        }
+        List<Customer> customers = new ArrayList<>(USERS);
+        for (Future<Customer> f : pending) customers.add(f.get());
+        return customers;
+    }
+
+    private void drive(List<Customer> customers, long measureFrom, long end) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Op op = ops[rnd.nextInt(ops.length)];
+            Customer c = customers.get(rnd.nextInt(customers.size()));
+            int status;
+            try {
+                status = call(op, c);
+            } catch (Exception e) {
+                status = -1;
+            }
+            if (now >= measureFrom) {
+                Stats s = stats[op.ordinal()];
+                s.latency.recordSince(now);
+                if (status == 503) s.shed.increment();
+                else if (status != 200) s.errors.increment();
+            }
+        }
+    }
+
+    /** Returns the response status. */
+    private int call(Op op, Customer c) throws Exception {
+        HttpResponse<String> resp;
+        switch (op) {
+            case LOGIN:
+                resp = post("/api/auth/login", null,
+                        "{\"email\":\"" + c.email + "\",\"password\":\"" + PASSWORD + "\"}");
+                if (resp.statusCode() == 200) c.token = parse(resp.body()).getString("token");
+                break;
+            case BALANCE:
+                resp = http.send(request("/api/accounts/" + c.accountId, c.token).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+                break;
+            case DEPOSIT:
+                resp = post("/api/accounts/" + c.accountId + "/deposit", c.token, "{\"amount\":10.00}");
+                break;
+            default:
+                resp = post("/api/accounts/" + c.accountId + "/withdraw", c.token, "{\"amount\":10.00}");
+                break;
+        }
+        return resp.statusCode();
+    }
+
+    private HttpResponse<String> post(String path, String token, String json) throws Exception {
+        HttpRequest req = request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return http.send(req, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /** Seeding only: retries requests the server sheds with 503, after its Retry-After. */
+    private HttpResponse<String> postUntilAccepted(String path, String token, String json) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<String> resp = post(path, token, json);
+            if (resp.statusCode() != 503 || attempt == 30) return resp;
+            Thread.sleep(1000L * Integer.parseInt(resp.headers().firstValue("Retry-After").orElse("1")));
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(30));
+        if (token != null) b.header("Authorization", "Bearer " + token);
+        return b;
+    }
+
+    private static JsonObject expect(int status, HttpResponse<String> resp) {
+        if (resp.statusCode() != status) {
+            throw new IllegalStateException(resp.request().uri() + " -> " + resp.statusCode() + " " + resp.body());
+        }
+        return parse(resp.body());
+    }
+
+    private static JsonObject parse(String body) {
+        return JsonUtil.reader(new StringReader(body)).readObject();
+    }
+
+    /** Fills {@link #ops} so a uniform pick follows the weights in {@code load.mix}. */
+    private void parseMix() {
+        List<Op> all = new ArrayList<>();
+        for (String part : MIX.split(",")) {
+            String[] kv = part.trim().split(":");
+            Op op = Op.valueOf(kv[0].trim().toUpperCase());
+            for (int i = Integer.parseInt(kv[1].trim()); i > 0; i--) all.add(op);
+        }
+        if (all.isEmpty()) throw new IllegalArgumentException("load.mix has no weights: " + MIX);
+        Op[] weighted = all.toArray(new Op[0]);
+        for (int i = 0; i < ops.length; i++) ops[i] = weighted[i * weighted.length / ops.length];
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%n%-9s %10s %8s %8s %10s %10s %10s %10s %10s%n",
+                "op", "requests", "shed", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        long shed = 0;
+        long errors = 0;
+        for (Op op : Op.values()) {
+            Stats s = stats[op.ordinal()];
+            long n = s.latency.getCount();
+            if (n == 0) continue;
+            total += n;
+            shed += s.shed.sum();
+            errors += s.errors.sum();
+            System.out.printf("%-9s %10d %8d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    op.name().toLowerCase(), n, s.shed.sum(), s.errors.sum(), n / seconds,
+                    s.latency.getPercentileMicros(0.5) / 1000, s.latency.getPercentileMicros(0.99) / 1000,
+                    s.latency.getPercentileMicros(0.999) / 1000, s.latency.getMaxNanos() / 1e6);
+        }
+        System.out.printf("%-9s %10d %8d %8d %10.1f%n", "total", total, shed, errors, total / seconds);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bank.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The login lookup by email, before and after {@code uq_users_email}: {@code SELECT *} on a
+ * users table without the index (the old {@code JdbcUserDao.findByEmail}) against the four
+ * columns login needs with the index in place. The table size is a parameter because the
+ * scan cost grows with it; the 10M-user comparison needs a large heap:
+ * {@code java -Xmx8g -jar target/benchmarks.jar LoginLookup -p users=10000000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginLookupBenchmark {
+
+    @Param({"100000"})
+    public int users;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private Connection conn;
+    private PreparedStatement selectAll;
+    private PreparedStatement selectLogin;
+
+    @Setup
+    public void setup() throws Exception {
+        conn = H2Database.open("login" + users + indexed);
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO users (first_name,last_name,father_name,mother_name,gender,age," +
+                "phone,aadhaar,pan,email,password_hash) VALUES ('Asha','Verma','Ramesh','Sita'," +
+                "'F',31,'9876543210','123412341234','ABCDE1234F',?,'65536:c2FsdA==:aGFzaA==')")) {
+            for (int i = 0; i < users; i++) {
+                ps.setString(1, "user" + i + "@example.com");
+                ps.addBatch();
+                if (i % 10_000 == 9_999) {
+                    ps.executeBatch();
+                    conn.commit();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        }
+        if (!indexed) {
+            try (Statement st = conn.createStatement()) {
+                st.execute("DROP INDEX IF EXISTS uq_users_email");
+            }
+        }
+        conn.setAutoCommit(true);
+
+        selectAll = conn.prepareStatement("SELECT * FROM users WHERE email = ?");
+        selectLogin = conn.prepareStatement(
+                "SELECT user_id, first_name, email, password_hash FROM users WHERE email = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        conn.close();
+    }
+
+    @Benchmark
+    public String selectAllByEmail() throws Exception {
+        return lookup(selectAll);
+    }
+
+    @Benchmark
+    public String selectLoginColumnsByEmail() throws Exception {
+        return lookup(selectLogin);
+    }
+
+    private String lookup(PreparedStatement ps) throws Exception {
+        ps.setString(1, "user" + ThreadLocalRandom.current().nextInt(users) + "@example.com");
+        try (ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getString("password_hash");
+        }
+    }
+}
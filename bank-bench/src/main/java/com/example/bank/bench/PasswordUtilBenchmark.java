@@ -0,0 +1,51 @@
+package com.example.bank.bench;
+
+import com.example.bank.util.PasswordUtil;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKeyFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PBKDF2 cost of signup and login, and how much of it is the per-call
+ * {@code SecretKeyFactory.getInstance} provider lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordUtilBenchmark {
+    private final char[] password = "correct horse battery staple".toCharArray();
+    private byte[] salt;
+    private String stored;
+
+    @Setup
+    public void setup() {
+        salt = PasswordUtil.generateSalt();
+        stored = PasswordUtil.hashPassword(password, salt);
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return PasswordUtil.hashPassword(password, salt);
+    }
+
+    @Benchmark
+    public boolean verifyPassword() {
+        return PasswordUtil.verifyPassword(password, stored);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SecretKeyFactory secretKeyFactoryGetInstance() throws Exception {
+        return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] generateSalt() {
+        return PasswordUtil.generateSalt();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bank.bench;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body handling as done by AccountServlet/AuthServlet: the
+ * {@code getReader().lines().reduce("", (a, b) -> a + b)} read followed by
+ * {@code Json.createReader(new StringReader(body))}, against parsing the reader directly.
+ * {@code lines} is the number of lines in the body, which drives the reduce's copying.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestBodyBenchmark {
+
+    @Param({"1", "20", "500"})
+    public int lines;
+
+    private String body;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder("{\n");
+        for (int i = 0; i < lines; i++) {
+            sb.append("  \"field").append(i).append("\": \"value number ").append(i).append("\",\n");
+        }
+        sb.append("  \"amount\": 1250.75\n}");
+        body = sb.toString();
+    }
+
+    @Benchmark
+    public String readBodyWithReduce() {
+        return new BufferedReader(new StringReader(body)).lines().reduce("", (a, b) -> a + b);
+    }
+
+    @Benchmark
+    public JsonObject reduceThenParse() {
+        String s = new BufferedReader(new StringReader(body)).lines().reduce("", (a, b) -> a + b);
+        try (JsonReader jr = Json.createReader(new StringReader(s))) {
+            return jr.readObject();
+        }
+    }
+
+    @Benchmark
+    public JsonObject parseReaderDirectly() {
+        try (JsonReader jr = Json.createReader(new BufferedReader(new StringReader(body)))) {
+            return jr.readObject();
+        }
+    }
+
+    @Benchmark
+    public String buildAccountResponse() {
+        JsonObjectBuilder b = Json.createObjectBuilder()
+                .add("accountId", 42)
+                .add("accountNumber", "AC0007123456789")
+                .add("accountType", "Savings")
+                .add("balance", "1250.75");
+        return b.build().toString();
+    }
+}
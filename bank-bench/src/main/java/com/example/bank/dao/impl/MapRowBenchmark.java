@@ -0,0 +1,89 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.bench.H2Database;
+import com.example.bank.model.Account;
+import com.example.bank.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code JdbcAccountDao.mapRow} / {@code JdbcUserDao.mapRow} (package-private, hence this
+ * package) over rows of an in-memory database, both on their own and together with the
+ * {@code SELECT * ... WHERE id = ?} lookup the DAOs run around them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapRowBenchmark {
+    private final JdbcAccountDao accountDao = new JdbcAccountDao();
+    private final JdbcUserDao userDao = new JdbcUserDao();
+
+    private Connection conn;
+    private ResultSet accountRow;
+    private ResultSet userRow;
+    private PreparedStatement accountById;
+    private PreparedStatement userById;
+
+    @Setup
+    public void setup() throws Exception {
+        conn = H2Database.open("maprow");
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO users (first_name,last_name,father_name,mother_name,gender,age," +
+                    "phone,aadhaar,pan,email,password_hash) VALUES ('Asha','Verma','Ramesh','Sita'," +
+                    "'F',31,'9876543210','123412341234','ABCDE1234F','asha@example.com'," +
+                    "'65536:c2FsdA==:aGFzaA==')");
+            st.execute("INSERT INTO accounts (user_id,account_number,account_type,balance) " +
+                    "VALUES (1,'AC0001000000001','Savings',1250.75)");
+        }
+
+        accountRow = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)
+                .executeQuery("SELECT * FROM accounts WHERE account_id = 1");
+        userRow = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)
+                .executeQuery("SELECT * FROM users WHERE user_id = 1");
+        accountById = conn.prepareStatement("SELECT * FROM accounts WHERE account_id = ?");
+        userById = conn.prepareStatement("SELECT * FROM users WHERE user_id = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        conn.close();
+    }
+
+    @Benchmark
+    public Account mapAccountRow() throws Exception {
+        accountRow.first();
+        return accountDao.mapRow(accountRow);
+    }
+
+    @Benchmark
+    public User mapUserRow() throws Exception {
+        userRow.first();
+        return userDao.mapRow(userRow);
+    }
+
+    @Benchmark
+    public Account selectAndMapAccount() throws Exception {
+        accountById.setInt(1, 1);
+        try (ResultSet rs = accountById.executeQuery()) {
+            rs.next();
+            return accountDao.mapRow(rs);
+        }
+    }
+
+    @Benchmark
+    public User selectAndMapUser() throws Exception {
+        userById.setInt(1, 1);
+        try (ResultSet rs = userById.executeQuery()) {
+            rs.next();
+            return userDao.mapRow(rs);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+-- Keyset-paged transaction history per account side, see JdbcTransactionDao.findHistory.
+-- Builds two secondary indexes on transactions; on a large table run it off-peak.
+CREATE INDEX idx_tx_from ON transactions (from_account_id, txn_date, transaction_id);
+CREATE INDEX idx_tx_to ON transactions (to_account_id, txn_date, transaction_id);
@@ -0,0 +1,2 @@
+-- Due-deposit scan of the maturity run, see FixedDepositMaturityEngine.
+CREATE INDEX idx_fd_due ON fixed_deposits (status, maturity_date, fd_id);
@@ -0,0 +1,2 @@
+-- Due-installment scan of the SIP scheduler, see SipInstallmentScheduler.
+CREATE INDEX idx_sip_due ON sip_plans (status, next_installment_date, sip_id);
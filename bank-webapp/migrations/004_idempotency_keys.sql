@@ -0,0 +1,12 @@
+-- One row per Idempotency-Key on deposits and withdrawals, written in the same transaction as
+-- the money movement, see IdempotencyService.
+CREATE TABLE idempotency_keys (
+  user_id INT NOT NULL,
+  idem_key VARCHAR(64) NOT NULL,
+  account_id INT NOT NULL,
+  status_code INT NOT NULL,
+  response_body VARCHAR(1024) NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (user_id, idem_key),
+  INDEX idx_idem_created (created_at)
+);
@@ -0,0 +1,11 @@
+-- One user per email, see JdbcUserDao: signup relies on the index to refuse a taken email.
+--
+-- The index fails to build while two users share an email. Run this query first; it must return no
+-- rows. Merge or re-address the users it lists before going on.
+SELECT email, COUNT(*) AS users, GROUP_CONCAT(user_id ORDER BY user_id) AS user_ids
+FROM users
+WHERE email IS NOT NULL
+GROUP BY email
+HAVING COUNT(*) > 1;
+
+CREATE UNIQUE INDEX uq_users_email ON users (email);
@@ -0,0 +1,6 @@
+-- Per shard, the last balance engine WAL record applied to the database, see BalanceEngine.
+CREATE TABLE balance_engine_checkpoints (
+  shard INT PRIMARY KEY,
+  last_seq BIGINT NOT NULL,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
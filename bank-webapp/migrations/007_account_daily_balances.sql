@@ -0,0 +1,41 @@
+-- Per account and day with movements: closing balance and the day's totals, see
+-- JdbcDailyBalanceDao. The INSERT fills in the days before the upgrade from the ledger, with
+-- the same leg rules the DAO uses: a row counts for the account whose balance it moved, and
+-- the day closes on the last row's post balance.
+--
+-- Run it with the web app stopped; rows written meanwhile would be counted twice.
+CREATE TABLE account_daily_balances (
+  account_id INT NOT NULL,
+  balance_date DATE NOT NULL,
+  closing_balance DECIMAL(15,2) NOT NULL,
+  credit_total DECIMAL(15,2) NOT NULL DEFAULT 0,
+  debit_total DECIMAL(15,2) NOT NULL DEFAULT 0,
+  txn_count INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (account_id, balance_date),
+  CONSTRAINT fk_daily_acc FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+INSERT INTO account_daily_balances
+  (account_id, balance_date, closing_balance, credit_total, debit_total, txn_count)
+SELECT account_id, balance_date,
+       MAX(CASE WHEN day_rank = 1 THEN post_balance END),
+       SUM(CASE WHEN debit = 0 THEN amount ELSE 0 END),
+       SUM(CASE WHEN debit = 1 THEN amount ELSE 0 END),
+       COUNT(*)
+FROM (
+  SELECT legs.*,
+         ROW_NUMBER() OVER (PARTITION BY account_id, balance_date
+                            ORDER BY txn_date DESC, transaction_id DESC) AS day_rank
+  FROM (
+    SELECT CASE WHEN from_account_id IS NOT NULL AND txn_type <> 'TRANSFER_IN'
+                THEN from_account_id ELSE to_account_id END AS account_id,
+           CASE WHEN from_account_id IS NOT NULL AND txn_type <> 'TRANSFER_IN'
+                THEN 1 ELSE 0 END AS debit,
+           CAST(txn_date AS DATE) AS balance_date,
+           txn_date, transaction_id, amount, post_balance
+    FROM transactions
+    WHERE post_balance IS NOT NULL AND (status IS NULL OR status <> 'FAILED')
+  ) legs
+  WHERE account_id IS NOT NULL
+) ranked
+GROUP BY account_id, balance_date;
@@ -0,0 +1,22 @@
+-- Average-daily-balance interest on Savings accounts, see SavingsInterestEngine: the posting
+-- per account and period, and the account ranges a run has finished.
+CREATE TABLE interest_postings (
+  account_id INT NOT NULL,
+  period_start DATE NOT NULL,
+  average_balance DECIMAL(15,2) NOT NULL,
+  interest_rate DECIMAL(6,3) NOT NULL,
+  amount DECIMAL(15,2) NOT NULL,
+  posted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (account_id, period_start),
+  CONSTRAINT fk_interest_acc FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+CREATE TABLE interest_accrual_checkpoints (
+  period_start DATE NOT NULL,
+  range_start INT NOT NULL,
+  range_end INT NOT NULL,
+  accounts_posted INT NOT NULL,
+  interest_total DECIMAL(15,2) NOT NULL,
+  completed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (period_start, range_start)
+);
@@ -0,0 +1,3 @@
+-- Per-shard lease of the balance engine, so only one node runs it, see JdbcEngineCheckpointDao.
+ALTER TABLE balance_engine_checkpoints ADD COLUMN owner VARCHAR(255) AFTER last_seq;
+ALTER TABLE balance_engine_checkpoints ADD COLUMN lease_until TIMESTAMP NULL AFTER owner;
@@ -0,0 +1,4 @@
+-- What each Idempotency-Key was used for, so a retry with the same key but a different
+-- request is refused instead of replayed. Rows written before this are left NULL.
+ALTER TABLE idempotency_keys ADD COLUMN txn_type VARCHAR(20) NULL AFTER account_id;
+ALTER TABLE idempotency_keys ADD COLUMN amount DECIMAL(15,2) NULL AFTER txn_type;
@@ -14,7 +14,9 @@ CREATE TABLE users (
   pan CHAR(10),
   email VARCHAR(150),
   password_hash VARCHAR(1024),
-  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  -- login lookup and the duplicate-signup check, see JdbcUserDao
+  UNIQUE KEY uq_users_email (email)
 );
 
 CREATE TABLE accounts (
@@ -38,6 +40,9 @@ CREATE TABLE transactions (
   txn_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   status VARCHAR(30),
   post_balance DECIMAL(15,2),
+  -- keyset-paged history per account side, see JdbcTransactionDao.findHistory
+  INDEX idx_tx_from (from_account_id, txn_date, transaction_id),
+  INDEX idx_tx_to (to_account_id, txn_date, transaction_id),
   CONSTRAINT fk_tx_from_acc FOREIGN KEY (from_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL,
   CONSTRAINT fk_tx_to_acc FOREIGN KEY (to_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL
 );
@@ -52,6 +57,8 @@ CREATE TABLE fixed_deposits (
   maturity_date DATE,
   maturity_amount DECIMAL(15,2),
   status VARCHAR(30),
+  -- due-deposit scan, see FixedDepositMaturityEngine
+  INDEX idx_fd_due (status, maturity_date, fd_id),
   CONSTRAINT fk_fd_acc FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
 );
 
@@ -64,5 +71,72 @@ CREATE TABLE sip_plans (
   start_date DATE,
   next_installment_date DATE,
   status VARCHAR(30),
+  -- due-installment scan, see SipInstallmentScheduler
+  INDEX idx_sip_due (status, next_installment_date, sip_id),
   CONSTRAINT fk_sip_acc FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
 );
+
+-- one row per Idempotency-Key, written in the same transaction as the money movement.
+-- account_id, txn_type and amount describe the request, so a reused key can be told apart
+-- from a retry; txn_type and amount are NULL on rows from before they were added
+CREATE TABLE idempotency_keys (
+  user_id INT NOT NULL,
+  idem_key VARCHAR(64) NOT NULL,
+  account_id INT NOT NULL,
+  txn_type VARCHAR(20) NULL,
+  amount DECIMAL(15,2) NULL,
+  status_code INT NOT NULL,
+  response_body VARCHAR(1024) NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (user_id, idem_key),
+  INDEX idx_idem_created (created_at)
+);
+
+-- per shard, the last balance engine WAL record applied here; moved in the same transaction
+-- as the rows it covers, so recovery replays exactly the records after it. owner holds the
+-- shard's lease, so only one node runs the engine, see JdbcEngineCheckpointDao
+CREATE TABLE balance_engine_checkpoints (
+  shard INT PRIMARY KEY,
+  last_seq BIGINT NOT NULL,
+  owner VARCHAR(255),
+  lease_until TIMESTAMP NULL,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- per account and day with movements: closing balance and the day's totals, kept up to date by
+-- JdbcTransactionDao in the transaction that writes the ledger rows (see JdbcDailyBalanceDao)
+CREATE TABLE account_daily_balances (
+  account_id INT NOT NULL,
+  balance_date DATE NOT NULL,
+  closing_balance DECIMAL(15,2) NOT NULL,
+  credit_total DECIMAL(15,2) NOT NULL DEFAULT 0,
+  debit_total DECIMAL(15,2) NOT NULL DEFAULT 0,
+  txn_count INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (account_id, balance_date),
+  CONSTRAINT fk_daily_acc FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+-- interest credited per Savings account and accrual period; the key makes each posting
+-- exactly-once, and it is written in the transaction that credits the account
+CREATE TABLE interest_postings (
+  account_id INT NOT NULL,
+  period_start DATE NOT NULL,
+  average_balance DECIMAL(15,2) NOT NULL,
+  interest_rate DECIMAL(6,3) NOT NULL,
+  amount DECIMAL(15,2) NOT NULL,
+  posted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (account_id, period_start),
+  CONSTRAINT fk_interest_acc FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+-- account id ranges an accrual run has finished for a period; a resumed run skips them,
+-- see SavingsInterestEngine
+CREATE TABLE interest_accrual_checkpoints (
+  period_start DATE NOT NULL,
+  range_start INT NOT NULL,
+  range_end INT NOT NULL,
+  accounts_posted INT NOT NULL,
+  interest_total DECIMAL(15,2) NOT NULL,
+  completed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (period_start, range_start)
+);
@@ -0,0 +1,276 @@
+package com.example.bank;
+
+import com.example.bank.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded JDBC connection pool. Callers borrow through {@link #getConnection()} and give the
+ * connection back by closing it, so existing try-with-resources code keeps working unchanged.
+ *
+ * <p>A borrow only notes the time and the borrowing thread. A connection held past the leak
+ * threshold is reported once with that thread's stack as the housekeeper finds it; the stack
+ * at the borrow itself costs a {@link Throwable} per borrow and is only kept with
+ * {@code leakStackTraces}.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minIdle;
+    private final int maxSize;
+    private final long acquireTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validationIdleMs;
+    private final long leakDetectionMs;
+    private final boolean leakStackTraces;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PhysicalConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PhysicalConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password,
+                          int minIdle, int maxSize, long acquireTimeoutMs,
+                          long idleTimeoutMs, long validationIdleMs, long leakDetectionMs,
+                          boolean leakStackTraces) {
+        if (maxSize < 1 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size min=" + minIdle + " max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minIdle = minIdle;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validationIdleMs = validationIdleMs;
+        this.leakDetectionMs = leakDetectionMs;
+        this.leakStackTraces = leakStackTraces;
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, 5, TimeUnit.SECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + acquireTimeoutMs
+                        + "ms waiting for a database connection (active=" + getActive()
+                        + ", max=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PhysicalConnection pc = takeValidIdle();
+            if (pc == null) pc = open();
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrower = Thread.currentThread();
+            pc.borrowTrace = leakStackTraces && leakDetectionMs > 0 ? new Throwable("Connection borrowed here") : null;
+            borrowed.add(pc);
+            acquireLatency.recordSince(start);
+            return pc.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PhysicalConnection takeValidIdle() {
+        PhysicalConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - pc.lastReturned < validationIdleMs) return pc;
+            try {
+                if (pc.real.isValid(2)) return pc;
+            } catch (SQLException ignored) {
+                // fall through and discard
+            }
+            destroy(pc);
+        }
+        return null;
+    }
+
+    private PhysicalConnection open() throws SQLException {
+        Connection real = DriverManager.getConnection(url, user, password);
+        total.incrementAndGet();
+        return new PhysicalConnection(real);
+    }
+
+    private void release(PhysicalConnection pc) {
+        borrowed.remove(pc);
+        pc.borrower = null;
+        pc.borrowTrace = null;
+        boolean healthy = true;
+        try {
+            if (!pc.real.getAutoCommit()) {
+                pc.real.rollback();
+                pc.real.setAutoCommit(true);
+            }
+            if (pc.real.isReadOnly()) pc.real.setReadOnly(false);
+        } catch (SQLException e) {
+            healthy = false;
+        }
+
+        if (healthy && !closed) {
+            pc.lastReturned = System.currentTimeMillis();
+            idle.offerFirst(pc);
+        } else {
+            destroy(pc);
+        }
+        permits.release();
+    }
+
+    private void destroy(PhysicalConnection pc) {
+        total.decrementAndGet();
+        try {
+            pc.real.close();
+        } catch (SQLException ignored) {
+            // already broken
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        for (PhysicalConnection pc : idle) {
+            if (total.get() <= minIdle) break;
+            if (now - pc.lastReturned > idleTimeoutMs && idle.remove(pc)) destroy(pc);
+        }
+
+        while (!closed && total.get() < minIdle) {
+            try {
+                PhysicalConnection pc = open();
+                pc.lastReturned = now;
+                idle.offerLast(pc);
+            } catch (SQLException e) {
+                log.warn("Could not open idle connection: {}", e.getMessage());
+                break;
+            }
+        }
+
+        if (leakDetectionMs > 0) {
+            for (PhysicalConnection pc : borrowed) {
+                if (!pc.leakReported && now - pc.borrowedAt > leakDetectionMs) {
+                    pc.leakReported = true;
+                    reportLeak(pc, now);
+                }
+            }
+        }
+    }
+
+    private void reportLeak(PhysicalConnection pc, long now) {
+        Thread borrower = pc.borrower;
+        Throwable trace = pc.borrowTrace;
+        if (borrower == null) return; // returned meanwhile
+        if (trace == null) {
+            trace = new Throwable("Borrowing thread is here now");
+            trace.setStackTrace(borrower.getStackTrace());
+        }
+        log.warn("Possible connection leak: held for {}ms by thread {}",
+                now - pc.borrowedAt, borrower.getName(), trace);
+    }
+
+    public int getMaxSize() { return maxSize; }
+    public int getTotal() { return total.get(); }
+    public int getActive() { return borrowed.size(); }
+    public int getIdle() { return idle.size(); }
+    public int getWaiting() { return permits.getQueueLength(); }
+    public LatencyHistogram getAcquireLatency() { return acquireLatency; }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PhysicalConnection pc;
+        while ((pc = idle.pollFirst()) != null) destroy(pc);
+    }
+
+    private final class PhysicalConnection {
+        final Connection real;
+        volatile long lastReturned;
+        volatile long borrowedAt;
+        volatile Thread borrower;
+        volatile Throwable borrowTrace;
+        volatile boolean leakReported;
+
+        PhysicalConnection(Connection real) {
+            this.real = real;
+        }
+
+        Connection newHandle() {
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /** Per-borrow view of a physical connection; closing it returns the connection to the pool. */
+    private final class Handle implements InvocationHandler {
+        private final PhysicalConnection pc;
+        private boolean returned;
+
+        Handle(PhysicalConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pc.real.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pc.real;
+                default:
+                    if (returned) throw new SQLException("Connection has been returned to the pool");
+                    try {
+                        return method.invoke(pc.real, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
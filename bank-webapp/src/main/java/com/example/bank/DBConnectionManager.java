@@ -1,25 +1,75 @@
 package com.example.bank;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnectionManager {
-    // <<-- UPDATE these before running
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/bankdb?useSSL=false&serverTimezone=UTC";
-    private static final String DB_USER = "db_user";
-    private static final String DB_PASS = "db_pass";
-    // -->> replace db_user / db_pass with your MySQL credentials
+    // cachePrepStmts keeps server-side prepared statements per physical connection, so a
+    // statement prepared once is reused by every later borrower of that pooled connection
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/bankdb?useSSL=false&serverTimezone=UTC&rewriteBatchedStatements=true"
+            + "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
+
+    // -Dbank.db.url / -Dbank.db.user / -Dbank.db.password, else the BANK_DB_URL / BANK_DB_USER /
+    // BANK_DB_PASSWORD environment variables, else the local MySQL defaults
+    private static final String DB_URL = setting("bank.db.url", "BANK_DB_URL", DEFAULT_URL);
+    private static final String DB_USER = setting("bank.db.user", "BANK_DB_USER", "db_user");
+    private static final String DB_PASS = setting("bank.db.password", "BANK_DB_PASSWORD", "db_pass");
+
+    // Pool sizing, overridable with -Dbank.db.pool.<name>=...
+    private static final int POOL_MIN_IDLE = Integer.getInteger("bank.db.pool.minIdle", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("bank.db.pool.maxSize", 20);
+    private static final long POOL_ACQUIRE_TIMEOUT_MS = Long.getLong("bank.db.pool.acquireTimeoutMs", 5_000L);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("bank.db.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_VALIDATION_IDLE_MS = Long.getLong("bank.db.pool.validationIdleMs", 500L);
+    private static final long POOL_LEAK_DETECTION_MS = Long.getLong("bank.db.pool.leakDetectionMs", 30_000L);
+    // keep the borrow-site stack of every connection for leak reports; costs a Throwable per borrow
+    private static final boolean POOL_LEAK_STACK_TRACES = Boolean.getBoolean("bank.db.pool.leakStackTraces");
 
     static {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("MySQL JDBC Driver not found", e);
+        // other drivers (e.g. an embedded test database) register themselves through the
+        // ServiceLoader; Connector/J is loaded explicitly since it sits in WEB-INF/lib
+        if (DB_URL.startsWith("jdbc:mysql:")) {
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException("MySQL JDBC Driver not found", e);
+            }
         }
     }
 
+    private static volatile ConnectionPool pool;
+
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
+        return getPool().getConnection();
+    }
+
+    public static ConnectionPool getPool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DBConnectionManager.class) {
+                p = pool;
+                if (p == null) {
+                    p = new ConnectionPool(DB_URL, DB_USER, DB_PASS,
+                            POOL_MIN_IDLE, POOL_MAX_SIZE, POOL_ACQUIRE_TIMEOUT_MS,
+                            POOL_IDLE_TIMEOUT_MS, POOL_VALIDATION_IDLE_MS, POOL_LEAK_DETECTION_MS,
+                            POOL_LEAK_STACK_TRACES);
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    private static String setting(String property, String env, String def) {
+        String v = System.getProperty(property);
+        if (v == null) v = System.getenv(env);
+        return v == null ? def : v;
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
 }
@@ -4,10 +4,45 @@ import com.example.bank.model.Account;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
 
 public interface AccountDao {
     int create(Account account) throws Exception;
     Account findById(int id) throws Exception;
+
+    /** Inserts all accounts in one JDBC batch on the caller's connection and sets their ids. */
+    void createBatch(List<Account> accounts, Connection conn) throws Exception;
     Account findByAccountNumber(String accNo) throws Exception;
     void updateBalance(int accountId, BigDecimal newBalance, Connection conn) throws Exception;
+
+    /** Up to {@code limit} account ids greater than {@code afterId}, ascending. */
+    List<Integer> findIdsAfter(int afterId, int limit) throws Exception;
+
+    List<Integer> findIdsByUserId(int userId) throws Exception;
+
+    /**
+     * Atomically adds {@code delta} (negative for debits) to the balance on the caller's
+     * connection, leaving the row locked until that transaction ends.
+     *
+     * @return the new balance, or {@code null} if the account does not exist
+     * @throws InsufficientFundsException if the debit would take the balance below zero;
+     *         the balance is left untouched
+     * @throws EngineOwnedAccountException if the balance engine holds the account; nothing
+     *         is written, so the caller's transaction can go on with other accounts
+     */
+    BigDecimal adjustBalance(int accountId, BigDecimal delta, Connection conn) throws Exception;
+
+    /**
+     * Locks the rows of the given accounts on the caller's connection, in ascending id order,
+     * until that transaction ends. Ids that don't exist are ignored.
+     */
+    void lockAll(Collection<Integer> accountIds, Connection conn) throws Exception;
+
+    /**
+     * Must be called once a transaction that changed this account's balance has committed,
+     * so decorators holding account state can drop what they read before the write.
+     */
+    default void afterCommit(int accountId) {
+    }
 }
@@ -0,0 +1,12 @@
+package com.example.bank.dao;
+
+public class AccountNotFoundException extends Exception {
+    private final int accountId;
+
+    public AccountNotFoundException(int accountId) {
+        super("Account not found");
+        this.accountId = accountId;
+    }
+
+    public int getAccountId() { return accountId; }
+}
@@ -0,0 +1,38 @@
+package com.example.bank.dao;
+
+import com.example.bank.model.DailyBalance;
+import com.example.bank.model.Transaction;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-account daily roll-up of the ledger ({@code account_daily_balances}): one row per account
+ * and day with a movement, so a balance series costs one row per day rather than one per
+ * transaction.
+ */
+public interface DailyBalanceDao {
+    /**
+     * Folds freshly inserted ledger rows into their accounts' days, on the caller's connection
+     * and in the transaction that inserted them. Rows without a post balance (failed ones) don't
+     * count. Called by the transaction DAO, which every ledger write goes through.
+     */
+    void record(List<Transaction> txns, Connection conn) throws Exception;
+
+    /** Streams the account's days with {@code from <= balance_date <= to}, oldest first. */
+    void findRange(int accountId, Date from, Date to, RowHandler<DailyBalance> handler) throws Exception;
+
+    /** The account's latest day before {@code before}, or {@code null}. */
+    DailyBalance findLastBefore(int accountId, Date before) throws Exception;
+
+    /**
+     * Streams the days with {@code from <= balance_date <= to} of all the given accounts,
+     * ordered by account then day; one index range per account, so only the range's rows are read.
+     */
+    void findRange(List<Integer> accountIds, Date from, Date to, RowHandler<DailyBalance> handler) throws Exception;
+
+    /** Latest day before {@code before} of each given account that has one, keyed by account id. */
+    Map<Integer, DailyBalance> findLastBefore(List<Integer> accountIds, Date before) throws Exception;
+}
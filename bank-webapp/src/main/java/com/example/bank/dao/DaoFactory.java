@@ -0,0 +1,89 @@
+package com.example.bank.dao;
+
+import com.example.bank.dao.impl.CachingAccountDao;
+import com.example.bank.dao.impl.EngineAccountDao;
+import com.example.bank.dao.impl.JdbcAccountDao;
+import com.example.bank.dao.impl.JdbcDailyBalanceDao;
+import com.example.bank.dao.impl.JdbcEngineCheckpointDao;
+import com.example.bank.dao.impl.JdbcFixedDepositDao;
+import com.example.bank.dao.impl.JdbcInterestAccrualDao;
+import com.example.bank.dao.impl.JdbcIdempotencyDao;
+import com.example.bank.dao.impl.JdbcSipPlanDao;
+import com.example.bank.dao.impl.JdbcTransactionDao;
+import com.example.bank.dao.impl.JdbcUserDao;
+import com.example.bank.dao.impl.TimedAccountDao;
+import com.example.bank.dao.impl.TimedDailyBalanceDao;
+import com.example.bank.dao.impl.TimedFixedDepositDao;
+import com.example.bank.dao.impl.TimedIdempotencyDao;
+import com.example.bank.dao.impl.TimedSipPlanDao;
+import com.example.bank.dao.impl.TimedTransactionDao;
+import com.example.bank.dao.impl.TimedUserDao;
+
+/**
+ * Shared DAO instances. Servlets and services must take their DAOs from here so that they
+ * all see the same decorators (the account cache in particular). Every Jdbc DAO is wrapped in a
+ * timing decorator feeding /api/metrics unless {@code bank.metrics.dao.enabled} is false.
+ * With {@code bank.engine.enabled} the account DAO is an {@link EngineAccountDao} in front of
+ * the balance engine.
+ */
+public final class DaoFactory {
+    private static final boolean ACCOUNT_CACHE_ENABLED =
+            Boolean.parseBoolean(System.getProperty("bank.cache.accounts.enabled", "true"));
+    private static final int ACCOUNT_CACHE_SIZE = Integer.getInteger("bank.cache.accounts.maxSize", 10_000);
+    // the cache is only invalidated within this process, so the TTL bounds staleness across nodes
+    private static final long ACCOUNT_CACHE_TTL_MS = Long.getLong("bank.cache.accounts.ttlMs", 2_000L);
+    private static final boolean ENGINE_ENABLED = Boolean.getBoolean("bank.engine.enabled");
+    private static final boolean DAO_METRICS_ENABLED =
+            Boolean.parseBoolean(System.getProperty("bank.metrics.dao.enabled", "true"));
+
+    private static final AccountDao JDBC_ACCOUNT_DAO = DAO_METRICS_ENABLED
+            ? new TimedAccountDao(new JdbcAccountDao())
+            : new JdbcAccountDao();
+    private static final AccountDao DATABASE_ACCOUNT_DAO = ACCOUNT_CACHE_ENABLED
+            ? new CachingAccountDao(JDBC_ACCOUNT_DAO, ACCOUNT_CACHE_SIZE, ACCOUNT_CACHE_TTL_MS)
+            : JDBC_ACCOUNT_DAO;
+    private static final AccountDao ACCOUNT_DAO = ENGINE_ENABLED
+            ? new EngineAccountDao(DATABASE_ACCOUNT_DAO)
+            : DATABASE_ACCOUNT_DAO;
+    private static final UserDao USER_DAO = DAO_METRICS_ENABLED
+            ? new TimedUserDao(new JdbcUserDao())
+            : new JdbcUserDao();
+    private static final DailyBalanceDao DAILY_BALANCE_DAO = DAO_METRICS_ENABLED
+            ? new TimedDailyBalanceDao(new JdbcDailyBalanceDao())
+            : new JdbcDailyBalanceDao();
+    private static final TransactionDao TRANSACTION_DAO = DAO_METRICS_ENABLED
+            ? new TimedTransactionDao(new JdbcTransactionDao(DAILY_BALANCE_DAO))
+            : new JdbcTransactionDao(DAILY_BALANCE_DAO);
+    private static final FixedDepositDao FIXED_DEPOSIT_DAO = DAO_METRICS_ENABLED
+            ? new TimedFixedDepositDao(new JdbcFixedDepositDao())
+            : new JdbcFixedDepositDao();
+    private static final SipPlanDao SIP_PLAN_DAO = DAO_METRICS_ENABLED
+            ? new TimedSipPlanDao(new JdbcSipPlanDao())
+            : new JdbcSipPlanDao();
+    private static final IdempotencyDao IDEMPOTENCY_DAO = DAO_METRICS_ENABLED
+            ? new TimedIdempotencyDao(new JdbcIdempotencyDao())
+            : new JdbcIdempotencyDao();
+    private static final EngineCheckpointDao ENGINE_CHECKPOINT_DAO = new JdbcEngineCheckpointDao();
+    private static final InterestAccrualDao INTEREST_ACCRUAL_DAO = new JdbcInterestAccrualDao();
+
+    private DaoFactory() {
+    }
+
+    public static AccountDao accountDao() { return ACCOUNT_DAO; }
+    public static UserDao userDao() { return USER_DAO; }
+    public static TransactionDao transactionDao() { return TRANSACTION_DAO; }
+    public static DailyBalanceDao dailyBalanceDao() { return DAILY_BALANCE_DAO; }
+    public static FixedDepositDao fixedDepositDao() { return FIXED_DEPOSIT_DAO; }
+    public static SipPlanDao sipPlanDao() { return SIP_PLAN_DAO; }
+    public static IdempotencyDao idempotencyDao() { return IDEMPOTENCY_DAO; }
+    public static EngineCheckpointDao engineCheckpointDao() { return ENGINE_CHECKPOINT_DAO; }
+    public static InterestAccrualDao interestAccrualDao() { return INTEREST_ACCRUAL_DAO; }
+
+    /** The account DAO beneath the balance engine; the same as {@link #accountDao()} when the engine is off. */
+    public static AccountDao databaseAccountDao() { return DATABASE_ACCOUNT_DAO; }
+
+    /** The account cache, or {@code null} when caching is disabled. */
+    public static CachingAccountDao accountCache() {
+        return DATABASE_ACCOUNT_DAO instanceof CachingAccountDao ? (CachingAccountDao) DATABASE_ACCOUNT_DAO : null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bank.dao;
+
+import java.sql.SQLException;
+
+/** An insert hit a unique constraint, e.g. an email that is already registered. */
+public class DuplicateKeyException extends Exception {
+
+    public DuplicateKeyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /** MySQL reports duplicates as error 1062; other databases use SQLSTATE 23505. */
+    public static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == 1062 || "23505".equals(e.getSQLState());
+    }
+}
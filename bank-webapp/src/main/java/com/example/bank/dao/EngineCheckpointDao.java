@@ -0,0 +1,32 @@
+package com.example.bank.dao;
+
+import java.sql.Connection;
+
+/**
+ * Last write-ahead-log sequence of each balance engine shard that has reached the database,
+ * and the lease that makes one node the shard's only writer.
+ */
+public interface EngineCheckpointDao {
+    /** @return the shard's checkpoint, 0 if it has never flushed */
+    long find(int shard) throws Exception;
+
+    /**
+     * Takes the shard's lease for {@code owner} if it is free, expired or already
+     * {@code owner}'s, creating the shard's row if needed.
+     *
+     * @return {@code null} if the lease is now {@code owner}'s, else a description of who holds it
+     */
+    String claim(int shard, String owner, int leaseSeconds) throws Exception;
+
+    /** Extends {@code owner}'s lease; false if the shard is no longer {@code owner}'s. */
+    boolean renew(int shard, String owner, int leaseSeconds) throws Exception;
+
+    /** Gives the lease up, if {@code owner} still holds it. */
+    void release(int shard, String owner) throws Exception;
+
+    /**
+     * Moves the checkpoint on the caller's connection, in the transaction that flushed up to
+     * {@code seq}; false, with nothing written, if the shard is no longer {@code owner}'s.
+     */
+    boolean save(int shard, long seq, String owner, Connection conn) throws Exception;
+}
@@ -0,0 +1,16 @@
+package com.example.bank.dao;
+
+/**
+ * A balance write on a database connection to an account the balance engine holds; only the
+ * engine's deposits and withdrawals may move its balance. Nothing was written.
+ */
+public class EngineOwnedAccountException extends Exception {
+    private final int accountId;
+
+    public EngineOwnedAccountException(int accountId) {
+        super("Account " + accountId + " is held by the balance engine; only deposits and withdrawals are supported");
+        this.accountId = accountId;
+    }
+
+    public int getAccountId() { return accountId; }
+}
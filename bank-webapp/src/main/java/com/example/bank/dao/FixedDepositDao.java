@@ -0,0 +1,28 @@
+package com.example.bank.dao;
+
+import com.example.bank.model.FixedDeposit;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.List;
+
+public interface FixedDepositDao {
+    int create(FixedDeposit fd, Connection conn) throws Exception;
+    FixedDeposit findById(int fdId) throws Exception;
+    List<FixedDeposit> findByAccountId(int accountId) throws Exception;
+
+    /**
+     * Next page of ACTIVE deposits maturing on or before {@code asOf}, in (maturity_date, fd_id)
+     * order and strictly after the given position; only id and maturity date are filled in.
+     * Pass {@code afterDate == null} for the first page.
+     */
+    List<FixedDeposit> findDue(Date asOf, Date afterDate, int afterId, int limit) throws Exception;
+
+    /**
+     * Locks the still-ACTIVE deposits among {@code fdIds} on the caller's connection, skipping
+     * rows another run holds, so two maturity runs never process the same deposit.
+     */
+    List<FixedDeposit> lockActive(List<Integer> fdIds, Connection conn) throws Exception;
+
+    void markMatured(List<FixedDeposit> fds, Connection conn) throws Exception;
+}
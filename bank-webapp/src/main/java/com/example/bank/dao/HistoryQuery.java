@@ -0,0 +1,39 @@
+package com.example.bank.dao;
+
+import java.sql.Timestamp;
+
+/**
+ * One page of an account's transaction history, newest first. Paging is keyset based: the
+ * next page starts strictly after ({@code beforeDate}, {@code beforeId}) of the last row seen.
+ */
+public class HistoryQuery {
+    private int accountId;
+    private Timestamp fromDate;   // inclusive
+    private Timestamp toDate;     // exclusive
+    private String txnType;
+    private Timestamp beforeDate;
+    private int beforeId;
+    private int limit = 50;
+
+    // getters & setters
+    public int getAccountId() { return accountId; }
+    public void setAccountId(int accountId) { this.accountId = accountId; }
+
+    public Timestamp getFromDate() { return fromDate; }
+    public void setFromDate(Timestamp fromDate) { this.fromDate = fromDate; }
+
+    public Timestamp getToDate() { return toDate; }
+    public void setToDate(Timestamp toDate) { this.toDate = toDate; }
+
+    public String getTxnType() { return txnType; }
+    public void setTxnType(String txnType) { this.txnType = txnType; }
+
+    public Timestamp getBeforeDate() { return beforeDate; }
+    public void setBeforeDate(Timestamp beforeDate) { this.beforeDate = beforeDate; }
+
+    public int getBeforeId() { return beforeId; }
+    public void setBeforeId(int beforeId) { this.beforeId = beforeId; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+}
@@ -0,0 +1,19 @@
+package com.example.bank.dao;
+
+import com.example.bank.model.IdempotencyRecord;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+
+public interface IdempotencyDao {
+    /**
+     * Inserts the record on the caller's connection unless its (user, key) already exists.
+     *
+     * @return {@code false} if the key was already taken, by this transaction or a committed one
+     */
+    boolean insertIfAbsent(IdempotencyRecord record, Connection conn) throws Exception;
+
+    IdempotencyRecord find(int userId, String idemKey) throws Exception;
+
+    int deleteOlderThan(Timestamp cutoff) throws Exception;
+}
@@ -0,0 +1,12 @@
+package com.example.bank.dao;
+
+public class InsufficientFundsException extends Exception {
+    private final int accountId;
+
+    public InsufficientFundsException(int accountId) {
+        super("Insufficient funds");
+        this.accountId = accountId;
+    }
+
+    public int getAccountId() { return accountId; }
+}
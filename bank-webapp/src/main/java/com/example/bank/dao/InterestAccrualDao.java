@@ -0,0 +1,38 @@
+package com.example.bank.dao;
+
+import com.example.bank.model.Account;
+import com.example.bank.model.InterestPosting;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Savings accounts to accrue interest on, the postings made ({@code interest_postings}) and the
+ * account id ranges of each period already done ({@code interest_accrual_checkpoints}).
+ */
+public interface InterestAccrualDao {
+    /** Highest account id, 0 if there are no accounts. */
+    int findMaxAccountId() throws Exception;
+
+    /** ACTIVE Savings accounts with {@code fromId <= account_id < toId}, ascending. */
+    List<Account> findSavings(int fromId, int toId) throws Exception;
+
+    /** Start ids of the ranges already completed for the period. */
+    Set<Integer> findCompletedRanges(Date periodStart) throws Exception;
+
+    /** Accounts with {@code fromId <= account_id < toId} already credited for the period. */
+    Set<Integer> findPosted(Date periodStart, int fromId, int toId) throws Exception;
+
+    /**
+     * Inserts postings on the caller's connection, in the transaction that credits them; the
+     * (account, period) key rejects a second posting with a {@link java.sql.SQLException}.
+     */
+    void insertPostings(List<InterestPosting> postings, Connection conn) throws Exception;
+
+    /** Records the range as completed for the period. */
+    void saveCompletedRange(Date periodStart, int fromId, int toId, int posted, BigDecimal total)
+            throws Exception;
+}
@@ -0,0 +1,7 @@
+package com.example.bank.dao;
+
+/** Receives rows one at a time from a DAO query that streams its result. */
+@FunctionalInterface
+public interface RowHandler<T> {
+    void handle(T row) throws Exception;
+}
@@ -0,0 +1,25 @@
+package com.example.bank.dao;
+
+import com.example.bank.model.SipPlan;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.List;
+
+public interface SipPlanDao {
+    /**
+     * Next page of ACTIVE plans with an installment due on or before {@code asOf}, in
+     * (next_installment_date, sip_id) order and strictly after the given position; only id,
+     * account id and due date are filled in. Pass {@code afterDate == null} for the first page.
+     */
+    List<SipPlan> findDue(Date asOf, Date afterDate, int afterId, int limit) throws Exception;
+
+    /**
+     * Locks the plans among {@code sipIds} that are still ACTIVE and due on or before
+     * {@code asOf}, skipping rows another run holds.
+     */
+    List<SipPlan> lockDue(List<Integer> sipIds, Date asOf, Connection conn) throws Exception;
+
+    /** Writes each plan's next_installment_date and status in one batch. */
+    void advance(List<SipPlan> plans, Connection conn) throws Exception;
+}
@@ -0,0 +1,33 @@
+package com.example.bank.dao;
+
+import com.example.bank.model.Transaction;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.List;
+
+public interface TransactionDao {
+    int insert(Transaction txn, Connection conn) throws Exception;
+    void insertBatch(List<Transaction> txns, Connection conn) throws Exception;
+
+    /**
+     * Streams up to {@code query.getLimit()} history rows touching the account, newest first.
+     * Each transfer leg is reported only for the account whose balance it changed, so
+     * {@code post_balance} is always that account's running balance.
+     */
+    void findHistory(HistoryQuery query, RowHandler<Transaction> handler) throws Exception;
+
+    /**
+     * Streams every row touching the account with {@code from <= txn_date < to}, oldest first,
+     * straight off a forward-only cursor: rows are never buffered, however many there are.
+     * The handler must not use the database on the calling thread's behalf while it runs.
+     */
+    void streamRange(int accountId, Timestamp from, Timestamp to, RowHandler<Transaction> handler)
+            throws Exception;
+
+    /** Latest row before {@code before} that carries the account's post balance, or {@code null}. */
+    Transaction findLastWithBalanceBefore(int accountId, Timestamp before) throws Exception;
+
+    /** Earliest row at or after {@code from} that carries the account's post balance, or {@code null}. */
+    Transaction findFirstWithBalanceFrom(int accountId, Timestamp from) throws Exception;
+}
@@ -2,8 +2,22 @@ package com.example.bank.dao;
 
 import com.example.bank.model.User;
 
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 public interface UserDao {
+    /** @throws DuplicateKeyException if the email is already registered */
     int create(User user) throws Exception;
     User findById(int id) throws Exception;
+
+    /** Login lookup: only id, first name, email and password hash are filled in. */
     User findByEmail(String email) throws Exception;
+
+    /** Inserts all users in one JDBC batch on the caller's connection and sets their ids. */
+    void createBatch(List<User> users, Connection conn) throws Exception;
+
+    /** Which of {@code emails} already belong to a user, in one query. */
+    Set<String> findExistingEmails(Collection<String> emails) throws Exception;
 }
@@ -0,0 +1,133 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.dao.AccountDao;
+import com.example.bank.model.Account;
+import com.example.bank.util.BoundedCache;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Read-through cache in front of another {@link AccountDao}. Balance writes evict the account
+ * when they are applied and again through {@link #afterCommit} once their transaction has
+ * committed. A load that raced with either eviction is not cached, so a reader never sees a
+ * balance older than the last committed write.
+ *
+ * <p>Those evictions only reach this process. When several nodes share the database, a write
+ * made on one node is seen by the others once their cached copy expires, so the TTL is the
+ * bound on how stale a balance read elsewhere can be. Keep it short there, or turn the cache
+ * off with {@code bank.cache.accounts.enabled=false}.
+ */
+public class CachingAccountDao implements AccountDao {
+    private static final int VERSION_STRIPES = 1024;
+
+    private final AccountDao delegate;
+    private final BoundedCache<Integer, Account> byId;
+    private final BoundedCache<String, Integer> idByNumber;
+    // bumped on every invalidation; a load only installs if its stripe didn't move meanwhile
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public CachingAccountDao(AccountDao delegate, int maxSize, long ttlMillis) {
+        this.delegate = delegate;
+        this.byId = new BoundedCache<>(maxSize, ttlMillis);
+        // account numbers never change, so this mapping only needs the size bound
+        this.idByNumber = new BoundedCache<>(maxSize, Long.MAX_VALUE / 1_000_000L);
+    }
+
+    @Override
+    public int create(Account account) throws Exception {
+        return delegate.create(account);
+    }
+
+    @Override
+    public void createBatch(List<Account> accounts, Connection conn) throws Exception {
+        delegate.createBatch(accounts, conn);
+    }
+
+    @Override
+    public Account findById(int id) throws Exception {
+        Account cached = byId.get(id);
+        if (cached != null) return copy(cached);
+
+        int stripe = id & (VERSION_STRIPES - 1);
+        long version = versions.get(stripe);
+        Account loaded = delegate.findById(id);
+        if (loaded == null) return null;
+
+        Account snapshot = copy(loaded);
+        byId.withLock(id, (k, cache) -> {
+            if (versions.get(stripe) == version) cache.put(k, snapshot);
+            return null;
+        });
+        return loaded;
+    }
+
+    @Override
+    public Account findByAccountNumber(String accNo) throws Exception {
+        Integer id = idByNumber.get(accNo);
+        if (id != null) return findById(id);
+
+        Account a = delegate.findByAccountNumber(accNo);
+        if (a != null) idByNumber.put(accNo, a.getAccountId());
+        return a;
+    }
+
+    @Override
+    public void updateBalance(int accountId, BigDecimal newBalance, Connection conn) throws Exception {
+        invalidate(accountId);
+        delegate.updateBalance(accountId, newBalance, conn);
+    }
+
+    @Override
+    public List<Integer> findIdsAfter(int afterId, int limit) throws Exception {
+        return delegate.findIdsAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Integer> findIdsByUserId(int userId) throws Exception {
+        return delegate.findIdsByUserId(userId);
+    }
+
+    @Override
+    public BigDecimal adjustBalance(int accountId, BigDecimal delta, Connection conn) throws Exception {
+        invalidate(accountId);
+        return delegate.adjustBalance(accountId, delta, conn);
+    }
+
+    @Override
+    public void lockAll(Collection<Integer> accountIds, Connection conn) throws Exception {
+        delegate.lockAll(accountIds, conn);
+    }
+
+    @Override
+    public void afterCommit(int accountId) {
+        invalidate(accountId);
+        delegate.afterCommit(accountId);
+    }
+
+    public void invalidate(int accountId) {
+        int stripe = accountId & (VERSION_STRIPES - 1);
+        byId.withLock(accountId, (k, cache) -> {
+            versions.incrementAndGet(stripe);
+            cache.remove(k);
+            return null;
+        });
+    }
+
+    public BoundedCache<Integer, Account> getCache() { return byId; }
+
+    private static Account copy(Account a) {
+        Account c = new Account();
+        c.setAccountId(a.getAccountId());
+        c.setUserId(a.getUserId());
+        c.setAccountNumber(a.getAccountNumber());
+        c.setAccountType(a.getAccountType());
+        c.setBalance(a.getBalance());
+        c.setOpenedAt(a.getOpenedAt());
+        c.setStatus(a.getStatus());
+        return c;
+    }
+}
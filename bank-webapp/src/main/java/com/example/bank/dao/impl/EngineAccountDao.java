@@ -0,0 +1,89 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.EngineOwnedAccountException;
+import com.example.bank.model.Account;
+import com.example.bank.service.BalanceEngine;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@link AccountDao} seen by the application when {@code bank.engine.enabled} is set.
+ * Accounts held by the {@link BalanceEngine} are read with their in-memory balance, because
+ * the stored one lags by the records not flushed yet, and balance writes on a database
+ * connection are refused with {@link EngineOwnedAccountException}: the engine must stay their
+ * only writer. Everything else goes straight to the delegate.
+ */
+public class EngineAccountDao implements AccountDao {
+    private final AccountDao delegate;
+
+    public EngineAccountDao(AccountDao delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int create(Account account) throws Exception {
+        return delegate.create(account);
+    }
+
+    @Override
+    public void createBatch(List<Account> accounts, Connection conn) throws Exception {
+        delegate.createBatch(accounts, conn);
+    }
+
+    @Override
+    public Account findById(int id) throws Exception {
+        return overlay(delegate.findById(id));
+    }
+
+    @Override
+    public Account findByAccountNumber(String accNo) throws Exception {
+        return overlay(delegate.findByAccountNumber(accNo));
+    }
+
+    @Override
+    public void updateBalance(int accountId, BigDecimal newBalance, Connection conn) throws Exception {
+        checkNotEngine(accountId);
+        delegate.updateBalance(accountId, newBalance, conn);
+    }
+
+    @Override
+    public List<Integer> findIdsAfter(int afterId, int limit) throws Exception {
+        return delegate.findIdsAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Integer> findIdsByUserId(int userId) throws Exception {
+        return delegate.findIdsByUserId(userId);
+    }
+
+    @Override
+    public BigDecimal adjustBalance(int accountId, BigDecimal delta, Connection conn) throws Exception {
+        checkNotEngine(accountId);
+        return delegate.adjustBalance(accountId, delta, conn);
+    }
+
+    @Override
+    public void lockAll(Collection<Integer> accountIds, Connection conn) throws Exception {
+        delegate.lockAll(accountIds, conn);
+    }
+
+    @Override
+    public void afterCommit(int accountId) {
+        delegate.afterCommit(accountId);
+    }
+
+    private static Account overlay(Account a) {
+        if (a == null) return null;
+        BigDecimal balance = BalanceEngine.getInstance().balanceOf(a.getAccountId());
+        if (balance != null) a.setBalance(balance);
+        return a;
+    }
+
+    private static void checkNotEngine(int accountId) throws EngineOwnedAccountException {
+        if (BalanceEngine.getInstance().owns(accountId)) throw new EngineOwnedAccountException(accountId);
+    }
+}
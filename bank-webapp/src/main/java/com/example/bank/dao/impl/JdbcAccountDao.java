@@ -2,23 +2,24 @@ package com.example.bank.dao.impl;
 
 import com.example.bank.DBConnectionManager;
 import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.InsufficientFundsException;
 import com.example.bank.model.Account;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public class JdbcAccountDao implements AccountDao {
 
+    private static final String INSERT_SQL = "INSERT INTO accounts (user_id, account_number, account_type, balance, status) VALUES (?,?,?,?,?)";
+
     @Override
     public int create(Account account) throws Exception {
-        String sql = "INSERT INTO accounts (user_id, account_number, account_type, balance, status) VALUES (?,?,?,?,?)";
         try (Connection conn = DBConnectionManager.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setInt(1, account.getUserId());
-            ps.setString(2, account.getAccountNumber());
-            ps.setString(3, account.getAccountType());
-            ps.setBigDecimal(4, account.getBalance() == null ? BigDecimal.ZERO : account.getBalance());
-            ps.setString(5, account.getStatus() == null ? "ACTIVE" : account.getStatus());
+             PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bind(ps, account);
             ps.executeUpdate();
             try (ResultSet rs = ps.getGeneratedKeys()) {
                 if (rs.next()) return rs.getInt(1);
@@ -27,6 +28,32 @@ public class JdbcAccountDao implements AccountDao {
         }
     }
 
+    @Override
+    public void createBatch(List<Account> accounts, Connection conn) throws Exception {
+        if (accounts.isEmpty()) return;
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (Account a : accounts) {
+                bind(ps, a);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                for (Account a : accounts) {
+                    if (!rs.next()) throw new SQLException("Account id not generated");
+                    a.setAccountId(rs.getInt(1));
+                }
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Account account) throws SQLException {
+        ps.setInt(1, account.getUserId());
+        ps.setString(2, account.getAccountNumber());
+        ps.setString(3, account.getAccountType());
+        ps.setBigDecimal(4, account.getBalance() == null ? BigDecimal.ZERO : account.getBalance());
+        ps.setString(5, account.getStatus() == null ? "ACTIVE" : account.getStatus());
+    }
+
     @Override
     public Account findById(int id) throws Exception {
         String sql = "SELECT * FROM accounts WHERE account_id = ?";
@@ -63,7 +90,81 @@ public class JdbcAccountDao implements AccountDao {
         }
     }
 
-    private Account mapRow(ResultSet rs) throws SQLException {
+    @Override
+    public List<Integer> findIdsAfter(int afterId, int limit) throws Exception {
+        String sql = "SELECT account_id FROM accounts WHERE account_id > ? ORDER BY account_id LIMIT ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<Integer> ids = new ArrayList<>(limit);
+                while (rs.next()) ids.add(rs.getInt(1));
+                return ids;
+            }
+        }
+    }
+
+    @Override
+    public List<Integer> findIdsByUserId(int userId) throws Exception {
+        String sql = "SELECT account_id FROM accounts WHERE user_id = ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<Integer> ids = new ArrayList<>();
+                while (rs.next()) ids.add(rs.getInt(1));
+                return ids;
+            }
+        }
+    }
+
+    @Override
+    public BigDecimal adjustBalance(int accountId, BigDecimal delta, Connection conn) throws Exception {
+        // the guard keeps check-and-set in one statement, so concurrent debits can't overdraw.
+        // MySQL has no UPDATE ... RETURNING, so the new balance takes a second, primary-key read;
+        // the UPDATE already holds the row lock, so nothing can change the balance in between
+        String sql = "UPDATE accounts SET balance = balance + ? WHERE account_id = ? AND balance + ? >= 0";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBigDecimal(1, delta);
+            ps.setInt(2, accountId);
+            ps.setBigDecimal(3, delta);
+            if (ps.executeUpdate() == 1) return readBalance(accountId, conn);
+        }
+
+        if (readBalance(accountId, conn) == null) return null;
+        throw new InsufficientFundsException(accountId);
+    }
+
+    @Override
+    public void lockAll(Collection<Integer> accountIds, Connection conn) throws Exception {
+        if (accountIds.isEmpty()) return;
+        StringBuilder sql = new StringBuilder("SELECT account_id FROM accounts WHERE account_id IN (");
+        for (int i = 0; i < accountIds.size(); i++) sql.append(i == 0 ? "?" : ",?");
+        // InnoDB takes the locks as it walks the primary key, so ORDER BY fixes the lock order
+        sql.append(") ORDER BY account_id FOR UPDATE");
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            for (int id : accountIds) ps.setInt(i++, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // drain, so every row is locked before we return
+                }
+            }
+        }
+    }
+
+    private BigDecimal readBalance(int accountId, Connection conn) throws SQLException {
+        String sql = "SELECT balance FROM accounts WHERE account_id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, accountId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBigDecimal(1) : null;
+            }
+        }
+    }
+
+    Account mapRow(ResultSet rs) throws SQLException {
         Account a = new Account();
         a.setAccountId(rs.getInt("account_id"));
         a.setUserId(rs.getInt("user_id"));
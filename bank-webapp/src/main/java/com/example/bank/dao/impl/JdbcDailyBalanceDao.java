@@ -0,0 +1,138 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.DailyBalanceDao;
+import com.example.bank.dao.RowHandler;
+import com.example.bank.model.DailyBalance;
+import com.example.bank.model.Transaction;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JdbcDailyBalanceDao implements DailyBalanceDao {
+    // the day comes from the same expression as the row's txn_date, so both agree on the clock;
+    // rows are applied in order, so the closing balance ends up as the day's last post balance
+    private static final String UPSERT_SQL = "INSERT INTO account_daily_balances " +
+            "(account_id,balance_date,closing_balance,credit_total,debit_total,txn_count) " +
+            "VALUES (?,CAST(COALESCE(?,CURRENT_TIMESTAMP) AS DATE),?,?,?,1) " +
+            "ON DUPLICATE KEY UPDATE closing_balance = VALUES(closing_balance), " +
+            "credit_total = credit_total + VALUES(credit_total), " +
+            "debit_total = debit_total + VALUES(debit_total), " +
+            "txn_count = txn_count + 1";
+
+    @Override
+    public void record(List<Transaction> txns, Connection conn) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement(UPSERT_SQL)) {
+            int n = 0;
+            for (Transaction t : txns) {
+                if (t.getPostBalance() == null || "FAILED".equals(t.getStatus())) continue;
+                // same leg rules as the history: each row belongs to the account whose balance it moved
+                boolean debit = t.getFromAccountId() != null && !"TRANSFER_IN".equals(t.getTxnType());
+                Integer accountId = debit ? t.getFromAccountId() : t.getToAccountId();
+                if (accountId == null) continue;
+
+                ps.setInt(1, accountId);
+                ps.setTimestamp(2, t.getTxnDate());
+                ps.setBigDecimal(3, t.getPostBalance());
+                ps.setBigDecimal(4, debit ? BigDecimal.ZERO : t.getAmount());
+                ps.setBigDecimal(5, debit ? t.getAmount() : BigDecimal.ZERO);
+                ps.addBatch();
+                n++;
+            }
+            if (n > 0) ps.executeBatch();
+        }
+    }
+
+    @Override
+    public void findRange(int accountId, Date from, Date to, RowHandler<DailyBalance> handler) throws Exception {
+        // a primary key range scan: one row per day with movements, however busy the account
+        String sql = "SELECT * FROM account_daily_balances WHERE account_id = ? " +
+                "AND balance_date >= ? AND balance_date <= ? ORDER BY balance_date";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, accountId);
+            ps.setDate(2, from);
+            ps.setDate(3, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) handler.handle(mapRow(rs));
+            }
+        }
+    }
+
+    @Override
+    public DailyBalance findLastBefore(int accountId, Date before) throws Exception {
+        String sql = "SELECT * FROM account_daily_balances WHERE account_id = ? " +
+                "AND balance_date < ? ORDER BY balance_date DESC LIMIT 1";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, accountId);
+            ps.setDate(2, before);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
+        }
+    }
+
+    @Override
+    public void findRange(List<Integer> accountIds, Date from, Date to, RowHandler<DailyBalance> handler)
+            throws Exception {
+        if (accountIds.isEmpty()) return;
+        String sql = "SELECT * FROM account_daily_balances WHERE account_id IN ("
+                + String.join(",", Collections.nCopies(accountIds.size(), "?"))
+                + ") AND balance_date >= ? AND balance_date <= ? ORDER BY account_id, balance_date";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer id : accountIds) ps.setInt(i++, id);
+            ps.setDate(i++, from);
+            ps.setDate(i, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) handler.handle(mapRow(rs));
+            }
+        }
+    }
+
+    @Override
+    public Map<Integer, DailyBalance> findLastBefore(List<Integer> accountIds, Date before) throws Exception {
+        Map<Integer, DailyBalance> out = new HashMap<>();
+        if (accountIds.isEmpty()) return out;
+        // the inner MAX per account is a loose index scan of the primary key
+        String in = String.join(",", Collections.nCopies(accountIds.size(), "?"));
+        String sql = "SELECT d.* FROM account_daily_balances d JOIN ("
+                + "SELECT account_id, MAX(balance_date) AS last_date FROM account_daily_balances"
+                + " WHERE account_id IN (" + in + ") AND balance_date < ? GROUP BY account_id"
+                + ") m ON d.account_id = m.account_id AND d.balance_date = m.last_date";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer id : accountIds) ps.setInt(i++, id);
+            ps.setDate(i, before);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    DailyBalance d = mapRow(rs);
+                    out.put(d.getAccountId(), d);
+                }
+            }
+        }
+        return out;
+    }
+
+    private DailyBalance mapRow(ResultSet rs) throws SQLException {
+        DailyBalance d = new DailyBalance();
+        d.setAccountId(rs.getInt("account_id"));
+        d.setBalanceDate(rs.getDate("balance_date"));
+        d.setClosingBalance(rs.getBigDecimal("closing_balance"));
+        d.setCreditTotal(rs.getBigDecimal("credit_total"));
+        d.setDebitTotal(rs.getBigDecimal("debit_total"));
+        d.setTxnCount(rs.getInt("txn_count"));
+        return d;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.EngineCheckpointDao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Lease times come from the database clock, so nodes with skewed clocks still agree on when a
+ * lease has run out.
+ */
+public class JdbcEngineCheckpointDao implements EngineCheckpointDao {
+
+    @Override
+    public long find(int shard) throws Exception {
+        String sql = "SELECT last_seq FROM balance_engine_checkpoints WHERE shard = ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, shard);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        }
+    }
+
+    @Override
+    public String claim(int shard, String owner, int leaseSeconds) throws Exception {
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO balance_engine_checkpoints (shard, last_seq) VALUES (?,0) " +
+                    "ON DUPLICATE KEY UPDATE last_seq = last_seq")) {
+                ps.setInt(1, shard);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE balance_engine_checkpoints SET owner = ?, " +
+                    "lease_until = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) WHERE shard = ? " +
+                    "AND (owner IS NULL OR owner = ? OR lease_until IS NULL OR lease_until < CURRENT_TIMESTAMP)")) {
+                ps.setString(1, owner);
+                ps.setInt(2, leaseSeconds);
+                ps.setInt(3, shard);
+                ps.setString(4, owner);
+                if (ps.executeUpdate() == 1) return null;
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT owner, lease_until FROM balance_engine_checkpoints WHERE shard = ?")) {
+                ps.setInt(1, shard);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getString(1) + " until " + rs.getTimestamp(2) : "another node";
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean renew(int shard, String owner, int leaseSeconds) throws Exception {
+        String sql = "UPDATE balance_engine_checkpoints SET lease_until = TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) " +
+                "WHERE shard = ? AND owner = ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, leaseSeconds);
+            ps.setInt(2, shard);
+            ps.setString(3, owner);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    @Override
+    public void release(int shard, String owner) throws Exception {
+        String sql = "UPDATE balance_engine_checkpoints SET owner = NULL, lease_until = NULL " +
+                "WHERE shard = ? AND owner = ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, shard);
+            ps.setString(2, owner);
+            ps.executeUpdate();
+        }
+    }
+
+    @Override
+    public boolean save(int shard, long seq, String owner, Connection conn) throws Exception {
+        // the row exists since claim(); matching the owner fences off a node whose lease was taken
+        String sql = "UPDATE balance_engine_checkpoints SET last_seq = ? WHERE shard = ? AND owner = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, seq);
+            ps.setInt(2, shard);
+            ps.setString(3, owner);
+            return ps.executeUpdate() == 1;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.FixedDepositDao;
+import com.example.bank.model.FixedDeposit;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class JdbcFixedDepositDao implements FixedDepositDao {
+
+    @Override
+    public int create(FixedDeposit fd, Connection conn) throws Exception {
+        String sql = "INSERT INTO fixed_deposits (account_id, principal, interest_rate, tenure_months, start_date, maturity_date, maturity_amount, status) VALUES (?,?,?,?,?,?,?,?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, fd.getAccountId());
+            ps.setBigDecimal(2, fd.getPrincipal());
+            ps.setBigDecimal(3, fd.getInterestRate());
+            ps.setInt(4, fd.getTenureMonths());
+            ps.setDate(5, fd.getStartDate());
+            ps.setDate(6, fd.getMaturityDate());
+            ps.setBigDecimal(7, fd.getMaturityAmount());
+            ps.setString(8, fd.getStatus() == null ? "ACTIVE" : fd.getStatus());
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) return rs.getInt(1);
+                throw new SQLException("Fixed deposit id not generated");
+            }
+        }
+    }
+
+    @Override
+    public FixedDeposit findById(int fdId) throws Exception {
+        String sql = "SELECT * FROM fixed_deposits WHERE fd_id = ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, fdId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return mapRow(rs);
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public List<FixedDeposit> findByAccountId(int accountId) throws Exception {
+        String sql = "SELECT * FROM fixed_deposits WHERE account_id = ? ORDER BY fd_id";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, accountId);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<FixedDeposit> out = new ArrayList<>();
+                while (rs.next()) out.add(mapRow(rs));
+                return out;
+            }
+        }
+    }
+
+    @Override
+    public List<FixedDeposit> findDue(Date asOf, Date afterDate, int afterId, int limit) throws Exception {
+        // walks idx_fd_due (status, maturity_date, fd_id) without ever revisiting a row
+        String sql = afterDate == null
+                ? "SELECT fd_id, maturity_date FROM fixed_deposits WHERE status = 'ACTIVE' AND maturity_date <= ? ORDER BY maturity_date, fd_id LIMIT ?"
+                : "SELECT fd_id, maturity_date FROM fixed_deposits WHERE status = 'ACTIVE' AND maturity_date <= ? AND (maturity_date > ? OR (maturity_date = ? AND fd_id > ?)) ORDER BY maturity_date, fd_id LIMIT ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            ps.setDate(i++, asOf);
+            if (afterDate != null) {
+                ps.setDate(i++, afterDate);
+                ps.setDate(i++, afterDate);
+                ps.setInt(i++, afterId);
+            }
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<FixedDeposit> out = new ArrayList<>(limit);
+                while (rs.next()) {
+                    FixedDeposit fd = new FixedDeposit();
+                    fd.setFdId(rs.getInt(1));
+                    fd.setMaturityDate(rs.getDate(2));
+                    out.add(fd);
+                }
+                return out;
+            }
+        }
+    }
+
+    @Override
+    public List<FixedDeposit> lockActive(List<Integer> fdIds, Connection conn) throws Exception {
+        if (fdIds.isEmpty()) return Collections.emptyList();
+        String sql = "SELECT * FROM fixed_deposits WHERE fd_id IN ("
+                + String.join(",", Collections.nCopies(fdIds.size(), "?"))
+                + ") AND status = 'ACTIVE' ORDER BY fd_id FOR UPDATE SKIP LOCKED";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < fdIds.size(); i++) ps.setInt(i + 1, fdIds.get(i));
+            try (ResultSet rs = ps.executeQuery()) {
+                List<FixedDeposit> out = new ArrayList<>(fdIds.size());
+                while (rs.next()) out.add(mapRow(rs));
+                return out;
+            }
+        }
+    }
+
+    @Override
+    public void markMatured(List<FixedDeposit> fds, Connection conn) throws Exception {
+        if (fds.isEmpty()) return;
+        String sql = "UPDATE fixed_deposits SET status = 'MATURED', maturity_amount = ? WHERE fd_id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (FixedDeposit fd : fds) {
+                ps.setBigDecimal(1, fd.getMaturityAmount());
+                ps.setInt(2, fd.getFdId());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private FixedDeposit mapRow(ResultSet rs) throws SQLException {
+        FixedDeposit fd = new FixedDeposit();
+        fd.setFdId(rs.getInt("fd_id"));
+        fd.setAccountId(rs.getInt("account_id"));
+        fd.setPrincipal(rs.getBigDecimal("principal"));
+        fd.setInterestRate(rs.getBigDecimal("interest_rate"));
+        fd.setTenureMonths(rs.getInt("tenure_months"));
+        fd.setStartDate(rs.getDate("start_date"));
+        fd.setMaturityDate(rs.getDate("maturity_date"));
+        fd.setMaturityAmount(rs.getBigDecimal("maturity_amount"));
+        fd.setStatus(rs.getString("status"));
+        return fd;
+    }
+}
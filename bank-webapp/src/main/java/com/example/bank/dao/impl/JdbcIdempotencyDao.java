@@ -0,0 +1,62 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.IdempotencyDao;
+import com.example.bank.model.IdempotencyRecord;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+
+public class JdbcIdempotencyDao implements IdempotencyDao {
+
+    @Override
+    public boolean insertIfAbsent(IdempotencyRecord r, Connection conn) throws Exception {
+        // a duplicate key waits for (or sees) the first insert and then affects no row
+        String sql = "INSERT IGNORE INTO idempotency_keys (user_id, idem_key, account_id, txn_type, amount, status_code, response_body) VALUES (?,?,?,?,?,?,?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, r.getUserId());
+            ps.setString(2, r.getIdemKey());
+            ps.setInt(3, r.getAccountId());
+            ps.setString(4, r.getTxnType());
+            ps.setBigDecimal(5, r.getAmount());
+            ps.setInt(6, r.getStatusCode());
+            ps.setString(7, r.getResponseBody());
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    @Override
+    public IdempotencyRecord find(int userId, String idemKey) throws Exception {
+        String sql = "SELECT * FROM idempotency_keys WHERE user_id = ? AND idem_key = ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setString(2, idemKey);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                IdempotencyRecord r = new IdempotencyRecord();
+                r.setUserId(rs.getInt("user_id"));
+                r.setIdemKey(rs.getString("idem_key"));
+                r.setAccountId(rs.getInt("account_id"));
+                r.setTxnType(rs.getString("txn_type"));
+                r.setAmount(rs.getBigDecimal("amount"));
+                r.setStatusCode(rs.getInt("status_code"));
+                r.setResponseBody(rs.getString("response_body"));
+                r.setCreatedAt(rs.getTimestamp("created_at"));
+                return r;
+            }
+        }
+    }
+
+    @Override
+    public int deleteOlderThan(Timestamp cutoff) throws Exception {
+        String sql = "DELETE FROM idempotency_keys WHERE created_at < ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, cutoff);
+            return ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.InterestAccrualDao;
+import com.example.bank.model.Account;
+import com.example.bank.model.InterestPosting;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class JdbcInterestAccrualDao implements InterestAccrualDao {
+
+    @Override
+    public int findMaxAccountId() throws Exception {
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT MAX(account_id) FROM accounts");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    @Override
+    public List<Account> findSavings(int fromId, int toId) throws Exception {
+        String sql = "SELECT account_id, user_id, balance, opened_at FROM accounts " +
+                "WHERE account_id >= ? AND account_id < ? AND account_type = 'Savings' " +
+                "AND (status IS NULL OR status = 'ACTIVE') ORDER BY account_id";
+        List<Account> out = new ArrayList<>();
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, fromId);
+            ps.setInt(2, toId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Account a = new Account();
+                    a.setAccountId(rs.getInt("account_id"));
+                    a.setUserId(rs.getInt("user_id"));
+                    a.setBalance(rs.getBigDecimal("balance"));
+                    a.setOpenedAt(rs.getTimestamp("opened_at"));
+                    out.add(a);
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public Set<Integer> findCompletedRanges(Date periodStart) throws Exception {
+        String sql = "SELECT range_start FROM interest_accrual_checkpoints WHERE period_start = ?";
+        Set<Integer> out = new HashSet<>();
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setDate(1, periodStart);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(rs.getInt(1));
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public Set<Integer> findPosted(Date periodStart, int fromId, int toId) throws Exception {
+        String sql = "SELECT account_id FROM interest_postings " +
+                "WHERE period_start = ? AND account_id >= ? AND account_id < ?";
+        Set<Integer> out = new HashSet<>();
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setDate(1, periodStart);
+            ps.setInt(2, fromId);
+            ps.setInt(3, toId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(rs.getInt(1));
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void insertPostings(List<InterestPosting> postings, Connection conn) throws Exception {
+        if (postings.isEmpty()) return;
+        String sql = "INSERT INTO interest_postings " +
+                "(account_id, period_start, average_balance, interest_rate, amount) VALUES (?,?,?,?,?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (InterestPosting p : postings) {
+                ps.setInt(1, p.getAccountId());
+                ps.setDate(2, p.getPeriodStart());
+                ps.setBigDecimal(3, p.getAverageBalance());
+                ps.setBigDecimal(4, p.getInterestRate());
+                ps.setBigDecimal(5, p.getAmount());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    @Override
+    public void saveCompletedRange(Date periodStart, int fromId, int toId, int posted, BigDecimal total)
+            throws Exception {
+        String sql = "INSERT INTO interest_accrual_checkpoints " +
+                "(period_start, range_start, range_end, accounts_posted, interest_total) VALUES (?,?,?,?,?)";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setDate(1, periodStart);
+            ps.setInt(2, fromId);
+            ps.setInt(3, toId);
+            ps.setInt(4, posted);
+            ps.setBigDecimal(5, total);
+            ps.executeUpdate();
+        }
+    }
+}
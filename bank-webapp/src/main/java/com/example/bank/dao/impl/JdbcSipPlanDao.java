@@ -0,0 +1,94 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.SipPlanDao;
+import com.example.bank.model.SipPlan;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class JdbcSipPlanDao implements SipPlanDao {
+
+    @Override
+    public List<SipPlan> findDue(Date asOf, Date afterDate, int afterId, int limit) throws Exception {
+        // walks idx_sip_due (status, next_installment_date, sip_id) without revisiting a row
+        String sql = afterDate == null
+                ? "SELECT sip_id, account_id, next_installment_date FROM sip_plans WHERE status = 'ACTIVE' AND next_installment_date <= ? ORDER BY next_installment_date, sip_id LIMIT ?"
+                : "SELECT sip_id, account_id, next_installment_date FROM sip_plans WHERE status = 'ACTIVE' AND next_installment_date <= ? AND (next_installment_date > ? OR (next_installment_date = ? AND sip_id > ?)) ORDER BY next_installment_date, sip_id LIMIT ?";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            ps.setDate(i++, asOf);
+            if (afterDate != null) {
+                ps.setDate(i++, afterDate);
+                ps.setDate(i++, afterDate);
+                ps.setInt(i++, afterId);
+            }
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<SipPlan> out = new ArrayList<>(limit);
+                while (rs.next()) {
+                    SipPlan p = new SipPlan();
+                    p.setSipId(rs.getInt(1));
+                    p.setAccountId(rs.getInt(2));
+                    p.setNextInstallmentDate(rs.getDate(3));
+                    out.add(p);
+                }
+                return out;
+            }
+        }
+    }
+
+    @Override
+    public List<SipPlan> lockDue(List<Integer> sipIds, Date asOf, Connection conn) throws Exception {
+        if (sipIds.isEmpty()) return Collections.emptyList();
+        String sql = "SELECT * FROM sip_plans WHERE sip_id IN ("
+                + String.join(",", Collections.nCopies(sipIds.size(), "?"))
+                + ") AND status = 'ACTIVE' AND next_installment_date <= ? ORDER BY sip_id FOR UPDATE SKIP LOCKED";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer id : sipIds) ps.setInt(i++, id);
+            ps.setDate(i, asOf);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<SipPlan> out = new ArrayList<>(sipIds.size());
+                while (rs.next()) out.add(mapRow(rs));
+                return out;
+            }
+        }
+    }
+
+    @Override
+    public void advance(List<SipPlan> plans, Connection conn) throws Exception {
+        if (plans.isEmpty()) return;
+        String sql = "UPDATE sip_plans SET next_installment_date = ?, status = ? WHERE sip_id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (SipPlan p : plans) {
+                ps.setDate(1, p.getNextInstallmentDate());
+                ps.setString(2, p.getStatus());
+                ps.setInt(3, p.getSipId());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private SipPlan mapRow(ResultSet rs) throws SQLException {
+        SipPlan p = new SipPlan();
+        p.setSipId(rs.getInt("sip_id"));
+        p.setAccountId(rs.getInt("account_id"));
+        p.setMonthlyAmount(rs.getBigDecimal("monthly_amount"));
+        p.setInterestRate(rs.getBigDecimal("interest_rate"));
+        int tenure = rs.getInt("tenure_months");
+        p.setTenureMonths(rs.wasNull() ? null : tenure);
+        p.setStartDate(rs.getDate("start_date"));
+        p.setNextInstallmentDate(rs.getDate("next_installment_date"));
+        p.setStatus(rs.getString("status"));
+        return p;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.DailyBalanceDao;
+import com.example.bank.dao.HistoryQuery;
+import com.example.bank.dao.RowHandler;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.Transaction;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every ledger row is also folded into {@code account_daily_balances} through the
+ * {@link DailyBalanceDao}, in the same transaction.
+ */
+public class JdbcTransactionDao implements TransactionDao {
+    private static final String INSERT_SQL = "INSERT INTO transactions " +
+            "(from_account_id,to_account_id,amount,txn_type,description,post_balance,status,txn_date) " +
+            "VALUES (?,?,?,?,?,?,?,COALESCE(?,CURRENT_TIMESTAMP))";
+
+    private final DailyBalanceDao dailyBalanceDao;
+
+    public JdbcTransactionDao(DailyBalanceDao dailyBalanceDao) {
+        this.dailyBalanceDao = dailyBalanceDao;
+    }
+
+    @Override
+    public int insert(Transaction txn, Connection conn) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bind(ps, txn);
+            ps.executeUpdate();
+            int id;
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (!rs.next()) throw new SQLException("Transaction id not generated");
+                id = rs.getInt(1);
+            }
+            dailyBalanceDao.record(List.of(txn), conn);
+            return id;
+        }
+    }
+
+    @Override
+    public void insertBatch(List<Transaction> txns, Connection conn) throws Exception {
+        if (txns.isEmpty()) return;
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            for (Transaction txn : txns) {
+                bind(ps, txn);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        dailyBalanceDao.record(txns, conn);
+    }
+
+    @Override
+    public void findHistory(HistoryQuery q, RowHandler<Transaction> handler) throws Exception {
+        // one index range scan per side (idx_tx_from / idx_tx_to), each already in page order
+        // and cut at the limit, so the cost of a page doesn't depend on the account's history size
+        List<Object> params = new ArrayList<>();
+        String filters = historyFilters(q, params);
+
+        String sql = "SELECT * FROM ("
+                + "(SELECT * FROM transactions WHERE from_account_id = ?"
+                + " AND (txn_type IS NULL OR txn_type <> 'TRANSFER_IN')" + filters
+                + " ORDER BY txn_date DESC, transaction_id DESC LIMIT ?)"
+                + " UNION ALL "
+                + "(SELECT * FROM transactions WHERE to_account_id = ?"
+                + " AND (txn_type IS NULL OR txn_type <> 'TRANSFER_OUT')" + filters
+                + " ORDER BY txn_date DESC, transaction_id DESC LIMIT ?)"
+                + ") h ORDER BY txn_date DESC, transaction_id DESC LIMIT ?";
+
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (int side = 0; side < 2; side++) {
+                ps.setInt(i++, q.getAccountId());
+                for (Object p : params) ps.setObject(i++, p);
+                ps.setInt(i++, q.getLimit());
+            }
+            ps.setInt(i, q.getLimit());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) handler.handle(mapRow(rs));
+            }
+        }
+    }
+
+    @Override
+    public void streamRange(int accountId, Timestamp from, Timestamp to, RowHandler<Transaction> handler)
+            throws Exception {
+        String sql = accountRows(" AND txn_date >= ? AND txn_date < ?", "ASC", "")
+                + " ORDER BY txn_date, transaction_id";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams row by row instead of reading the whole result into memory
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int side = 0, i = 1; side < 2; side++) {
+                ps.setInt(i++, accountId);
+                ps.setTimestamp(i++, from);
+                ps.setTimestamp(i++, to);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) handler.handle(mapRow(rs));
+            }
+        }
+    }
+
+    @Override
+    public Transaction findLastWithBalanceBefore(int accountId, Timestamp before) throws Exception {
+        String sql = accountRows(" AND txn_date < ? AND post_balance IS NOT NULL", "DESC", " LIMIT 1")
+                + " ORDER BY txn_date DESC, transaction_id DESC LIMIT 1";
+        return findOne(sql, accountId, before);
+    }
+
+    @Override
+    public Transaction findFirstWithBalanceFrom(int accountId, Timestamp from) throws Exception {
+        String sql = accountRows(" AND txn_date >= ? AND post_balance IS NOT NULL", "ASC", " LIMIT 1")
+                + " ORDER BY txn_date, transaction_id LIMIT 1";
+        return findOne(sql, accountId, from);
+    }
+
+    private Transaction findOne(String sql, int accountId, Timestamp at) throws Exception {
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, accountId);
+            ps.setTimestamp(2, at);
+            ps.setInt(3, accountId);
+            ps.setTimestamp(4, at);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Both sides of an account's rows, same leg rules as {@link #findHistory}; each side takes
+     * (account id, then the parameters of {@code filters}).
+     */
+    private static String accountRows(String filters, String direction, String limit) {
+        String order = " ORDER BY txn_date " + direction + ", transaction_id " + direction;
+        return "SELECT * FROM ("
+                + "(SELECT * FROM transactions WHERE from_account_id = ?"
+                + " AND (txn_type IS NULL OR txn_type <> 'TRANSFER_IN')" + filters
+                + (limit.isEmpty() ? "" : order + limit) + ")"
+                + " UNION ALL "
+                + "(SELECT * FROM transactions WHERE to_account_id = ?"
+                + " AND (txn_type IS NULL OR txn_type <> 'TRANSFER_OUT')" + filters
+                + (limit.isEmpty() ? "" : order + limit) + ")"
+                + ") r";
+    }
+
+    private static String historyFilters(HistoryQuery q, List<Object> params) {
+        StringBuilder sb = new StringBuilder();
+        if (q.getBeforeDate() != null) {
+            sb.append(" AND (txn_date < ? OR (txn_date = ? AND transaction_id < ?))");
+            params.add(q.getBeforeDate());
+            params.add(q.getBeforeDate());
+            params.add(q.getBeforeId());
+        }
+        if (q.getFromDate() != null) {
+            sb.append(" AND txn_date >= ?");
+            params.add(q.getFromDate());
+        }
+        if (q.getToDate() != null) {
+            sb.append(" AND txn_date < ?");
+            params.add(q.getToDate());
+        }
+        if (q.getTxnType() != null) {
+            sb.append(" AND txn_type = ?");
+            params.add(q.getTxnType());
+        }
+        return sb.toString();
+    }
+
+    private Transaction mapRow(ResultSet rs) throws SQLException {
+        Transaction t = new Transaction();
+        t.setTransactionId(rs.getInt("transaction_id"));
+        int from = rs.getInt("from_account_id");
+        t.setFromAccountId(rs.wasNull() ? null : from);
+        int to = rs.getInt("to_account_id");
+        t.setToAccountId(rs.wasNull() ? null : to);
+        t.setAmount(rs.getBigDecimal("amount"));
+        t.setTxnType(rs.getString("txn_type"));
+        t.setDescription(rs.getString("description"));
+        t.setTxnDate(rs.getTimestamp("txn_date"));
+        t.setStatus(rs.getString("status"));
+        t.setPostBalance(rs.getBigDecimal("post_balance"));
+        return t;
+    }
+
+    private void bind(PreparedStatement ps, Transaction txn) throws SQLException {
+        if (txn.getFromAccountId() == null) ps.setNull(1, Types.INTEGER);
+        else ps.setInt(1, txn.getFromAccountId());
+        if (txn.getToAccountId() == null) ps.setNull(2, Types.INTEGER);
+        else ps.setInt(2, txn.getToAccountId());
+        ps.setBigDecimal(3, txn.getAmount());
+        ps.setString(4, txn.getTxnType());
+        ps.setString(5, txn.getDescription());
+        ps.setBigDecimal(6, txn.getPostBalance());
+        ps.setString(7, txn.getStatus() == null ? "SUCCESS" : txn.getStatus());
+        // rows written after the fact (balance engine flushes) carry the time of the movement
+        ps.setTimestamp(8, txn.getTxnDate());
+    }
+}
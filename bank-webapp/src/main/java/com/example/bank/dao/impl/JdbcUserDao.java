@@ -1,30 +1,34 @@
 package com.example.bank.dao.impl;
 
 import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.DuplicateKeyException;
 import com.example.bank.dao.UserDao;
 import com.example.bank.model.User;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class JdbcUserDao implements UserDao {
+    private static final String INSERT_SQL = "INSERT INTO users (first_name,last_name,father_name,mother_name,gender,age,phone,aadhaar,pan,email,password_hash) VALUES (?,?,?,?,?,?,?,?,?,?,?)";
 
     @Override
     public int create(User user) throws Exception {
-        String sql = "INSERT INTO users (first_name,last_name,father_name,mother_name,gender,age,phone,aadhaar,pan,email,password_hash) VALUES (?,?,?,?,?,?,?,?,?,?,?)";
         try (Connection conn = DBConnectionManager.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, user.getFirstName());
-            ps.setString(2, user.getLastName());
-            ps.setString(3, user.getFatherName());
-            ps.setString(4, user.getMotherName());
-            ps.setString(5, user.getGender());
-            ps.setInt(6, user.getAge());
-            ps.setString(7, user.getPhone());
-            ps.setString(8, user.getAadhaar());
-            ps.setString(9, user.getPan());
-            ps.setString(10, user.getEmail());
-            ps.setString(11, user.getPasswordHash());
-            ps.executeUpdate();
+             PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bind(ps, user);
+            // uq_users_email decides, so concurrent signups for one email can't both succeed
+            try {
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                if (DuplicateKeyException.isDuplicateKey(e)) {
+                    throw new DuplicateKeyException("Email already registered", e);
+                }
+                throw e;
+            }
             try (ResultSet rs = ps.getGeneratedKeys()) {
                 if (rs.next()) return rs.getInt(1);
                 throw new SQLException("User id not generated");
@@ -47,18 +51,81 @@ public class JdbcUserDao implements UserDao {
 
     @Override
     public User findByEmail(String email) throws Exception {
-        String sql = "SELECT * FROM users WHERE email = ?";
+        // only what login needs: keeps aadhaar/pan off the wire and out of the heap
+        String sql = "SELECT user_id, first_name, email, password_hash FROM users WHERE email = ?";
         try (Connection conn = DBConnectionManager.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, email);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return mapRow(rs);
-                return null;
+                if (!rs.next()) return null;
+                User u = new User();
+                u.setUserId(rs.getInt(1));
+                u.setFirstName(rs.getString(2));
+                u.setEmail(rs.getString(3));
+                u.setPasswordHash(rs.getString(4));
+                return u;
+            }
+        }
+    }
+
+    @Override
+    public void createBatch(List<User> users, Connection conn) throws Exception {
+        if (users.isEmpty()) return;
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (User u : users) {
+                bind(ps, u);
+                ps.addBatch();
+            }
+            try {
+                ps.executeBatch();
+            } catch (SQLException e) {
+                if (DuplicateKeyException.isDuplicateKey(e)) {
+                    throw new DuplicateKeyException("Email already registered", e);
+                }
+                throw e;
+            }
+            // keys come back in batch order, also when the driver rewrites it to one multi-row insert
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                for (User u : users) {
+                    if (!rs.next()) throw new SQLException("User id not generated");
+                    u.setUserId(rs.getInt(1));
+                }
             }
         }
     }
 
-    private User mapRow(ResultSet rs) throws SQLException {
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) throws Exception {
+        if (emails.isEmpty()) return Collections.emptySet();
+        String sql = "SELECT email FROM users WHERE email IN ("
+                + String.join(",", Collections.nCopies(emails.size(), "?")) + ")";
+        try (Connection conn = DBConnectionManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (String email : emails) ps.setString(i++, email);
+            try (ResultSet rs = ps.executeQuery()) {
+                Set<String> found = new HashSet<>();
+                while (rs.next()) found.add(rs.getString(1));
+                return found;
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, User user) throws SQLException {
+        ps.setString(1, user.getFirstName());
+        ps.setString(2, user.getLastName());
+        ps.setString(3, user.getFatherName());
+        ps.setString(4, user.getMotherName());
+        ps.setString(5, user.getGender());
+        ps.setInt(6, user.getAge());
+        ps.setString(7, user.getPhone());
+        ps.setString(8, user.getAadhaar());
+        ps.setString(9, user.getPan());
+        ps.setString(10, user.getEmail());
+        ps.setString(11, user.getPasswordHash());
+    }
+
+    User mapRow(ResultSet rs) throws SQLException {
         User u = new User();
         u.setUserId(rs.getInt("user_id"));
         u.setFirstName(rs.getString("first_name"));
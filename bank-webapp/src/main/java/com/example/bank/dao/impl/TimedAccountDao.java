@@ -0,0 +1,136 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.dao.AccountDao;
+import com.example.bank.model.Account;
+import com.example.bank.util.LatencyHistogram;
+import com.example.bank.util.MetricsRegistry;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Times every call of another {@link AccountDao} into {@link MetricsRegistry}. Sits under
+ * {@link CachingAccountDao}, so it measures the queries that reach the database, not cache hits.
+ */
+public class TimedAccountDao implements AccountDao {
+    private final AccountDao delegate;
+    private final LatencyHistogram createTime;
+    private final LatencyHistogram findByIdTime;
+    private final LatencyHistogram createBatchTime;
+    private final LatencyHistogram findByAccountNumberTime;
+    private final LatencyHistogram updateBalanceTime;
+    private final LatencyHistogram findIdsAfterTime;
+    private final LatencyHistogram findIdsByUserIdTime;
+    private final LatencyHistogram adjustBalanceTime;
+    private final LatencyHistogram lockAllTime;
+
+    public TimedAccountDao(AccountDao delegate) {
+        this.delegate = delegate;
+        this.createTime = MetricsRegistry.query("AccountDao", "create");
+        this.findByIdTime = MetricsRegistry.query("AccountDao", "findById");
+        this.createBatchTime = MetricsRegistry.query("AccountDao", "createBatch");
+        this.findByAccountNumberTime = MetricsRegistry.query("AccountDao", "findByAccountNumber");
+        this.updateBalanceTime = MetricsRegistry.query("AccountDao", "updateBalance");
+        this.findIdsAfterTime = MetricsRegistry.query("AccountDao", "findIdsAfter");
+        this.findIdsByUserIdTime = MetricsRegistry.query("AccountDao", "findIdsByUserId");
+        this.adjustBalanceTime = MetricsRegistry.query("AccountDao", "adjustBalance");
+        this.lockAllTime = MetricsRegistry.query("AccountDao", "lockAll");
+    }
+
+    @Override
+    public int create(Account account) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.create(account);
+        } finally {
+            createTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public Account findById(int id) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(id);
+        } finally {
+            findByIdTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void createBatch(List<Account> accounts, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.createBatch(accounts, conn);
+        } finally {
+            createBatchTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public Account findByAccountNumber(String accNo) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByAccountNumber(accNo);
+        } finally {
+            findByAccountNumberTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateBalance(int accountId, BigDecimal newBalance, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.updateBalance(accountId, newBalance, conn);
+        } finally {
+            updateBalanceTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Integer> findIdsAfter(int afterId, int limit) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findIdsAfter(afterId, limit);
+        } finally {
+            findIdsAfterTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<Integer> findIdsByUserId(int userId) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findIdsByUserId(userId);
+        } finally {
+            findIdsByUserIdTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public BigDecimal adjustBalance(int accountId, BigDecimal delta, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.adjustBalance(accountId, delta, conn);
+        } finally {
+            adjustBalanceTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void lockAll(Collection<Integer> accountIds, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.lockAll(accountIds, conn);
+        } finally {
+            lockAllTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void afterCommit(int accountId) {
+        delegate.afterCommit(accountId);
+    }
+}
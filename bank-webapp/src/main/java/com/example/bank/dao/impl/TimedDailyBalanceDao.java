@@ -0,0 +1,86 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.dao.DailyBalanceDao;
+import com.example.bank.dao.RowHandler;
+import com.example.bank.model.DailyBalance;
+import com.example.bank.model.Transaction;
+import com.example.bank.util.LatencyHistogram;
+import com.example.bank.util.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times every call of another {@link DailyBalanceDao} into {@link MetricsRegistry}. The streaming
+ * methods include the time the caller's {@link RowHandler} spends on the rows.
+ */
+public class TimedDailyBalanceDao implements DailyBalanceDao {
+    private final DailyBalanceDao delegate;
+    private final LatencyHistogram recordTime;
+    private final LatencyHistogram findRangeTime;
+    private final LatencyHistogram findLastBeforeTime;
+    private final LatencyHistogram findRangeManyTime;
+    private final LatencyHistogram findLastBeforeManyTime;
+
+    public TimedDailyBalanceDao(DailyBalanceDao delegate) {
+        this.delegate = delegate;
+        this.recordTime = MetricsRegistry.query("DailyBalanceDao", "record");
+        this.findRangeTime = MetricsRegistry.query("DailyBalanceDao", "findRange");
+        this.findLastBeforeTime = MetricsRegistry.query("DailyBalanceDao", "findLastBefore");
+        this.findRangeManyTime = MetricsRegistry.query("DailyBalanceDao", "findRangeMany");
+        this.findLastBeforeManyTime = MetricsRegistry.query("DailyBalanceDao", "findLastBeforeMany");
+    }
+
+    @Override
+    public void record(List<Transaction> txns, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.record(txns, conn);
+        } finally {
+            recordTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void findRange(int accountId, Date from, Date to, RowHandler<DailyBalance> handler) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.findRange(accountId, from, to, handler);
+        } finally {
+            findRangeTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public DailyBalance findLastBefore(int accountId, Date before) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findLastBefore(accountId, before);
+        } finally {
+            findLastBeforeTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void findRange(List<Integer> accountIds, Date from, Date to, RowHandler<DailyBalance> handler)
+            throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.findRange(accountIds, from, to, handler);
+        } finally {
+            findRangeManyTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public Map<Integer, DailyBalance> findLastBefore(List<Integer> accountIds, Date before) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findLastBefore(accountIds, before);
+        } finally {
+            findLastBeforeManyTime.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.dao.FixedDepositDao;
+import com.example.bank.model.FixedDeposit;
+import com.example.bank.util.LatencyHistogram;
+import com.example.bank.util.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.List;
+
+/** Times every call of another {@link FixedDepositDao} into {@link MetricsRegistry}. */
+public class TimedFixedDepositDao implements FixedDepositDao {
+    private final FixedDepositDao delegate;
+    private final LatencyHistogram createTime;
+    private final LatencyHistogram findByIdTime;
+    private final LatencyHistogram findByAccountIdTime;
+    private final LatencyHistogram findDueTime;
+    private final LatencyHistogram lockActiveTime;
+    private final LatencyHistogram markMaturedTime;
+
+    public TimedFixedDepositDao(FixedDepositDao delegate) {
+        this.delegate = delegate;
+        this.createTime = MetricsRegistry.query("FixedDepositDao", "create");
+        this.findByIdTime = MetricsRegistry.query("FixedDepositDao", "findById");
+        this.findByAccountIdTime = MetricsRegistry.query("FixedDepositDao", "findByAccountId");
+        this.findDueTime = MetricsRegistry.query("FixedDepositDao", "findDue");
+        this.lockActiveTime = MetricsRegistry.query("FixedDepositDao", "lockActive");
+        this.markMaturedTime = MetricsRegistry.query("FixedDepositDao", "markMatured");
+    }
+
+    @Override
+    public int create(FixedDeposit fd, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.create(fd, conn);
+        } finally {
+            createTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public FixedDeposit findById(int fdId) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(fdId);
+        } finally {
+            findByIdTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<FixedDeposit> findByAccountId(int accountId) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByAccountId(accountId);
+        } finally {
+            findByAccountIdTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<FixedDeposit> findDue(Date asOf, Date afterDate, int afterId, int limit) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findDue(asOf, afterDate, afterId, limit);
+        } finally {
+            findDueTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<FixedDeposit> lockActive(List<Integer> fdIds, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.lockActive(fdIds, conn);
+        } finally {
+            lockActiveTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void markMatured(List<FixedDeposit> fds, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.markMatured(fds, conn);
+        } finally {
+            markMaturedTime.recordSince(start);
+        }
+    }
+}
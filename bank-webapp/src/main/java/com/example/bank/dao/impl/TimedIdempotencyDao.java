@@ -0,0 +1,54 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.dao.IdempotencyDao;
+import com.example.bank.model.IdempotencyRecord;
+import com.example.bank.util.LatencyHistogram;
+import com.example.bank.util.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+
+/** Times every call of another {@link IdempotencyDao} into {@link MetricsRegistry}. */
+public class TimedIdempotencyDao implements IdempotencyDao {
+    private final IdempotencyDao delegate;
+    private final LatencyHistogram insertIfAbsentTime;
+    private final LatencyHistogram findTime;
+    private final LatencyHistogram deleteOlderThanTime;
+
+    public TimedIdempotencyDao(IdempotencyDao delegate) {
+        this.delegate = delegate;
+        this.insertIfAbsentTime = MetricsRegistry.query("IdempotencyDao", "insertIfAbsent");
+        this.findTime = MetricsRegistry.query("IdempotencyDao", "find");
+        this.deleteOlderThanTime = MetricsRegistry.query("IdempotencyDao", "deleteOlderThan");
+    }
+
+    @Override
+    public boolean insertIfAbsent(IdempotencyRecord record, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.insertIfAbsent(record, conn);
+        } finally {
+            insertIfAbsentTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public IdempotencyRecord find(int userId, String idemKey) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.find(userId, idemKey);
+        } finally {
+            findTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public int deleteOlderThan(Timestamp cutoff) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.deleteOlderThan(cutoff);
+        } finally {
+            deleteOlderThanTime.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.dao.SipPlanDao;
+import com.example.bank.model.SipPlan;
+import com.example.bank.util.LatencyHistogram;
+import com.example.bank.util.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.List;
+
+/** Times every call of another {@link SipPlanDao} into {@link MetricsRegistry}. */
+public class TimedSipPlanDao implements SipPlanDao {
+    private final SipPlanDao delegate;
+    private final LatencyHistogram findDueTime;
+    private final LatencyHistogram lockDueTime;
+    private final LatencyHistogram advanceTime;
+
+    public TimedSipPlanDao(SipPlanDao delegate) {
+        this.delegate = delegate;
+        this.findDueTime = MetricsRegistry.query("SipPlanDao", "findDue");
+        this.lockDueTime = MetricsRegistry.query("SipPlanDao", "lockDue");
+        this.advanceTime = MetricsRegistry.query("SipPlanDao", "advance");
+    }
+
+    @Override
+    public List<SipPlan> findDue(Date asOf, Date afterDate, int afterId, int limit) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findDue(asOf, afterDate, afterId, limit);
+        } finally {
+            findDueTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public List<SipPlan> lockDue(List<Integer> sipIds, Date asOf, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.lockDue(sipIds, asOf, conn);
+        } finally {
+            lockDueTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void advance(List<SipPlan> plans, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.advance(plans, conn);
+        } finally {
+            advanceTime.recordSince(start);
+        }
+    }
+}
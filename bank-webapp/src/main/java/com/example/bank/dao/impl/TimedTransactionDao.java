@@ -0,0 +1,97 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.dao.HistoryQuery;
+import com.example.bank.dao.RowHandler;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.Transaction;
+import com.example.bank.util.LatencyHistogram;
+import com.example.bank.util.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Times every call of another {@link TransactionDao} into {@link MetricsRegistry}. The streaming
+ * methods include the time the caller's {@link RowHandler} spends on the rows.
+ */
+public class TimedTransactionDao implements TransactionDao {
+    private final TransactionDao delegate;
+    private final LatencyHistogram insertTime;
+    private final LatencyHistogram insertBatchTime;
+    private final LatencyHistogram findHistoryTime;
+    private final LatencyHistogram streamRangeTime;
+    private final LatencyHistogram findLastWithBalanceBeforeTime;
+    private final LatencyHistogram findFirstWithBalanceFromTime;
+
+    public TimedTransactionDao(TransactionDao delegate) {
+        this.delegate = delegate;
+        this.insertTime = MetricsRegistry.query("TransactionDao", "insert");
+        this.insertBatchTime = MetricsRegistry.query("TransactionDao", "insertBatch");
+        this.findHistoryTime = MetricsRegistry.query("TransactionDao", "findHistory");
+        this.streamRangeTime = MetricsRegistry.query("TransactionDao", "streamRange");
+        this.findLastWithBalanceBeforeTime = MetricsRegistry.query("TransactionDao", "findLastWithBalanceBefore");
+        this.findFirstWithBalanceFromTime = MetricsRegistry.query("TransactionDao", "findFirstWithBalanceFrom");
+    }
+
+    @Override
+    public int insert(Transaction txn, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.insert(txn, conn);
+        } finally {
+            insertTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void insertBatch(List<Transaction> txns, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.insertBatch(txns, conn);
+        } finally {
+            insertBatchTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void findHistory(HistoryQuery query, RowHandler<Transaction> handler) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.findHistory(query, handler);
+        } finally {
+            findHistoryTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void streamRange(int accountId, Timestamp from, Timestamp to, RowHandler<Transaction> handler)
+            throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.streamRange(accountId, from, to, handler);
+        } finally {
+            streamRangeTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public Transaction findLastWithBalanceBefore(int accountId, Timestamp before) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findLastWithBalanceBefore(accountId, before);
+        } finally {
+            findLastWithBalanceBeforeTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public Transaction findFirstWithBalanceFrom(int accountId, Timestamp from) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findFirstWithBalanceFrom(accountId, from);
+        } finally {
+            findFirstWithBalanceFromTime.recordSince(start);
+        }
+    }
+}
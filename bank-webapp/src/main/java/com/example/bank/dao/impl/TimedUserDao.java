@@ -0,0 +1,80 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.dao.UserDao;
+import com.example.bank.model.User;
+import com.example.bank.util.LatencyHistogram;
+import com.example.bank.util.MetricsRegistry;
+
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/** Times every call of another {@link UserDao} into {@link MetricsRegistry}. */
+public class TimedUserDao implements UserDao {
+    private final UserDao delegate;
+    private final LatencyHistogram createTime;
+    private final LatencyHistogram findByIdTime;
+    private final LatencyHistogram findByEmailTime;
+    private final LatencyHistogram createBatchTime;
+    private final LatencyHistogram findExistingEmailsTime;
+
+    public TimedUserDao(UserDao delegate) {
+        this.delegate = delegate;
+        this.createTime = MetricsRegistry.query("UserDao", "create");
+        this.findByIdTime = MetricsRegistry.query("UserDao", "findById");
+        this.findByEmailTime = MetricsRegistry.query("UserDao", "findByEmail");
+        this.createBatchTime = MetricsRegistry.query("UserDao", "createBatch");
+        this.findExistingEmailsTime = MetricsRegistry.query("UserDao", "findExistingEmails");
+    }
+
+    @Override
+    public int create(User user) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.create(user);
+        } finally {
+            createTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public User findById(int id) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findById(id);
+        } finally {
+            findByIdTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public User findByEmail(String email) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findByEmail(email);
+        } finally {
+            findByEmailTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public void createBatch(List<User> users, Connection conn) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.createBatch(users, conn);
+        } finally {
+            createBatchTime.recordSince(start);
+        }
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return delegate.findExistingEmails(emails);
+        } finally {
+            findExistingEmailsTime.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bank.model;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/** One account's movements on one day: its closing balance and the day's totals. */
+public class DailyBalance {
+    private int accountId;
+    private Date balanceDate;
+    private BigDecimal closingBalance;
+    private BigDecimal creditTotal;
+    private BigDecimal debitTotal;
+    private int txnCount;
+
+    // getters & setters
+    public int getAccountId() { return accountId; }
+    public void setAccountId(int accountId) { this.accountId = accountId; }
+
+    public Date getBalanceDate() { return balanceDate; }
+    public void setBalanceDate(Date balanceDate) { this.balanceDate = balanceDate; }
+
+    public BigDecimal getClosingBalance() { return closingBalance; }
+    public void setClosingBalance(BigDecimal closingBalance) { this.closingBalance = closingBalance; }
+
+    public BigDecimal getCreditTotal() { return creditTotal; }
+    public void setCreditTotal(BigDecimal creditTotal) { this.creditTotal = creditTotal; }
+
+    public BigDecimal getDebitTotal() { return debitTotal; }
+    public void setDebitTotal(BigDecimal debitTotal) { this.debitTotal = debitTotal; }
+
+    public int getTxnCount() { return txnCount; }
+    public void setTxnCount(int txnCount) { this.txnCount = txnCount; }
+}
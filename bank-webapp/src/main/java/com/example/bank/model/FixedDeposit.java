@@ -0,0 +1,44 @@
+package com.example.bank.model;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+public class FixedDeposit {
+    private int fdId;
+    private int accountId;
+    private BigDecimal principal;
+    private BigDecimal interestRate;
+    private int tenureMonths;
+    private Date startDate;
+    private Date maturityDate;
+    private BigDecimal maturityAmount;
+    private String status;
+
+    // getters & setters
+    public int getFdId() { return fdId; }
+    public void setFdId(int fdId) { this.fdId = fdId; }
+
+    public int getAccountId() { return accountId; }
+    public void setAccountId(int accountId) { this.accountId = accountId; }
+
+    public BigDecimal getPrincipal() { return principal; }
+    public void setPrincipal(BigDecimal principal) { this.principal = principal; }
+
+    public BigDecimal getInterestRate() { return interestRate; }
+    public void setInterestRate(BigDecimal interestRate) { this.interestRate = interestRate; }
+
+    public int getTenureMonths() { return tenureMonths; }
+    public void setTenureMonths(int tenureMonths) { this.tenureMonths = tenureMonths; }
+
+    public Date getStartDate() { return startDate; }
+    public void setStartDate(Date startDate) { this.startDate = startDate; }
+
+    public Date getMaturityDate() { return maturityDate; }
+    public void setMaturityDate(Date maturityDate) { this.maturityDate = maturityDate; }
+
+    public BigDecimal getMaturityAmount() { return maturityAmount; }
+    public void setMaturityAmount(BigDecimal maturityAmount) { this.maturityAmount = maturityAmount; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
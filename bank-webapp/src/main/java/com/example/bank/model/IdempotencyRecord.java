@@ -0,0 +1,40 @@
+package com.example.bank.model;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+public class IdempotencyRecord {
+    private int userId;
+    private String idemKey;
+    private int accountId;
+    private String txnType;
+    private BigDecimal amount;
+    private int statusCode;
+    private String responseBody;
+    private Timestamp createdAt;
+
+    // getters & setters
+    public int getUserId() { return userId; }
+    public void setUserId(int userId) { this.userId = userId; }
+
+    public String getIdemKey() { return idemKey; }
+    public void setIdemKey(String idemKey) { this.idemKey = idemKey; }
+
+    public int getAccountId() { return accountId; }
+    public void setAccountId(int accountId) { this.accountId = accountId; }
+
+    public String getTxnType() { return txnType; }
+    public void setTxnType(String txnType) { this.txnType = txnType; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public int getStatusCode() { return statusCode; }
+    public void setStatusCode(int statusCode) { this.statusCode = statusCode; }
+
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+
+    public Timestamp getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
+}
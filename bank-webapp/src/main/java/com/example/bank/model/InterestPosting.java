@@ -0,0 +1,29 @@
+package com.example.bank.model;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/** Interest credited to one savings account for one accrual period. */
+public class InterestPosting {
+    private int accountId;
+    private Date periodStart;
+    private BigDecimal averageBalance;
+    private BigDecimal interestRate;
+    private BigDecimal amount;
+
+    // getters & setters
+    public int getAccountId() { return accountId; }
+    public void setAccountId(int accountId) { this.accountId = accountId; }
+
+    public Date getPeriodStart() { return periodStart; }
+    public void setPeriodStart(Date periodStart) { this.periodStart = periodStart; }
+
+    public BigDecimal getAverageBalance() { return averageBalance; }
+    public void setAverageBalance(BigDecimal averageBalance) { this.averageBalance = averageBalance; }
+
+    public BigDecimal getInterestRate() { return interestRate; }
+    public void setInterestRate(BigDecimal interestRate) { this.interestRate = interestRate; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
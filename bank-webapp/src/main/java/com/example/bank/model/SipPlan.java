@@ -0,0 +1,40 @@
+package com.example.bank.model;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+public class SipPlan {
+    private int sipId;
+    private int accountId;
+    private BigDecimal monthlyAmount;
+    private BigDecimal interestRate;
+    private Integer tenureMonths;
+    private Date startDate;
+    private Date nextInstallmentDate;
+    private String status;
+
+    // getters & setters
+    public int getSipId() { return sipId; }
+    public void setSipId(int sipId) { this.sipId = sipId; }
+
+    public int getAccountId() { return accountId; }
+    public void setAccountId(int accountId) { this.accountId = accountId; }
+
+    public BigDecimal getMonthlyAmount() { return monthlyAmount; }
+    public void setMonthlyAmount(BigDecimal monthlyAmount) { this.monthlyAmount = monthlyAmount; }
+
+    public BigDecimal getInterestRate() { return interestRate; }
+    public void setInterestRate(BigDecimal interestRate) { this.interestRate = interestRate; }
+
+    public Integer getTenureMonths() { return tenureMonths; }
+    public void setTenureMonths(Integer tenureMonths) { this.tenureMonths = tenureMonths; }
+
+    public Date getStartDate() { return startDate; }
+    public void setStartDate(Date startDate) { this.startDate = startDate; }
+
+    public Date getNextInstallmentDate() { return nextInstallmentDate; }
+    public void setNextInstallmentDate(Date nextInstallmentDate) { this.nextInstallmentDate = nextInstallmentDate; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
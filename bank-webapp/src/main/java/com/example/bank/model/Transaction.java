@@ -0,0 +1,44 @@
+package com.example.bank.model;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+public class Transaction {
+    private int transactionId;
+    private Integer fromAccountId;
+    private Integer toAccountId;
+    private BigDecimal amount;
+    private String txnType;
+    private String description;
+    private Timestamp txnDate;
+    private String status;
+    private BigDecimal postBalance;
+
+    // getters & setters
+    public int getTransactionId() { return transactionId; }
+    public void setTransactionId(int transactionId) { this.transactionId = transactionId; }
+
+    public Integer getFromAccountId() { return fromAccountId; }
+    public void setFromAccountId(Integer fromAccountId) { this.fromAccountId = fromAccountId; }
+
+    public Integer getToAccountId() { return toAccountId; }
+    public void setToAccountId(Integer toAccountId) { this.toAccountId = toAccountId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public String getTxnType() { return txnType; }
+    public void setTxnType(String txnType) { this.txnType = txnType; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public Timestamp getTxnDate() { return txnDate; }
+    public void setTxnDate(Timestamp txnDate) { this.txnDate = txnDate; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public BigDecimal getPostBalance() { return postBalance; }
+    public void setPostBalance(BigDecimal postBalance) { this.postBalance = postBalance; }
+}
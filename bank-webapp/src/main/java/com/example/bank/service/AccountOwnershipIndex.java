@@ -0,0 +1,87 @@
+package com.example.bank.service;
+
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.util.BoundedCache;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded userId -> accountIds index used for ownership checks. A user's ids are loaded on first
+ * use and kept until they expire or are evicted, so an ownership check on the hot path is a
+ * map lookup. Accounts never change owner; new ones are reported through {@link #added}, and
+ * an account missing from a cached set is looked up again before access is denied, since
+ * another node may have created it. Only the deny path pays that round-trip.
+ */
+public class AccountOwnershipIndex {
+    private static final int MAX_USERS = Integer.getInteger("bank.ownership.maxUsers", 50_000);
+    private static final long TTL_MS = Long.getLong("bank.ownership.ttlMs", 300_000L);
+    private static final int VERSION_STRIPES = 1024;
+
+    private static volatile AccountOwnershipIndex instance;
+
+    private final AccountDao accountDao;
+    private final BoundedCache<Integer, Set<Integer>> byUser;
+    // same scheme as CachingAccountDao: a load only installs if no update hit its stripe meanwhile
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public AccountOwnershipIndex(AccountDao accountDao, int maxUsers, long ttlMillis) {
+        this.accountDao = accountDao;
+        this.byUser = new BoundedCache<>(maxUsers, ttlMillis);
+    }
+
+    public static AccountOwnershipIndex getInstance() {
+        AccountOwnershipIndex i = instance;
+        if (i == null) {
+            synchronized (AccountOwnershipIndex.class) {
+                i = instance;
+                if (i == null) {
+                    i = new AccountOwnershipIndex(DaoFactory.accountDao(), MAX_USERS, TTL_MS);
+                    instance = i;
+                }
+            }
+        }
+        return i;
+    }
+
+    public boolean owns(int userId, int accountId) throws Exception {
+        Set<Integer> ids = byUser.get(userId);
+        if (ids != null && ids.contains(accountId)) return true;
+        return load(userId).contains(accountId);
+    }
+
+    public Set<Integer> accountIdsOf(int userId) throws Exception {
+        Set<Integer> ids = byUser.get(userId);
+        return ids != null ? ids : load(userId);
+    }
+
+    private Set<Integer> load(int userId) throws Exception {
+        int stripe = userId & (VERSION_STRIPES - 1);
+        long version = versions.get(stripe);
+        Set<Integer> loaded = Set.copyOf(accountDao.findIdsByUserId(userId));
+        byUser.withLock(userId, (k, cache) -> {
+            if (versions.get(stripe) == version) cache.put(k, loaded);
+            return null;
+        });
+        return loaded;
+    }
+
+    /** Records a newly created account so its owner can use it right away. */
+    public void added(int userId, int accountId) {
+        int stripe = userId & (VERSION_STRIPES - 1);
+        byUser.withLock(userId, (k, cache) -> {
+            versions.incrementAndGet(stripe);
+            Set<Integer> current = cache.get(k);
+            if (current != null) {
+                Set<Integer> next = new HashSet<>(current);
+                next.add(accountId);
+                cache.put(k, Set.copyOf(next));
+            }
+            return null;
+        });
+    }
+
+    public BoundedCache<Integer, Set<Integer>> getCache() { return byUser; }
+}
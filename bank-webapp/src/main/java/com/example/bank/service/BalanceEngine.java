@@ -0,0 +1,673 @@
+package com.example.bank.service;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.EngineCheckpointDao;
+import com.example.bank.dao.IdempotencyDao;
+import com.example.bank.dao.InsufficientFundsException;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.Account;
+import com.example.bank.model.IdempotencyRecord;
+import com.example.bank.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-process balance engine for high-frequency accounts (merchant settlement, payroll): the
+ * accounts listed in {@code bank.engine.accounts} are served from memory instead of a MySQL
+ * round-trip per deposit or withdrawal.
+ *
+ * <p>Accounts are sharded by id across single-writer threads, so a shard reads and moves its
+ * balances without locks; balances are held as {@code long} paise. Every movement is appended
+ * to the shard's memory-mapped {@link BalanceWal}, and the caller is answered once the batch
+ * it arrived in has been forced to disk. A flusher thread per shard then writes the
+ * {@code transactions} rows, the new {@code accounts.balance} and any idempotency keys in one
+ * database transaction together with the shard's checkpoint, so after a crash
+ * {@link #recover} replays exactly the records after the checkpoint.
+ *
+ * <p>If the WAL can't be forced to disk, the batch's callers fail with the outcome unknown and
+ * the engine stops taking movements until it is restarted, when recovery replays whatever did
+ * reach the log.
+ *
+ * <p>Flushes write absolute balances, so the engine must be the only writer across the whole
+ * deployment, not just this JVM. Each shard holds a lease in {@code balance_engine_checkpoints}:
+ * a second node started with {@code bank.engine.enabled} fails to start while the lease is
+ * held, and a node that loses its lease stops taking movements, with its flushes fenced off by
+ * the owner check on the checkpoint. Nodes without the engine must not move its accounts'
+ * balances either; route those accounts to the engine node. The WAL is local, so a lease
+ * should only move to another node together with the WAL directory, or after the old node
+ * has drained.
+ *
+ * <p>The engine is the only writer of its accounts' balances: {@code EngineAccountDao}
+ * refuses other balance writes to them (transfers, batch operations, FD and SIP debits) and
+ * overlays the in-memory balance on reads, since the database lags by the unflushed records.
+ */
+public class BalanceEngine {
+    private static final Logger log = LoggerFactory.getLogger(BalanceEngine.class);
+
+    private static final boolean ENABLED = Boolean.getBoolean("bank.engine.enabled");
+    private static final String ACCOUNTS = System.getProperty("bank.engine.accounts", "");
+    private static final int SHARDS = Integer.getInteger("bank.engine.shards", 4);
+    private static final String WAL_DIR = System.getProperty("bank.engine.wal.dir",
+            Paths.get(System.getProperty("user.home"), "bank-engine", "wal").toString());
+    private static final int SEGMENT_BYTES = Integer.getInteger("bank.engine.wal.segmentMb", 64) << 20;
+    private static final boolean FSYNC =
+            Boolean.parseBoolean(System.getProperty("bank.engine.wal.fsync", "true"));
+    private static final int MAX_BATCH = Integer.getInteger("bank.engine.maxBatch", 512);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("bank.engine.queueCapacity", 10_000);
+    private static final int FLUSH_BATCH = Integer.getInteger("bank.engine.flushBatch", 2_000);
+    private static final int FLUSH_BACKLOG = Integer.getInteger("bank.engine.flushBacklog", 100_000);
+    private static final long FLUSH_INTERVAL_MS = Long.getLong("bank.engine.flushIntervalMs", 50L);
+    private static final long SUBMIT_TIMEOUT_MS = Long.getLong("bank.engine.submitTimeoutMs", 10_000L);
+    private static final int LEASE_SECONDS = Integer.getInteger("bank.engine.leaseSeconds", 30);
+    // never fewer than the records a shard can have logged but not flushed
+    private static final int RECENT_KEYS = Math.max(Integer.getInteger("bank.engine.recentKeys", 0),
+            FLUSH_BACKLOG + FLUSH_BATCH + MAX_BATCH);
+
+    private static final String UNAVAILABLE = "Balance engine has stopped after a WAL or lease failure";
+
+    private static volatile BalanceEngine instance;
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+    private final IdempotencyDao idempotencyDao;
+    private final EngineCheckpointDao checkpointDao;
+    private final String owner;
+    // fixed at construction, so readers on any thread can look slots up without locking
+    private final Map<Integer, Slot> slots;
+    private final Shard[] shards;
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean running = true;
+    private volatile boolean healthy = true;
+
+    public BalanceEngine(AccountDao accountDao, TransactionDao transactionDao, IdempotencyDao idempotencyDao,
+                         EngineCheckpointDao checkpointDao, Set<Integer> accountIds, int shardCount,
+                         Path walDir, String owner) throws Exception {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+        this.idempotencyDao = idempotencyDao;
+        this.checkpointDao = checkpointDao;
+        this.owner = owner;
+        Map<Integer, Slot> s = new HashMap<>();
+        for (Integer id : accountIds) s.put(id, new Slot(id));
+        this.slots = Map.copyOf(s);
+
+        for (int i = 0; i < shardCount; i++) {
+            String holder = checkpointDao.claim(i, owner, LEASE_SECONDS);
+            if (holder != null) {
+                for (int j = 0; j < i; j++) checkpointDao.release(j, owner);
+                throw new IllegalStateException("Balance engine shard " + i + " is leased to " + holder
+                        + "; bank.engine.enabled must be set on one node only");
+            }
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, new BalanceWal(walDir.resolve("shard-" + i), SEGMENT_BYTES, FSYNC));
+            recover(shards[i]);
+        }
+        for (Shard shard : shards) {
+            shard.start();
+            shard.flusher.start();
+        }
+    }
+
+    public static boolean isEnabled() { return ENABLED; }
+
+    public static BalanceEngine getInstance() {
+        BalanceEngine e = instance;
+        if (e == null) {
+            synchronized (BalanceEngine.class) {
+                e = instance;
+                if (e == null) {
+                    try {
+                        e = new BalanceEngine(DaoFactory.databaseAccountDao(), DaoFactory.transactionDao(),
+                                DaoFactory.idempotencyDao(), DaoFactory.engineCheckpointDao(),
+                                accountIdsFromConfig(), SHARDS, Paths.get(WAL_DIR), ownerFromConfig());
+                    } catch (Exception ex) {
+                        throw new IllegalStateException("Balance engine failed to start", ex);
+                    }
+                    instance = e;
+                }
+            }
+        }
+        return e;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /** True if the account's balance is held by the engine. */
+    public boolean owns(int accountId) {
+        return slots.containsKey(accountId);
+    }
+
+    /** The in-memory balance of an engine account, or {@code null} if it isn't one or hasn't been loaded yet. */
+    public BigDecimal balanceOf(int accountId) {
+        Slot slot = slots.get(accountId);
+        return slot == null || !slot.loaded ? null : fromMinor(slot.balance);
+    }
+
+    /** Same contract as {@link LedgerWriter#deposit(int, BigDecimal, String, IdempotencyRecord, Function)}. */
+    public BigDecimal deposit(int accountId, BigDecimal amount, String description,
+                              IdempotencyRecord idem, Function<BigDecimal, String> responseFor) throws Exception {
+        checkStoredKey(idem);
+        return await(submit(accountId, toMinor(amount), BalanceWal.DEPOSIT, description, idem, responseFor));
+    }
+
+    /** Same contract as {@link LedgerWriter#withdraw(int, BigDecimal, String, IdempotencyRecord, Function)}. */
+    public BigDecimal withdraw(int accountId, BigDecimal amount, String description,
+                               IdempotencyRecord idem, Function<BigDecimal, String> responseFor) throws Exception {
+        checkStoredKey(idem);
+        return await(submit(accountId, -toMinor(amount), BalanceWal.WITHDRAWAL, description, idem, responseFor));
+    }
+
+    /**
+     * Keys already in idempotency_keys are refused here, on the caller's thread, so the shard
+     * threads never wait on the database; a shard only checks the keys it logged recently,
+     * which covers everything it hasn't flushed yet.
+     */
+    private void checkStoredKey(IdempotencyRecord idem) throws Exception {
+        if (idem != null && idempotencyDao.find(idem.getUserId(), idem.getIdemKey()) != null) {
+            throw new DuplicateRequestException(idem.getUserId(), idem.getIdemKey());
+        }
+    }
+
+    private CompletableFuture<BigDecimal> submit(int accountId, long delta, byte type, String description,
+                                                 IdempotencyRecord idem, Function<BigDecimal, String> responseFor) {
+        if (!running) throw new IllegalStateException("Balance engine is shut down");
+        if (!healthy) throw new IllegalStateException(UNAVAILABLE);
+        Slot slot = slots.get(accountId);
+        if (slot == null) throw new IllegalArgumentException("Account " + accountId + " is not an engine account");
+        Op op = new Op(slot, delta, type, description, idem, responseFor);
+        if (!shardOf(accountId).inbox.offer(op)) {
+            op.result.completeExceptionally(new RejectedExecutionException("Balance engine queue is full"));
+        }
+        return op.result;
+    }
+
+    private Shard shardOf(int accountId) {
+        return shards[Math.floorMod(accountId, shards.length)];
+    }
+
+    private static BigDecimal await(CompletableFuture<BigDecimal> f) throws Exception {
+        try {
+            return f.get(SUBMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        } catch (TimeoutException e) {
+            // the movement may still be logged later; the caller must treat the outcome as unknown
+            throw new TimeoutException("Timed out waiting for the balance engine");
+        }
+    }
+
+    public void close() {
+        running = false;
+        for (Shard s : shards) s.interrupt();
+        for (Shard s : shards) {
+            try {
+                s.join(5_000);
+                // the flusher drains what the shard handed it before stopping
+                s.flusher.interrupt();
+                s.flusher.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        for (Shard s : shards) {
+            try {
+                checkpointDao.release(s.index, owner);
+            } catch (Exception e) {
+                log.warn("Balance engine shard {} could not release its lease: {}", s.index, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Brings the database up to the end of the shard's log: every record after the shard's
+     * checkpoint is flushed, in order, before the shard takes new work. Records that were
+     * written but never acknowledged because of the crash are applied too.
+     */
+    private void recover(Shard shard) throws Exception {
+        long checkpoint = checkpointDao.find(shard.index);
+        List<BalanceWal.Record> pending = new ArrayList<>();
+        long[] replayed = new long[1];
+        long last;
+        try {
+            last = shard.wal.replay(checkpoint, r -> {
+                pending.add(r);
+                replayed[0]++;
+                if (pending.size() == FLUSH_BATCH) {
+                    flushOrThrow(shard, pending);
+                    pending.clear();
+                }
+            });
+        } catch (FlushFailure e) {
+            throw e.getCause();
+        }
+        flushOrThrow(shard, pending);
+
+        shard.nextSeq = last + 1;
+        shard.flushedSeq = last;
+        shard.wal.open(shard.nextSeq);
+        shard.wal.release(last);
+        if (replayed[0] > 0) {
+            log.info("Balance engine shard {} replayed {} WAL records after checkpoint {}",
+                    shard.index, replayed[0], checkpoint);
+        }
+
+        // the rows are current now; loading them here keeps database reads off the shard thread
+        for (Slot slot : slots.values()) {
+            if (shardOf(slot.accountId) != shard) continue;
+            Account a = accountDao.findById(slot.accountId);
+            if (a == null) {
+                log.warn("Balance engine account {} does not exist; its movements will fail", slot.accountId);
+                continue;
+            }
+            slot.balance = toMinor(a.getBalance());
+            slot.loaded = true;
+        }
+    }
+
+    private void flushOrThrow(Shard shard, List<BalanceWal.Record> records) {
+        try {
+            flush(shard.index, records);
+        } catch (Exception e) {
+            throw new FlushFailure(e);
+        }
+    }
+
+    /** Writes one run of a shard's records, and the checkpoint after them, in one transaction. */
+    void flush(int shard, List<BalanceWal.Record> records) throws Exception {
+        if (records.isEmpty()) return;
+        List<Transaction> rows = new ArrayList<>(records.size());
+        // ascending account id, the lock order every other writer uses
+        Map<Integer, Long> balances = new TreeMap<>();
+        for (BalanceWal.Record r : records) {
+            Transaction t = new Transaction();
+            if (r.type == BalanceWal.DEPOSIT) {
+                t.setToAccountId(r.accountId);
+                t.setTxnType("DEPOSIT");
+            } else {
+                t.setFromAccountId(r.accountId);
+                t.setTxnType("WITHDRAWAL");
+            }
+            t.setAmount(fromMinor(Math.abs(r.delta)));
+            t.setDescription(r.description);
+            t.setPostBalance(fromMinor(r.balance));
+            t.setTxnDate(new Timestamp(r.timeMillis));
+            rows.add(t);
+            balances.put(r.accountId, r.balance);
+        }
+
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            for (Map.Entry<Integer, Long> b : balances.entrySet()) {
+                accountDao.updateBalance(b.getKey(), fromMinor(b.getValue()), conn);
+            }
+            transactionDao.insertBatch(rows, conn);
+            for (BalanceWal.Record r : records) {
+                if (r.idemKey == null) continue;
+                IdempotencyRecord idem = IdempotencyService.newRecord(r.idemUserId, r.idemKey, r.accountId,
+                        r.type == BalanceWal.DEPOSIT ? "DEPOSIT" : "WITHDRAWAL", fromMinor(Math.abs(r.delta)));
+                idem.setResponseBody(r.responseBody);
+                if (!idempotencyDao.insertIfAbsent(idem, conn)) {
+                    log.warn("Idempotency key {} of user {} was already stored when shard {} flushed seq {}",
+                            r.idemKey, r.idemUserId, shard, r.seq);
+                }
+            }
+            if (!checkpointDao.save(shard, records.get(records.size() - 1).seq, owner, conn)) {
+                conn.rollback();
+                throw new LeaseLost(shard);
+            }
+            conn.commit();
+        }
+        for (Integer accountId : balances.keySet()) accountDao.afterCommit(accountId);
+    }
+
+    /** False once a WAL force has failed; the engine then refuses movements until restarted. */
+    public boolean isHealthy() { return healthy; }
+    public long getApplied() { return applied.sum(); }
+    public long getRejected() { return rejected.sum(); }
+    public int getAccounts() { return slots.size(); }
+
+    /** Records acknowledged but not yet in the database, over all shards. */
+    public long getFlushLag() {
+        long lag = 0;
+        for (Shard s : shards) lag += (s.nextSeq - 1) - s.flushedSeq;
+        return lag;
+    }
+
+    public int getWalSegments() {
+        int n = 0;
+        for (Shard s : shards) n += s.wal.segmentCount();
+        return n;
+    }
+
+    static long toMinor(BigDecimal amount) {
+        // throws if the amount has fractions of a paisa
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    static BigDecimal fromMinor(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    /** Lease owner name: {@code bank.engine.owner}, else host and WAL directory, stable across restarts. */
+    private static String ownerFromConfig() {
+        String owner = System.getProperty("bank.engine.owner");
+        if (owner != null && !owner.isEmpty()) return owner;
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        owner = host + ":" + Paths.get(WAL_DIR).toAbsolutePath();
+        return owner.length() > 255 ? owner.substring(0, 255) : owner;
+    }
+
+    private static Set<Integer> accountIdsFromConfig() {
+        Set<Integer> ids = new HashSet<>();
+        for (String s : ACCOUNTS.split(",")) {
+            if (!s.trim().isEmpty()) ids.add(Integer.parseInt(s.trim()));
+        }
+        return ids;
+    }
+
+    /** Balance of one engine account; written only by its shard thread. */
+    private static final class Slot {
+        final int accountId;
+        volatile long balance;
+        volatile boolean loaded;
+
+        Slot(int accountId) {
+            this.accountId = accountId;
+        }
+    }
+
+    private static final class Op {
+        final Slot slot;
+        final long delta;
+        final byte type;
+        final String description;
+        final IdempotencyRecord idem;
+        final Function<BigDecimal, String> responseFor;
+        final CompletableFuture<BigDecimal> result = new CompletableFuture<>();
+        BalanceWal.Record record;
+        Exception failure;
+
+        Op(Slot slot, long delta, byte type, String description,
+           IdempotencyRecord idem, Function<BigDecimal, String> responseFor) {
+            this.slot = slot;
+            this.delta = delta;
+            this.type = type;
+            this.description = description;
+            this.idem = idem;
+            this.responseFor = responseFor;
+        }
+    }
+
+    /** The shard's lease has passed to another owner; nothing more may be flushed from here. */
+    private static final class LeaseLost extends Exception {
+        LeaseLost(int shard) {
+            super("Balance engine shard " + shard + " is no longer leased to this node");
+        }
+    }
+
+    private static final class FlushFailure extends RuntimeException {
+        FlushFailure(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+
+    private final class Shard extends Thread {
+        final int index;
+        final BalanceWal wal;
+        final BlockingQueue<Op> inbox = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final BlockingQueue<BalanceWal.Record> unflushed = new ArrayBlockingQueue<>(FLUSH_BACKLOG);
+        // idempotency keys this shard logged most recently, flushed or not; shard thread only.
+        // Sized past the flush backlog, so a key is never dropped before it is in idempotency_keys.
+        final Map<String, Boolean> recentKeys = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > RECENT_KEYS;
+            }
+        };
+        final Flusher flusher;
+        volatile long nextSeq;
+        volatile long flushedSeq;
+
+        Shard(int index, BalanceWal wal) {
+            super("balance-engine-" + index);
+            setDaemon(true);
+            this.index = index;
+            this.wal = wal;
+            this.flusher = new Flusher(this);
+        }
+
+        @Override
+        public void run() {
+            List<Op> batch = new ArrayList<>(MAX_BATCH);
+            while (running || !inbox.isEmpty()) {
+                try {
+                    Op first = inbox.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    inbox.drainTo(batch, MAX_BATCH - 1);
+                } catch (InterruptedException e) {
+                    if (!running) inbox.drainTo(batch);
+                }
+                if (batch.isEmpty()) continue;
+                if (!healthy) {
+                    fail(batch, new IllegalStateException(UNAVAILABLE));
+                    continue;
+                }
+
+                for (Op op : batch) apply(op);
+                // one force for the whole batch; nothing is acknowledged before it
+                try {
+                    wal.sync();
+                } catch (RuntimeException e) {
+                    // the batch may or may not be on disk, and memory is already past it
+                    log.error("Balance engine shard {} could not force its WAL; refusing movements until restart",
+                            index, e);
+                    healthy = false;
+                    fail(batch, new IllegalStateException(
+                            "Balance engine WAL sync failed; the movement may or may not have been applied", e));
+                    continue;
+                }
+                for (Op op : batch) {
+                    if (op.record != null) {
+                        handOff(op.record);
+                        op.result.complete(fromMinor(op.record.balance));
+                    } else if (op.failure != null) {
+                        op.result.completeExceptionally(op.failure);
+                    } else {
+                        op.result.complete(null);
+                    }
+                }
+                batch.clear();
+            }
+        }
+
+        private void fail(List<Op> batch, Exception e) {
+            for (Op op : batch) op.result.completeExceptionally(e);
+            batch.clear();
+        }
+
+        private void apply(Op op) {
+            Slot slot = op.slot;
+            try {
+                // loaded during recovery unless the account doesn't exist; answered as not found
+                if (!slot.loaded) return;
+                if (op.idem != null && recentKeys.containsKey(keyOf(op.idem.getUserId(), op.idem.getIdemKey()))) {
+                    op.failure = new DuplicateRequestException(op.idem.getUserId(), op.idem.getIdemKey());
+                    return;
+                }
+                long balance = slot.balance + op.delta;
+                if (balance < 0) {
+                    rejected.increment();
+                    op.failure = new InsufficientFundsException(slot.accountId);
+                    return;
+                }
+
+                BalanceWal.Record r = new BalanceWal.Record();
+                r.seq = nextSeq;
+                r.accountId = slot.accountId;
+                r.delta = op.delta;
+                r.balance = balance;
+                r.timeMillis = System.currentTimeMillis();
+                r.type = op.type;
+                r.description = op.description;
+                if (op.idem != null) {
+                    op.idem.setResponseBody(op.responseFor.apply(fromMinor(balance)));
+                    r.idemUserId = op.idem.getUserId();
+                    r.idemKey = op.idem.getIdemKey();
+                    r.responseBody = op.idem.getResponseBody();
+                }
+                wal.append(r);
+
+                nextSeq = r.seq + 1;
+                slot.balance = balance;
+                if (op.idem != null) recentKeys.put(keyOf(r.idemUserId, r.idemKey), Boolean.TRUE);
+                applied.increment();
+                op.record = r;
+            } catch (Exception e) {
+                op.failure = e;
+            }
+        }
+
+        private void handOff(BalanceWal.Record r) {
+            // blocks when the database falls too far behind, which pushes back on the callers
+            while (true) {
+                try {
+                    unflushed.put(r);
+                    return;
+                } catch (InterruptedException e) {
+                    // keep going: an acknowledged record must reach the flusher
+                }
+            }
+        }
+    }
+
+    private final class Flusher extends Thread {
+        private final Shard shard;
+
+        Flusher(Shard shard) {
+            super("balance-engine-flusher-" + shard.index);
+            setDaemon(true);
+            this.shard = shard;
+        }
+
+        @Override
+        public void run() {
+            List<BalanceWal.Record> batch = new ArrayList<>(FLUSH_BATCH);
+            boolean stopping = false;
+            long renewed = System.currentTimeMillis();
+            while (!stopping || !shard.unflushed.isEmpty()) {
+                if (System.currentTimeMillis() - renewed >= LEASE_SECONDS * 1000L / 3) {
+                    try {
+                        if (!checkpointDao.renew(shard.index, owner, LEASE_SECONDS)) {
+                            leaseLost(new LeaseLost(shard.index));
+                            return;
+                        }
+                        renewed = System.currentTimeMillis();
+                    } catch (Exception e) {
+                        log.warn("Balance engine shard {} could not renew its lease: {}", shard.index, e.getMessage());
+                    }
+                }
+                try {
+                    BalanceWal.Record first = shard.unflushed.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (first != null) batch.add(first);
+                } catch (InterruptedException e) {
+                    stopping = true;
+                }
+                shard.unflushed.drainTo(batch, FLUSH_BATCH - batch.size());
+                if (batch.isEmpty()) continue;
+
+                try {
+                    flush(shard.index, batch);
+                } catch (LeaseLost e) {
+                    leaseLost(e);
+                    return;
+                } catch (Exception e) {
+                    if (e instanceof SQLException && TransferService.isRetryable((SQLException) e)) continue;
+                    // the records are safe in the WAL; keep the batch and try again shortly
+                    log.error("Balance engine shard {} flush failed, retrying", shard.index, e);
+                    if (stopping) return; // recovery replays them on the next start
+                    pause();
+                    continue;
+                }
+
+                long last = batch.get(batch.size() - 1).seq;
+                shard.flushedSeq = last;
+                batch.clear();
+                try {
+                    shard.wal.release(last);
+                } catch (IOException e) {
+                    log.warn("Balance engine shard {} could not delete old WAL segments: {}",
+                            shard.index, e.getMessage());
+                }
+            }
+        }
+
+        private void leaseLost(LeaseLost e) {
+            // another node may be writing these accounts now; the records stay in the WAL
+            log.error("{}; refusing movements until restart", e.getMessage());
+            healthy = false;
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String keyOf(int userId, String idemKey) {
+        return userId + ":" + idemKey;
+    }
+}
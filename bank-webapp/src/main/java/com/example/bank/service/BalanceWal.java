@@ -0,0 +1,212 @@
+package com.example.bank.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of one {@link BalanceEngine} shard: memory-mapped segment files named after
+ * the sequence of their first record. Each record is framed as
+ * {@code [payload length][CRC32 of payload][payload]}; a zero length marks the end of the
+ * written part of a segment, and a frame whose checksum doesn't match is a torn write from a
+ * crash and ends the log.
+ *
+ * <p>Only the shard thread appends. The flusher thread releases segments the database has
+ * caught up with, so the segment index is a concurrent map; appending only touches it when a
+ * segment fills up.
+ */
+final class BalanceWal {
+    static final byte DEPOSIT = 0;
+    static final byte WITHDRAWAL = 1;
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SUFFIX = ".wal";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer current;
+    private volatile long currentFirstSeq;
+    private boolean dirty;
+
+    BalanceWal(Path dir, int segmentBytes, boolean fsync) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                 .forEach(p -> {
+                     String name = p.getFileName().toString();
+                     segments.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), p);
+                 });
+        }
+    }
+
+    /** One balance movement; amounts are in minor units (paise). */
+    static final class Record {
+        long seq;
+        int accountId;
+        long delta;
+        long balance;
+        long timeMillis;
+        byte type;
+        String description;
+        int idemUserId;
+        String idemKey;
+        String responseBody;
+    }
+
+    /**
+     * Hands every intact record after {@code afterSeq} to {@code consumer}, oldest first.
+     *
+     * @return the sequence of the last record in the log, or {@code afterSeq} if there is none after it
+     * @throws IOException if the sequence has a gap, i.e. acknowledged records are missing
+     */
+    long replay(long afterSeq, Consumer<Record> consumer) throws IOException {
+        long last = afterSeq;
+        long expected = -1;
+        List<Map.Entry<Long, Path>> files = new ArrayList<>(segments.entrySet());
+        for (Map.Entry<Long, Path> file : files) {
+            ByteBuffer buf;
+            try (FileChannel ch = FileChannel.open(file.getValue(), StandardOpenOption.READ)) {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            }
+            while (buf.remaining() >= HEADER_BYTES) {
+                int len = buf.getInt();
+                if (len == 0) break;
+                int sum = buf.getInt();
+                // a torn frame ends this segment; if records were lost rather than never
+                // acknowledged, the next segment won't continue the sequence
+                if (len < 0 || len > buf.remaining() || checksum(buf, len) != sum) break;
+                Record r = decode(buf);
+                if (expected >= 0 && r.seq != expected) {
+                    throw new IOException("WAL sequence gap in " + file.getValue() + ": expected "
+                            + expected + ", found " + r.seq);
+                }
+                expected = r.seq + 1;
+                last = Math.max(last, r.seq);
+                if (r.seq > afterSeq) consumer.accept(r);
+            }
+        }
+        return last;
+    }
+
+    /** Starts a fresh segment; records appended from now on must begin at {@code nextSeq}. */
+    void open(long nextSeq) throws IOException {
+        Path file = dir.resolve(String.format("%020d", nextSeq) + SUFFIX);
+        // left empty by a run that stopped right after opening it; anything in it was replayed
+        Files.deleteIfExists(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            current = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        currentFirstSeq = nextSeq; // before the put, so release() never sees the new key without it
+        segments.put(nextSeq, file);
+    }
+
+    /** Appends {@code r}; it is durable once {@link #sync} returns. */
+    void append(Record r) throws IOException {
+        byte[] description = bytes(r.description);
+        byte[] idemKey = bytes(r.idemKey);
+        byte[] response = bytes(r.responseBody);
+        int len = 8 + 4 + 8 + 8 + 8 + 1 + 4 + 2 + description.length + 2 + idemKey.length + 2 + response.length;
+        if (HEADER_BYTES + len > segmentBytes) throw new IOException("WAL record larger than a segment");
+        if (current.remaining() < HEADER_BYTES + len) {
+            sync();
+            open(r.seq);
+        }
+
+        int start = current.position();
+        current.position(start + HEADER_BYTES);
+        current.putLong(r.seq).putInt(r.accountId).putLong(r.delta).putLong(r.balance)
+               .putLong(r.timeMillis).put(r.type).putInt(r.idemUserId);
+        putBytes(description);
+        putBytes(idemKey);
+        putBytes(response);
+        int end = current.position();
+
+        ByteBuffer payload = current.duplicate();
+        payload.position(start + HEADER_BYTES).limit(end);
+        crc.reset();
+        crc.update(payload);
+        // length last: a reader never sees a frame whose payload isn't there yet
+        current.putInt(start + 4, (int) crc.getValue());
+        current.putInt(start, len);
+        dirty = true;
+    }
+
+    /** Forces appended records to disk, unless {@code bank.engine.wal.fsync} is off. */
+    void sync() {
+        if (dirty && fsync) current.force();
+        dirty = false;
+    }
+
+    /** Deletes the segments whose records are all at or below {@code flushedSeq}. */
+    void release(long flushedSeq) throws IOException {
+        Map.Entry<Long, Path> first;
+        while ((first = segments.firstEntry()) != null) {
+            Long next = segments.higherKey(first.getKey());
+            // never the segment being written, and only once the next one starts past the checkpoint
+            if (next == null || next > flushedSeq + 1 || first.getKey() == currentFirstSeq) return;
+            segments.remove(first.getKey());
+            Files.deleteIfExists(first.getValue());
+        }
+    }
+
+    int segmentCount() { return segments.size(); }
+
+    private int checksum(ByteBuffer buf, int len) {
+        ByteBuffer payload = buf.duplicate();
+        payload.limit(payload.position() + len);
+        crc.reset();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static Record decode(ByteBuffer buf) {
+        Record r = new Record();
+        r.seq = buf.getLong();
+        r.accountId = buf.getInt();
+        r.delta = buf.getLong();
+        r.balance = buf.getLong();
+        r.timeMillis = buf.getLong();
+        r.type = buf.get();
+        r.idemUserId = buf.getInt();
+        r.description = string(buf);
+        r.idemKey = string(buf);
+        r.responseBody = string(buf);
+        return r;
+    }
+
+    private void putBytes(byte[] b) {
+        current.putShort((short) b.length).put(b);
+    }
+
+    private static byte[] bytes(String s) throws IOException {
+        byte[] b = s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+        if (b.length > 0xFFFF) throw new IOException("WAL string field too long");
+        return b;
+    }
+
+    private static String string(ByteBuffer buf) {
+        int n = Short.toUnsignedInt(buf.getShort());
+        if (n == 0) return null;
+        byte[] b = new byte[n];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bank.service;
+
+/** The request's Idempotency-Key was already used; the original outcome should be replayed. */
+public class DuplicateRequestException extends Exception {
+    private final int userId;
+    private final String idemKey;
+
+    public DuplicateRequestException(int userId, String idemKey) {
+        super("Idempotency key already used: " + idemKey);
+        this.userId = userId;
+        this.idemKey = idemKey;
+    }
+
+    public int getUserId() { return userId; }
+    public String getIdemKey() { return idemKey; }
+}
@@ -0,0 +1,285 @@
+package com.example.bank.service;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.EngineOwnedAccountException;
+import com.example.bank.dao.FixedDepositDao;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.FixedDeposit;
+import com.example.bank.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pays out fixed deposits that have reached maturity. One thread pages through the due
+ * deposits by (maturity_date, fd_id) and hands chunks of ids to a worker pool; each chunk
+ * is a single transaction that locks its deposits, credits the linked accounts, writes the
+ * FD_MATURITY ledger rows in one batch and marks the deposits MATURED.
+ *
+ * <p>Because a deposit's status flips in the same transaction as its payout, an interrupted
+ * run is resumed by simply running again. Only the rows of in-flight chunks are ever locked,
+ * and {@code SKIP LOCKED} lets runs on several nodes share the work.
+ */
+public class FixedDepositMaturityEngine {
+    private static final Logger log = LoggerFactory.getLogger(FixedDepositMaturityEngine.class);
+
+    private static final int THREADS = Integer.getInteger("bank.fd.maturity.threads", 4);
+    private static final int CHUNK_SIZE = Integer.getInteger("bank.fd.maturity.chunkSize", 500);
+    private static final String RUN_AT = System.getProperty("bank.fd.maturity.runAt", "00:30");
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private static volatile FixedDepositMaturityEngine instance;
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+    private final FixedDepositDao fixedDepositDao;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    public FixedDepositMaturityEngine(AccountDao accountDao, TransactionDao transactionDao,
+                                      FixedDepositDao fixedDepositDao) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+        this.fixedDepositDao = fixedDepositDao;
+    }
+
+    public static FixedDepositMaturityEngine getInstance() {
+        FixedDepositMaturityEngine e = instance;
+        if (e == null) {
+            synchronized (FixedDepositMaturityEngine.class) {
+                e = instance;
+                if (e == null) {
+                    e = new FixedDepositMaturityEngine(DaoFactory.accountDao(),
+                            DaoFactory.transactionDao(), DaoFactory.fixedDepositDao());
+                    instance = e;
+                }
+            }
+        }
+        return e;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+    }
+
+    /** Outcome of one maturity run. */
+    public static class RunResult {
+        private final LocalDate asOf;
+        private final long matured;
+        private final long skipped;
+        private final int failedChunks;
+        private final long elapsedMillis;
+
+        RunResult(LocalDate asOf, long matured, long skipped, int failedChunks, long elapsedMillis) {
+            this.asOf = asOf;
+            this.matured = matured;
+            this.skipped = skipped;
+            this.failedChunks = failedChunks;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public LocalDate getAsOf() { return asOf; }
+        public long getMatured() { return matured; }
+        public long getSkipped() { return skipped; }
+        public int getFailedChunks() { return failedChunks; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    /** Schedules a daily run at {@code bank.fd.maturity.runAt} (HH:mm, server time). */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fd-maturity-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(LocalTime.parse(RUN_AT));
+        if (!next.isAfter(now)) next = next.plusDays(1);
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                run(LocalDate.now());
+            } catch (Exception e) {
+                log.error("Fixed deposit maturity run failed", e);
+            }
+        }, Duration.between(now, next).toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /** Matures every ACTIVE deposit due on or before {@code asOf}. */
+    public RunResult run(LocalDate asOf) throws Exception {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A maturity run is already in progress");
+        }
+        try {
+            return runClaimed(asOf);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Starts a run for {@code asOf} on a background thread and returns at once; false if a run
+     * is already in progress. The outcome is logged.
+     */
+    public boolean runInBackground(LocalDate asOf) {
+        if (!running.compareAndSet(false, true)) return false;
+        Thread t = new Thread(() -> {
+            try {
+                runClaimed(asOf);
+            } catch (Exception e) {
+                log.error("Fixed deposit maturity run failed", e);
+            } finally {
+                running.set(false);
+            }
+        }, "fd-maturity-manual");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    /** The run itself; the caller holds {@link #running}. */
+    private RunResult runClaimed(LocalDate asOf) throws Exception {
+        long start = System.currentTimeMillis();
+        AtomicLong matured = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        AtomicInteger failedChunks = new AtomicInteger();
+
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread t = new Thread(r, "fd-maturity-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        // bounds how far the scanner runs ahead of the workers
+        Semaphore inFlight = new Semaphore(THREADS * 2);
+
+        try {
+            Date asOfDate = Date.valueOf(asOf);
+            Date afterDate = null;
+            int afterId = 0;
+            while (true) {
+                List<FixedDeposit> page = fixedDepositDao.findDue(asOfDate, afterDate, afterId, CHUNK_SIZE);
+                if (page.isEmpty()) break;
+
+                FixedDeposit last = page.get(page.size() - 1);
+                afterDate = last.getMaturityDate();
+                afterId = last.getFdId();
+
+                List<Integer> ids = new ArrayList<>(page.size());
+                for (FixedDeposit fd : page) ids.add(fd.getFdId());
+
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        int done = processChunk(ids);
+                        matured.addAndGet(done);
+                        skipped.addAndGet(ids.size() - done);
+                    } catch (Exception e) {
+                        failedChunks.incrementAndGet();
+                        log.error("Fixed deposit maturity chunk starting at fd_id {} failed", ids.get(0), e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+
+                if (page.size() < CHUNK_SIZE) break;
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.HOURS);
+        }
+
+        RunResult result = new RunResult(asOf, matured.get(), skipped.get(), failedChunks.get(),
+                System.currentTimeMillis() - start);
+        log.info("Fixed deposit maturity run for {}: {} matured, {} skipped, {} failed chunks in {}ms",
+                asOf, result.getMatured(), result.getSkipped(), result.getFailedChunks(),
+                result.getElapsedMillis());
+        return result;
+    }
+
+    /** Matures one chunk in a single transaction; returns how many deposits were paid out. */
+    int processChunk(List<Integer> fdIds) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return payOut(fdIds);
+            } catch (SQLException e) {
+                if (attempt >= MAX_CHUNK_ATTEMPTS || !TransferService.isRetryable(e)) throw e;
+            }
+        }
+    }
+
+    private int payOut(List<Integer> fdIds) throws Exception {
+        List<FixedDeposit> paid = new ArrayList<>(fdIds.size());
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+
+            List<FixedDeposit> fds = fixedDepositDao.lockActive(fdIds, conn);
+            // credit accounts in ascending id order, like every other balance writer
+            fds.sort(Comparator.comparingInt(FixedDeposit::getAccountId));
+
+            List<Transaction> rows = new ArrayList<>(fds.size());
+            for (FixedDeposit fd : fds) {
+                BigDecimal amount = fd.getMaturityAmount() != null ? fd.getMaturityAmount()
+                        : FixedDepositService.maturityAmount(fd.getPrincipal(), fd.getInterestRate(),
+                                fd.getTenureMonths());
+                fd.setMaturityAmount(amount);
+
+                BigDecimal newBal;
+                try {
+                    newBal = accountDao.adjustBalance(fd.getAccountId(), amount, conn);
+                } catch (EngineOwnedAccountException e) {
+                    // nothing was written; the deposit stays active and counts as skipped
+                    log.warn("Fixed deposit #{} not paid out: {}", fd.getFdId(), e.getMessage());
+                    continue;
+                }
+                if (newBal == null) continue;
+
+                Transaction t = new Transaction();
+                t.setToAccountId(fd.getAccountId());
+                t.setAmount(amount);
+                t.setTxnType("FD_MATURITY");
+                t.setDescription("Fixed deposit #" + fd.getFdId() + " matured");
+                t.setPostBalance(newBal);
+                rows.add(t);
+                paid.add(fd);
+            }
+
+            transactionDao.insertBatch(rows, conn);
+            fixedDepositDao.markMatured(paid, conn);
+            conn.commit();
+        }
+
+        for (FixedDeposit fd : paid) accountDao.afterCommit(fd.getAccountId());
+        return paid.size();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.bank.service;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.AccountNotFoundException;
+import com.example.bank.dao.FixedDepositDao;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.FixedDeposit;
+import com.example.bank.model.Transaction;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class FixedDepositService {
+    /**
+     * Annual rate (percent) by minimum tenure in months, as {@code months:rate} pairs; a deposit
+     * earns the rate of the longest tier its tenure reaches.
+     */
+    private static final NavigableMap<Integer, BigDecimal> RATES =
+            parseRates(System.getProperty("bank.fd.rates", "3:5.50,6:6.00,12:6.50,24:6.75,36:7.00"));
+    private static final int MAX_TENURE_MONTHS = Integer.getInteger("bank.fd.maxTenureMonths", 120);
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+    private final FixedDepositDao fixedDepositDao;
+
+    public FixedDepositService(AccountDao accountDao, TransactionDao transactionDao,
+                               FixedDepositDao fixedDepositDao) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+        this.fixedDepositDao = fixedDepositDao;
+    }
+
+    /**
+     * The rate offered for {@code tenureMonths}, or null when no deposit can be opened for that
+     * tenure.
+     */
+    public static BigDecimal rateFor(int tenureMonths) {
+        if (tenureMonths > MAX_TENURE_MONTHS) return null;
+        Map.Entry<Integer, BigDecimal> tier = RATES.floorEntry(tenureMonths);
+        return tier == null ? null : tier.getValue();
+    }
+
+    private static NavigableMap<Integer, BigDecimal> parseRates(String spec) {
+        NavigableMap<Integer, BigDecimal> rates = new TreeMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            BigDecimal rate = new BigDecimal(kv[1].trim());
+            if (rate.signum() < 0) throw new IllegalArgumentException("bank.fd.rates has a negative rate: " + spec);
+            rates.put(Integer.parseInt(kv[0].trim()), rate);
+        }
+        return rates;
+    }
+
+    /**
+     * Opens a deposit funded from the linked account: the principal is debited and the
+     * deposit row written in one transaction.
+     */
+    public FixedDeposit open(int accountId, BigDecimal principal, BigDecimal interestRate,
+                             int tenureMonths) throws Exception {
+        LocalDate start = LocalDate.now();
+
+        FixedDeposit fd = new FixedDeposit();
+        fd.setAccountId(accountId);
+        fd.setPrincipal(principal);
+        fd.setInterestRate(interestRate);
+        fd.setTenureMonths(tenureMonths);
+        fd.setStartDate(Date.valueOf(start));
+        fd.setMaturityDate(Date.valueOf(start.plusMonths(tenureMonths)));
+        fd.setMaturityAmount(maturityAmount(principal, interestRate, tenureMonths));
+        fd.setStatus("ACTIVE");
+
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+
+            BigDecimal newBal = accountDao.adjustBalance(accountId, principal.negate(), conn);
+            if (newBal == null) throw new AccountNotFoundException(accountId);
+
+            fd.setFdId(fixedDepositDao.create(fd, conn));
+
+            Transaction t = new Transaction();
+            t.setFromAccountId(accountId);
+            t.setAmount(principal);
+            t.setTxnType("FD_OPEN");
+            t.setDescription("Fixed deposit #" + fd.getFdId());
+            t.setPostBalance(newBal);
+            transactionDao.insert(t, conn);
+
+            conn.commit();
+        }
+        accountDao.afterCommit(accountId);
+        return fd;
+    }
+
+    /**
+     * Principal plus interest compounded quarterly at {@code annualRatePercent}, the usual
+     * convention for term deposits; months past the last full quarter earn simple interest.
+     * Computed in decimal and rounded once, to the cent, half-even.
+     */
+    public static BigDecimal maturityAmount(BigDecimal principal, BigDecimal annualRatePercent,
+                                            int tenureMonths) {
+        BigDecimal quarterlyRate = annualRatePercent.divide(BigDecimal.valueOf(400), MathContext.DECIMAL64);
+        BigDecimal factor = BigDecimal.ONE.add(quarterlyRate).pow(tenureMonths / 3, MathContext.DECIMAL64);
+        int months = tenureMonths % 3;
+        if (months > 0) {
+            BigDecimal stub = annualRatePercent.multiply(BigDecimal.valueOf(months))
+                    .divide(BigDecimal.valueOf(1200), MathContext.DECIMAL64);
+            factor = factor.multiply(BigDecimal.ONE.add(stub), MathContext.DECIMAL64);
+        }
+        return principal.multiply(factor).setScale(2, RoundingMode.HALF_EVEN);
+    }
+}
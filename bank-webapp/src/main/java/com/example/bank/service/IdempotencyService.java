@@ -0,0 +1,122 @@
+package com.example.bank.service;
+
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.IdempotencyDao;
+import com.example.bank.model.IdempotencyRecord;
+import com.example.bank.util.BoundedCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the responses of requests sent with an {@code Idempotency-Key}. The durable copy
+ * is the idempotency_keys row that {@link LedgerWriter} writes in the same transaction as the
+ * money movement; this class keeps recently completed keys in memory so a client retry is
+ * normally answered without touching the database, and purges rows past the retention period.
+ */
+public class IdempotencyService {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int CACHE_SIZE = Integer.getInteger("bank.idempotency.cacheSize", 100_000);
+    private static final long RETENTION_HOURS = Long.getLong("bank.idempotency.retentionHours", 24L);
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private static volatile IdempotencyService instance;
+
+    private final IdempotencyDao idempotencyDao;
+    private final BoundedCache<String, IdempotencyRecord> recent;
+    private final ScheduledExecutorService purger;
+
+    public IdempotencyService(IdempotencyDao idempotencyDao, int cacheSize, long retentionHours) {
+        this.idempotencyDao = idempotencyDao;
+        this.recent = new BoundedCache<>(cacheSize, TimeUnit.HOURS.toMillis(retentionHours));
+        this.purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "idempotency-purger");
+            t.setDaemon(true);
+            return t;
+        });
+        purger.scheduleWithFixedDelay(() -> purge(retentionHours), 1, 60, TimeUnit.MINUTES);
+    }
+
+    public static IdempotencyService getInstance() {
+        IdempotencyService s = instance;
+        if (s == null) {
+            synchronized (IdempotencyService.class) {
+                s = instance;
+                if (s == null) {
+                    s = new IdempotencyService(DaoFactory.idempotencyDao(), CACHE_SIZE, RETENTION_HOURS);
+                    instance = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.purger.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /** The response recorded for this key by a recent request on this node, or {@code null}. */
+    public IdempotencyRecord recent(int userId, String idemKey) {
+        return recent.get(cacheKey(userId, idemKey));
+    }
+
+    /** The durable response for this key; used once the database has reported a duplicate. */
+    public IdempotencyRecord stored(int userId, String idemKey) throws Exception {
+        IdempotencyRecord r = idempotencyDao.find(userId, idemKey);
+        if (r != null) remember(r);
+        return r;
+    }
+
+    /** Caches a record after the transaction that wrote it has committed. */
+    public void remember(IdempotencyRecord r) {
+        recent.put(cacheKey(r.getUserId(), r.getIdemKey()), r);
+    }
+
+    public static IdempotencyRecord newRecord(int userId, String idemKey, int accountId,
+                                              String txnType, BigDecimal amount) {
+        IdempotencyRecord r = new IdempotencyRecord();
+        r.setUserId(userId);
+        r.setIdemKey(idemKey);
+        r.setAccountId(accountId);
+        r.setTxnType(txnType);
+        r.setAmount(amount);
+        r.setStatusCode(200);
+        return r;
+    }
+
+    /**
+     * Whether {@code request} is a retry of the request {@code stored} was recorded for, rather
+     * than a different request reusing its key. Rows stored before the type and amount were
+     * recorded are compared on the account alone.
+     */
+    public static boolean sameRequest(IdempotencyRecord stored, IdempotencyRecord request) {
+        if (stored.getAccountId() != request.getAccountId()) return false;
+        if (stored.getTxnType() != null && !stored.getTxnType().equals(request.getTxnType())) return false;
+        return stored.getAmount() == null || stored.getAmount().compareTo(request.getAmount()) == 0;
+    }
+
+    private void purge(long retentionHours) {
+        try {
+            Timestamp cutoff = new Timestamp(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours));
+            int n = idempotencyDao.deleteOlderThan(cutoff);
+            if (n > 0) log.info("Purged {} expired idempotency keys", n);
+        } catch (Exception e) {
+            log.warn("Idempotency key purge failed: {}", e.getMessage());
+        }
+    }
+
+    private static String cacheKey(int userId, String idemKey) {
+        return userId + ":" + idemKey;
+    }
+
+    public BoundedCache<String, IdempotencyRecord> getCache() { return recent; }
+}
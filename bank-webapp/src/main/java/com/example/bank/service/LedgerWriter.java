@@ -0,0 +1,333 @@
+package com.example.bank.service;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.IdempotencyDao;
+import com.example.bank.dao.InsufficientFundsException;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.IdempotencyRecord;
+import com.example.bank.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Group-commits single-account money movements. Requests are queued to a writer thread that
+ * applies everything that accumulated since its last flush in one database transaction and
+ * writes all resulting {@code transactions} rows with one JDBC batch. A caller's future only
+ * completes after that transaction has committed, so a response is never sent for a row that
+ * isn't durable.
+ *
+ * <p>Entries are partitioned by account id, so one account is always handled by the same
+ * writer: movements on it keep their arrival order and writers never wait on each other's
+ * row locks.
+ *
+ * <p>An entry may carry an {@link IdempotencyRecord}; its key row is inserted in the same
+ * transaction as the movement, and if the key is already taken the movement is rolled back to
+ * a savepoint and the entry fails with {@link DuplicateRequestException}.
+ *
+ * <p>If a flush fails for a reason other than a lock conflict, its entries are applied again
+ * one transaction each, so an entry the database refuses (an amount out of range, a
+ * constraint) fails alone rather than taking the requests batched with it down too.
+ */
+public class LedgerWriter {
+    private static final Logger log = LoggerFactory.getLogger(LedgerWriter.class);
+
+    private static final int WRITERS = Integer.getInteger("bank.ledger.writers", 4);
+    private static final int MAX_BATCH = Integer.getInteger("bank.ledger.maxBatch", 256);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("bank.ledger.queueCapacity", 10_000);
+    private static final long FLUSH_WINDOW_MICROS = Long.getLong("bank.ledger.flushWindowMicros", 0L);
+    private static final long SUBMIT_TIMEOUT_MS = Long.getLong("bank.ledger.submitTimeoutMs", 10_000L);
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private static volatile LedgerWriter instance;
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+    private final IdempotencyDao idempotencyDao;
+    private final Writer[] writers;
+    private volatile boolean running = true;
+
+    public LedgerWriter(AccountDao accountDao, TransactionDao transactionDao,
+                        IdempotencyDao idempotencyDao, int writerCount) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+        this.idempotencyDao = idempotencyDao;
+        this.writers = new Writer[writerCount];
+        for (int i = 0; i < writerCount; i++) {
+            writers[i] = new Writer(i);
+            writers[i].start();
+        }
+    }
+
+    public static LedgerWriter getInstance() {
+        LedgerWriter w = instance;
+        if (w == null) {
+            synchronized (LedgerWriter.class) {
+                w = instance;
+                if (w == null) {
+                    w = new LedgerWriter(DaoFactory.accountDao(), DaoFactory.transactionDao(),
+                            DaoFactory.idempotencyDao(), WRITERS);
+                    instance = w;
+                }
+            }
+        }
+        return w;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    public BigDecimal deposit(int accountId, BigDecimal amount, String description) throws Exception {
+        return deposit(accountId, amount, description, null, null);
+    }
+
+    public BigDecimal withdraw(int accountId, BigDecimal amount, String description) throws Exception {
+        return withdraw(accountId, amount, description, null, null);
+    }
+
+    /**
+     * Deposit guarded by an idempotency key. {@code responseFor} renders the response body to
+     * store with the key from the new balance.
+     *
+     * @throws DuplicateRequestException if the key was already used
+     */
+    public BigDecimal deposit(int accountId, BigDecimal amount, String description,
+                              IdempotencyRecord idem, Function<BigDecimal, String> responseFor) throws Exception {
+        Transaction txn = new Transaction();
+        txn.setToAccountId(accountId);
+        txn.setAmount(amount);
+        txn.setTxnType("DEPOSIT");
+        txn.setDescription(description);
+        return await(submit(accountId, amount, txn, idem, responseFor));
+    }
+
+    /** Withdrawal guarded by an idempotency key, see {@link #deposit(int, BigDecimal, String, IdempotencyRecord, Function)}. */
+    public BigDecimal withdraw(int accountId, BigDecimal amount, String description,
+                               IdempotencyRecord idem, Function<BigDecimal, String> responseFor) throws Exception {
+        Transaction txn = new Transaction();
+        txn.setFromAccountId(accountId);
+        txn.setAmount(amount);
+        txn.setTxnType("WITHDRAWAL");
+        txn.setDescription(description);
+        return await(submit(accountId, amount.negate(), txn, idem, responseFor));
+    }
+
+    /**
+     * Queues a balance change together with the ledger row describing it. The future yields
+     * the committed balance, {@code null} if the account doesn't exist, or fails with
+     * {@link InsufficientFundsException}, or with {@link RejectedExecutionException} when the
+     * writer's queue is full and the caller should shed the request.
+     */
+    public CompletableFuture<BigDecimal> submit(int accountId, BigDecimal delta, Transaction txn) {
+        return submit(accountId, delta, txn, null, null);
+    }
+
+    public CompletableFuture<BigDecimal> submit(int accountId, BigDecimal delta, Transaction txn,
+                                                IdempotencyRecord idem, Function<BigDecimal, String> responseFor) {
+        if (!running) throw new IllegalStateException("Ledger writer is shut down");
+        Entry e = new Entry(accountId, delta, txn, idem, responseFor);
+        Writer w = writers[Math.floorMod(accountId, writers.length)];
+        if (!w.queue.offer(e)) {
+            e.result.completeExceptionally(new RejectedExecutionException("Ledger queue is full"));
+        }
+        return e.result;
+    }
+
+    private static BigDecimal await(CompletableFuture<BigDecimal> f) throws Exception {
+        try {
+            return f.get(SUBMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        } catch (TimeoutException e) {
+            // the entry may still commit later; the caller must treat the outcome as unknown
+            throw new TimeoutException("Timed out waiting for ledger commit");
+        }
+    }
+
+    public void close() {
+        running = false;
+        for (Writer w : writers) w.interrupt();
+        for (Writer w : writers) {
+            try {
+                w.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void flush(List<Entry> batch) {
+        // stable sort: each account keeps arrival order, and rows are locked in ascending id
+        // order like TransferService does, so flushes and transfers can't deadlock
+        List<Entry> ordered = new ArrayList<>(batch);
+        ordered.sort(Comparator.comparingInt(e -> e.accountId));
+
+        Exception failure = applyWithRetry(ordered);
+        if (failure != null && ordered.size() > 1) {
+            log.warn("Ledger flush of {} entries failed, applying them one at a time", ordered.size(), failure);
+            for (Entry e : ordered) {
+                Exception own = applyWithRetry(List.of(e));
+                if (own != null) fail(e, own);
+            }
+        } else if (failure != null) {
+            fail(ordered.get(0), failure);
+        }
+
+        for (Entry e : batch) {
+            if (e.failure != null) e.result.completeExceptionally(e.failure);
+            else e.result.complete(e.balance);
+        }
+    }
+
+    /** Applies the entries in one transaction, retrying lock conflicts; returns what failed it, if anything. */
+    private Exception applyWithRetry(List<Entry> entries) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                apply(entries);
+                return null;
+            } catch (Exception ex) {
+                if (attempt < MAX_FLUSH_ATTEMPTS && ex instanceof SQLException
+                        && TransferService.isRetryable((SQLException) ex)) {
+                    continue;
+                }
+                return ex;
+            }
+        }
+    }
+
+    private static void fail(Entry e, Exception cause) {
+        // the transaction rolled back, whatever the entry saw before that
+        e.balance = null;
+        e.failure = cause;
+    }
+
+    private void apply(List<Entry> ordered) throws Exception {
+        List<Transaction> rows = new ArrayList<>(ordered.size());
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+
+            for (Entry e : ordered) {
+                e.balance = null;
+                e.failure = null;
+                try {
+                    Savepoint sp = e.idem != null ? conn.setSavepoint() : null;
+                    e.balance = accountDao.adjustBalance(e.accountId, e.delta, conn);
+                    if (e.balance != null && e.idem != null) {
+                        e.idem.setResponseBody(e.responseFor.apply(e.balance));
+                        if (!idempotencyDao.insertIfAbsent(e.idem, conn)) {
+                            conn.rollback(sp);
+                            e.balance = null;
+                            e.failure = new DuplicateRequestException(e.idem.getUserId(), e.idem.getIdemKey());
+                            continue;
+                        }
+                    }
+                    if (sp != null) conn.releaseSavepoint(sp);
+                    if (e.balance != null) {
+                        e.txn.setPostBalance(e.balance);
+                        rows.add(e.txn);
+                    }
+                } catch (InsufficientFundsException ex) {
+                    e.failure = ex;
+                }
+            }
+
+            transactionDao.insertBatch(rows, conn);
+            conn.commit();
+        }
+
+        for (Entry e : ordered) {
+            if (e.balance != null) accountDao.afterCommit(e.accountId);
+        }
+    }
+
+    static final class Entry {
+        final int accountId;
+        final BigDecimal delta;
+        final Transaction txn;
+        final IdempotencyRecord idem;
+        final Function<BigDecimal, String> responseFor;
+        final CompletableFuture<BigDecimal> result = new CompletableFuture<>();
+        BigDecimal balance;
+        Exception failure;
+
+        Entry(int accountId, BigDecimal delta, Transaction txn,
+              IdempotencyRecord idem, Function<BigDecimal, String> responseFor) {
+            this.accountId = accountId;
+            this.delta = delta;
+            this.txn = txn;
+            this.idem = idem;
+            this.responseFor = responseFor;
+        }
+    }
+
+    private final class Writer extends Thread {
+        final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        Writer(int index) {
+            super("ledger-writer-" + index);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Entry> batch = new ArrayList<>(MAX_BATCH);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    // whatever piled up while the previous flush was committing joins this one
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    if (FLUSH_WINDOW_MICROS > 0) fillWindow(batch);
+                } catch (InterruptedException e) {
+                    if (!running) queue.drainTo(batch);
+                }
+
+                if (!batch.isEmpty()) {
+                    try {
+                        flush(batch);
+                    } catch (RuntimeException e) {
+                        log.error("Ledger flush failed", e);
+                        for (Entry entry : batch) entry.result.completeExceptionally(e);
+                    }
+                    batch.clear();
+                }
+            }
+        }
+
+        private void fillWindow(List<Entry> batch) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(FLUSH_WINDOW_MICROS);
+            long remaining;
+            while (batch.size() < MAX_BATCH && (remaining = deadline - System.nanoTime()) > 0) {
+                Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) return;
+                batch.add(next);
+                queue.drainTo(batch, MAX_BATCH - batch.size());
+            }
+        }
+    }
+}
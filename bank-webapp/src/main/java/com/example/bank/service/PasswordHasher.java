@@ -0,0 +1,104 @@
+package com.example.bank.service;
+
+import com.example.bank.util.LatencyHistogram;
+import com.example.bank.util.PasswordUtil;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dedicated, bounded pool for PBKDF2 work. Sized to the CPU count because hashing is pure CPU;
+ * once the queue is full new work is rejected immediately so callers can shed load (503)
+ * instead of piling up behind a login burst.
+ */
+public class PasswordHasher {
+    private static final int THREADS =
+            Integer.getInteger("bank.hash.threads", Runtime.getRuntime().availableProcessors());
+    private static final int QUEUE_LIMIT = Integer.getInteger("bank.hash.queueLimit", THREADS * 16);
+
+    private static volatile PasswordHasher instance;
+
+    private final ThreadPoolExecutor executor;
+    private final LatencyHistogram hashLatency = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHasher(int threads, int queueLimit) {
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), r -> {
+                    Thread t = new Thread(r, "password-hasher-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static PasswordHasher getInstance() {
+        PasswordHasher h = instance;
+        if (h == null) {
+            synchronized (PasswordHasher.class) {
+                h = instance;
+                if (h == null) {
+                    h = new PasswordHasher(THREADS, QUEUE_LIMIT);
+                    instance = h;
+                }
+            }
+        }
+        return h;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.executor.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * Runs {@code task} on the hashing pool.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public void execute(Runnable task) {
+        long queued = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                queueWait.recordSince(queued);
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public String hash(char[] password, byte[] salt) {
+        long start = System.nanoTime();
+        try {
+            return PasswordUtil.hashPassword(password, salt);
+        } finally {
+            hashLatency.recordSince(start);
+        }
+    }
+
+    public boolean verify(char[] password, String stored) {
+        long start = System.nanoTime();
+        try {
+            return PasswordUtil.verifyPassword(password, stored);
+        } finally {
+            hashLatency.recordSince(start);
+        }
+    }
+
+    public int getThreads() { return executor.getMaximumPoolSize(); }
+    public int getQueueDepth() { return executor.getQueue().size(); }
+    public int getQueueLimit() { return getQueueDepth() + executor.getQueue().remainingCapacity(); }
+    public int getActive() { return executor.getActiveCount(); }
+    public long getRejected() { return rejected.sum(); }
+    public LatencyHistogram getHashLatency() { return hashLatency; }
+    public LatencyHistogram getQueueWait() { return queueWait; }
+}
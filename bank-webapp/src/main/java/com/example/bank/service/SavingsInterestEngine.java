@@ -0,0 +1,448 @@
+package com.example.bank.service;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.DailyBalanceDao;
+import com.example.bank.dao.InterestAccrualDao;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.Account;
+import com.example.bank.model.DailyBalance;
+import com.example.bank.model.IdempotencyRecord;
+import com.example.bank.model.InterestPosting;
+import com.example.bank.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Credits monthly interest on the average daily balance of ACTIVE Savings accounts. A run
+ * covers one calendar month: interest is the sum of the account's closing balances over the
+ * month's days times {@code bank.interest.savingsRate} (% a year) / 36500, rounded to the paisa,
+ * posted as an INTEREST_CREDIT ledger row. Daily balances come from
+ * {@code account_daily_balances}, one row per day with movements, never from the raw ledger.
+ *
+ * <p>The account id space is cut into fixed ranges of {@code bank.interest.rangeSize} ids, and a
+ * fork-join pool splits the list of ranges down to single ones. A range posts its accounts in
+ * chunks, one transaction per chunk writing the balance, the ledger rows and the
+ * {@code interest_postings} rows together, then checkpoints itself. The range boundaries don't
+ * move between runs, so a run that stopped part way is resumed by running the same month
+ * again: completed ranges are skipped, and within the interrupted one the posting key rules
+ * out a second credit.
+ *
+ * <p>Scheduled daily at {@code bank.interest.runAt} for the previous month; once the month is
+ * done, later nights find every range checkpointed and return straight away.
+ */
+public class SavingsInterestEngine {
+    private static final Logger log = LoggerFactory.getLogger(SavingsInterestEngine.class);
+
+    private static final BigDecimal RATE = new BigDecimal(System.getProperty("bank.interest.savingsRate", "3.5"));
+    private static final int PARALLELISM = Integer.getInteger("bank.interest.parallelism", 4);
+    private static final int RANGE_SIZE = Integer.getInteger("bank.interest.rangeSize", 1_000);
+    private static final int CHUNK_SIZE = Integer.getInteger("bank.interest.chunkSize", 200);
+    private static final String RUN_AT = System.getProperty("bank.interest.runAt", "02:00");
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+    private static final BigDecimal DAYS_PERCENT = BigDecimal.valueOf(36_500);
+
+    private static volatile SavingsInterestEngine instance;
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+    private final DailyBalanceDao dailyBalanceDao;
+    private final InterestAccrualDao interestAccrualDao;
+    private final StatementService statementService;
+    private final BalanceEngine balanceEngine;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder posted = new LongAdder();
+    private final LongAdder failedRanges = new LongAdder();
+    private volatile RunResult lastRun;
+
+    public SavingsInterestEngine(AccountDao accountDao, TransactionDao transactionDao,
+                                 DailyBalanceDao dailyBalanceDao, InterestAccrualDao interestAccrualDao,
+                                 BalanceEngine balanceEngine) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+        this.dailyBalanceDao = dailyBalanceDao;
+        this.interestAccrualDao = interestAccrualDao;
+        this.statementService = new StatementService(accountDao, transactionDao);
+        this.balanceEngine = balanceEngine;
+    }
+
+    public static SavingsInterestEngine getInstance() {
+        SavingsInterestEngine e = instance;
+        if (e == null) {
+            synchronized (SavingsInterestEngine.class) {
+                e = instance;
+                if (e == null) {
+                    e = new SavingsInterestEngine(DaoFactory.accountDao(), DaoFactory.transactionDao(),
+                            DaoFactory.dailyBalanceDao(), DaoFactory.interestAccrualDao(),
+                            BalanceEngine.isEnabled() ? BalanceEngine.getInstance() : null);
+                    instance = e;
+                }
+            }
+        }
+        return e;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+    }
+
+    /** Outcome of one accrual run. */
+    public static class RunResult {
+        private final YearMonth period;
+        private final long posted;
+        private final BigDecimal interestTotal;
+        private final int ranges;
+        private final int skippedRanges;
+        private final int failedRanges;
+        private final long elapsedMillis;
+
+        RunResult(YearMonth period, long posted, BigDecimal interestTotal, int ranges, int skippedRanges,
+                  int failedRanges, long elapsedMillis) {
+            this.period = period;
+            this.posted = posted;
+            this.interestTotal = interestTotal;
+            this.ranges = ranges;
+            this.skippedRanges = skippedRanges;
+            this.failedRanges = failedRanges;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public YearMonth getPeriod() { return period; }
+        public long getPosted() { return posted; }
+        public BigDecimal getInterestTotal() { return interestTotal; }
+        public int getRanges() { return ranges; }
+        /** Ranges already checkpointed by an earlier run of the same period. */
+        public int getSkippedRanges() { return skippedRanges; }
+        public int getFailedRanges() { return failedRanges; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    /** Schedules a daily run at {@code bank.interest.runAt} (HH:mm, server time) for the previous month. */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "interest-accrual-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(LocalTime.parse(RUN_AT));
+        if (!next.isAfter(now)) next = next.plusDays(1);
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                run(YearMonth.now().minusMonths(1));
+            } catch (Exception e) {
+                log.error("Savings interest run failed", e);
+            }
+        }, Duration.between(now, next).toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /** Accrues and posts interest for {@code period} on every range not yet completed for it. */
+    public RunResult run(YearMonth period) throws Exception {
+        if (!period.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Interest can only be posted for a finished month");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An interest run is already in progress");
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Date periodStart = Date.valueOf(period.atDay(1));
+            Set<Integer> completed = interestAccrualDao.findCompletedRanges(periodStart);
+            int ranges = (interestAccrualDao.findMaxAccountId() + RANGE_SIZE - 1) / RANGE_SIZE;
+
+            Run run = new Run(period, completed);
+            ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+            try {
+                pool.invoke(new Ranges(run, 0, ranges));
+            } finally {
+                pool.shutdown();
+            }
+
+            RunResult result = new RunResult(period, run.posted.get(), run.total(), ranges,
+                    run.skipped.get(), run.failed.get(), System.currentTimeMillis() - start);
+            lastRun = result;
+            log.info("Savings interest for {}: {} accounts credited {}, {} of {} ranges done earlier, "
+                            + "{} failed, in {}ms", period, result.getPosted(), result.getInterestTotal(),
+                    result.getSkippedRanges(), result.getRanges(), result.getFailedRanges(),
+                    result.getElapsedMillis());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** State shared by the tasks of one run. */
+    private static final class Run {
+        final YearMonth period;
+        final LocalDate first;
+        final LocalDate last;
+        final Date periodStart;
+        final Set<Integer> completed;
+        final AtomicLong posted = new AtomicLong();
+        final AtomicLong paise = new AtomicLong();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        Run(YearMonth period, Set<Integer> completed) {
+            this.period = period;
+            this.first = period.atDay(1);
+            this.last = period.atEndOfMonth();
+            this.periodStart = Date.valueOf(first);
+            this.completed = completed;
+        }
+
+        BigDecimal total() {
+            return BigDecimal.valueOf(paise.get(), 2);
+        }
+    }
+
+    /** Ranges {@code [from, to)} of the run, by index; split in halves down to one range per task. */
+    private final class Ranges extends RecursiveAction {
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        Ranges(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Ranges(run, from, mid), new Ranges(run, mid, to));
+                return;
+            }
+            if (from == to) return;
+            int firstId = from * RANGE_SIZE + 1;
+            if (run.completed.contains(firstId)) {
+                run.skipped.incrementAndGet();
+                return;
+            }
+            try {
+                accrueRange(run, firstId, firstId + RANGE_SIZE);
+            } catch (Exception e) {
+                run.failed.incrementAndGet();
+                failedRanges.increment();
+                log.error("Savings interest for {} on accounts {} to {} failed", run.period, firstId,
+                        firstId + RANGE_SIZE - 1, e);
+            }
+        }
+    }
+
+    /** Accrues, posts and checkpoints the accounts with {@code fromId <= account_id < toId}. */
+    void accrueRange(Run run, int fromId, int toId) throws Exception {
+        List<Account> accounts = interestAccrualDao.findSavings(fromId, toId);
+        Set<Integer> already = interestAccrualDao.findPosted(run.periodStart, fromId, toId);
+
+        Map<Integer, Accrual> accruals = new LinkedHashMap<>();
+        for (Account a : accounts) {
+            if (!already.contains(a.getAccountId())) accruals.put(a.getAccountId(), new Accrual(a, run.first));
+        }
+        List<Integer> ids = new ArrayList<>(accruals.keySet());
+
+        Map<Integer, DailyBalance> before = dailyBalanceDao.findLastBefore(ids, run.periodStart);
+        for (DailyBalance d : before.values()) accruals.get(d.getAccountId()).closing = d.getClosingBalance();
+
+        dailyBalanceDao.findRange(ids, run.periodStart, Date.valueOf(run.last),
+                d -> accruals.get(d.getAccountId()).day(d));
+
+        List<InterestPosting> due = new ArrayList<>();
+        for (Accrual a : accruals.values()) {
+            if (a.closing == null) {
+                // no movement before or during the month: the balance at the start held throughout
+                a.closing = statementService.openingBalance(a.account.getAccountId(),
+                        Timestamp.valueOf(run.first.atStartOfDay()));
+            }
+            a.carry(run.last.plusDays(1));
+
+            BigDecimal interest = a.sum.multiply(RATE).divide(DAYS_PERCENT, 2, RoundingMode.HALF_EVEN);
+            if (interest.signum() <= 0) continue;
+
+            InterestPosting p = new InterestPosting();
+            p.setAccountId(a.account.getAccountId());
+            p.setPeriodStart(run.periodStart);
+            p.setAverageBalance(a.sum.divide(BigDecimal.valueOf(run.period.lengthOfMonth()), 2, RoundingMode.HALF_EVEN));
+            p.setInterestRate(RATE);
+            p.setAmount(interest);
+            due.add(p);
+        }
+
+        int count = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < due.size(); i += CHUNK_SIZE) {
+            List<InterestPosting> chunk = due.subList(i, Math.min(i + CHUNK_SIZE, due.size()));
+            for (InterestPosting p : postChunk(run, chunk, accruals)) {
+                count++;
+                total = total.add(p.getAmount());
+            }
+        }
+
+        interestAccrualDao.saveCompletedRange(run.periodStart, fromId, toId, count, total);
+        run.posted.addAndGet(count);
+        run.paise.addAndGet(total.movePointRight(2).longValueExact());
+        posted.add(count);
+    }
+
+    /** Posts one chunk, retrying deadlocks and lock timeouts; returns the postings made. */
+    private List<InterestPosting> postChunk(Run run, List<InterestPosting> chunk, Map<Integer, Accrual> accruals)
+            throws Exception {
+        List<InterestPosting> viaDatabase = new ArrayList<>(chunk.size());
+        List<InterestPosting> done = new ArrayList<>(chunk.size());
+        for (InterestPosting p : chunk) {
+            if (balanceEngine != null && balanceEngine.owns(p.getAccountId())) {
+                if (postViaEngine(run, p, accruals.get(p.getAccountId()).account)) done.add(p);
+            } else {
+                viaDatabase.add(p);
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                done.addAll(post(run, viaDatabase));
+                return done;
+            } catch (SQLException e) {
+                if (attempt >= MAX_CHUNK_ATTEMPTS || !TransferService.isRetryable(e)) throw e;
+            }
+        }
+    }
+
+    private List<InterestPosting> post(Run run, List<InterestPosting> chunk) throws Exception {
+        List<InterestPosting> credited = new ArrayList<>(chunk.size());
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+
+            // postings come out of the range in ascending account id order, like every other balance writer
+            List<Transaction> rows = new ArrayList<>(chunk.size());
+            for (InterestPosting p : chunk) {
+                BigDecimal newBal = accountDao.adjustBalance(p.getAccountId(), p.getAmount(), conn);
+                if (newBal == null) continue;
+                rows.add(interestRow(run, p, newBal));
+                credited.add(p);
+            }
+
+            transactionDao.insertBatch(rows, conn);
+            interestAccrualDao.insertPostings(credited, conn);
+            conn.commit();
+        }
+
+        for (InterestPosting p : credited) accountDao.afterCommit(p.getAccountId());
+        return credited;
+    }
+
+    /**
+     * Credits an account the balance engine holds through the engine, under an idempotency key
+     * per account and period so a resumed run can't credit it twice, then records the posting.
+     * Keys belong to the user, so the account id keeps a user's accounts from sharing one.
+     */
+    private boolean postViaEngine(Run run, InterestPosting p, Account account) throws Exception {
+        String key = "interest-" + run.period + "-" + p.getAccountId();
+        IdempotencyRecord idem = IdempotencyService.newRecord(account.getUserId(), key, p.getAccountId(),
+                "DEPOSIT", p.getAmount());
+        try {
+            BigDecimal newBal = balanceEngine.deposit(p.getAccountId(), p.getAmount(), description(run), idem,
+                    b -> "{\"accountId\":" + p.getAccountId() + ",\"balance\":\"" + b + "\"}");
+            if (newBal == null) return false;
+        } catch (DuplicateRequestException e) {
+            // credited by an earlier, interrupted run; only the posting row is missing
+        }
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            interestAccrualDao.insertPostings(List.of(p), conn);
+        }
+        return true;
+    }
+
+    private static Transaction interestRow(Run run, InterestPosting p, BigDecimal newBal) {
+        Transaction t = new Transaction();
+        t.setToAccountId(p.getAccountId());
+        t.setAmount(p.getAmount());
+        t.setTxnType("INTEREST_CREDIT");
+        t.setDescription(description(run));
+        t.setPostBalance(newBal);
+        return t;
+    }
+
+    private static String description(Run run) {
+        return "Savings interest for " + run.period;
+    }
+
+    /** Running sum of one account's closing balances over the days of the month. */
+    private static final class Accrual {
+        final Account account;
+        final LocalDate opened;
+        BigDecimal closing;
+        LocalDate next;
+        BigDecimal sum = BigDecimal.ZERO;
+
+        Accrual(Account account, LocalDate first) {
+            this.account = account;
+            this.opened = account.getOpenedAt() == null ? null : account.getOpenedAt().toLocalDateTime().toLocalDate();
+            this.next = first;
+        }
+
+        void day(DailyBalance d) {
+            LocalDate date = d.getBalanceDate().toLocalDate();
+            if (closing == null) {
+                // nothing recorded before the month: work the opening back from the first day
+                closing = d.getClosingBalance().subtract(d.getCreditTotal()).add(d.getDebitTotal());
+            }
+            carry(date);
+            closing = d.getClosingBalance();
+        }
+
+        /** Adds the current closing balance for every day from {@link #next} up to {@code until}, exclusive. */
+        void carry(LocalDate until) {
+            LocalDate from = opened != null && opened.isAfter(next) ? opened : next;
+            long days = ChronoUnit.DAYS.between(from, until);
+            if (days > 0) sum = sum.add(closing.multiply(BigDecimal.valueOf(days)));
+            next = until;
+        }
+    }
+
+    public long getPosted() { return posted.sum(); }
+    public long getFailedRanges() { return failedRanges.sum(); }
+    public RunResult getLastRun() { return lastRun; }
+}
@@ -0,0 +1,326 @@
+package com.example.bank.service;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.EngineOwnedAccountException;
+import com.example.bank.dao.InsufficientFundsException;
+import com.example.bank.dao.SipPlanDao;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.SipPlan;
+import com.example.bank.model.Transaction;
+import com.example.bank.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects due SIP installments. A scanner pages through the due plans by
+ * (next_installment_date, sip_id) and routes each one to a worker by account id, so an account
+ * is only ever debited by one worker and workers never wait on each other's row locks. Each
+ * worker debits its plans in chunks, one transaction per chunk, writing the SIP_INSTALLMENT
+ * rows in one batch and advancing next_installment_date in the same commit.
+ *
+ * <p>Because the due date moves with the debit, a run interrupted by a crash is resumed by
+ * running again: installments already collected are no longer due.
+ */
+public class SipInstallmentScheduler {
+    private static final Logger log = LoggerFactory.getLogger(SipInstallmentScheduler.class);
+
+    private static final int WORKERS = Integer.getInteger("bank.sip.workers", 4);
+    private static final int CHUNK_SIZE = Integer.getInteger("bank.sip.chunkSize", 500);
+    private static final String RUN_AT = System.getProperty("bank.sip.runAt", "01:00");
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private static volatile SipInstallmentScheduler instance;
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+    private final SipPlanDao sipPlanDao;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder collected = new LongAdder();
+    private final LongAdder bounced = new LongAdder();
+    private final LongAdder failedChunks = new LongAdder();
+    private final LatencyHistogram chunkLatency = new LatencyHistogram();
+    private volatile RunResult lastRun;
+
+    public SipInstallmentScheduler(AccountDao accountDao, TransactionDao transactionDao,
+                                   SipPlanDao sipPlanDao) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+        this.sipPlanDao = sipPlanDao;
+    }
+
+    public static SipInstallmentScheduler getInstance() {
+        SipInstallmentScheduler s = instance;
+        if (s == null) {
+            synchronized (SipInstallmentScheduler.class) {
+                s = instance;
+                if (s == null) {
+                    s = new SipInstallmentScheduler(DaoFactory.accountDao(),
+                            DaoFactory.transactionDao(), DaoFactory.sipPlanDao());
+                    instance = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+    }
+
+    /** Outcome of one scheduler run. */
+    public static class RunResult {
+        private final LocalDate asOf;
+        private final long collected;
+        private final long bounced;
+        private final int failedChunks;
+        private final long elapsedMillis;
+
+        RunResult(LocalDate asOf, long collected, long bounced, int failedChunks, long elapsedMillis) {
+            this.asOf = asOf;
+            this.collected = collected;
+            this.bounced = bounced;
+            this.failedChunks = failedChunks;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public LocalDate getAsOf() { return asOf; }
+        public long getCollected() { return collected; }
+        public long getBounced() { return bounced; }
+        public int getFailedChunks() { return failedChunks; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /** Installments processed (collected or bounced) per second of wall time. */
+        public double getInstallmentsPerSecond() {
+            return elapsedMillis == 0 ? 0 : (collected + bounced) * 1000.0 / elapsedMillis;
+        }
+    }
+
+    /** Schedules a daily run at {@code bank.sip.runAt} (HH:mm, server time). */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sip-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(LocalTime.parse(RUN_AT));
+        if (!next.isAfter(now)) next = next.plusDays(1);
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                run(LocalDate.now());
+            } catch (Exception e) {
+                log.error("SIP installment run failed", e);
+            }
+        }, Duration.between(now, next).toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /** Collects every installment due on or before {@code asOf}. */
+    public RunResult run(LocalDate asOf) throws Exception {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A SIP run is already in progress");
+        }
+        long start = System.currentTimeMillis();
+        Date asOfDate = Date.valueOf(asOf);
+        AtomicLong runCollected = new AtomicLong();
+        AtomicLong runBounced = new AtomicLong();
+        AtomicInteger runFailed = new AtomicInteger();
+
+        // one single-threaded executor per partition keeps an account on one worker
+        ExecutorService[] workers = new ExecutorService[WORKERS];
+        for (int i = 0; i < WORKERS; i++) {
+            String name = "sip-worker-" + i;
+            workers[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        // bounds how far the scanner runs ahead of the workers
+        Semaphore inFlight = new Semaphore(WORKERS * 2);
+
+        List<List<Integer>> buffers = new ArrayList<>(WORKERS);
+        for (int i = 0; i < WORKERS; i++) buffers.add(new ArrayList<>(CHUNK_SIZE));
+
+        try {
+            Date afterDate = null;
+            int afterId = 0;
+            while (true) {
+                List<SipPlan> page = sipPlanDao.findDue(asOfDate, afterDate, afterId, CHUNK_SIZE);
+                if (page.isEmpty()) break;
+
+                SipPlan last = page.get(page.size() - 1);
+                afterDate = last.getNextInstallmentDate();
+                afterId = last.getSipId();
+
+                for (SipPlan p : page) {
+                    int part = Math.floorMod(p.getAccountId(), WORKERS);
+                    List<Integer> buf = buffers.get(part);
+                    buf.add(p.getSipId());
+                    if (buf.size() >= CHUNK_SIZE) {
+                        dispatch(workers[part], inFlight, buf, asOfDate, runCollected, runBounced, runFailed);
+                        buffers.set(part, new ArrayList<>(CHUNK_SIZE));
+                    }
+                }
+
+                if (page.size() < CHUNK_SIZE) break;
+            }
+            for (int i = 0; i < WORKERS; i++) {
+                if (!buffers.get(i).isEmpty()) {
+                    dispatch(workers[i], inFlight, buffers.get(i), asOfDate, runCollected, runBounced, runFailed);
+                }
+            }
+        } finally {
+            for (ExecutorService w : workers) w.shutdown();
+            for (ExecutorService w : workers) w.awaitTermination(1, TimeUnit.HOURS);
+            running.set(false);
+        }
+
+        RunResult result = new RunResult(asOf, runCollected.get(), runBounced.get(), runFailed.get(),
+                System.currentTimeMillis() - start);
+        lastRun = result;
+        log.info("SIP run for {}: {} collected, {} bounced, {} failed chunks in {}ms ({} installments/s)",
+                asOf, result.getCollected(), result.getBounced(), result.getFailedChunks(),
+                result.getElapsedMillis(), String.format("%.1f", result.getInstallmentsPerSecond()));
+        return result;
+    }
+
+    private void dispatch(ExecutorService worker, Semaphore inFlight, List<Integer> sipIds, Date asOf,
+                          AtomicLong runCollected, AtomicLong runBounced, AtomicInteger runFailed)
+            throws InterruptedException {
+        inFlight.acquire();
+        worker.execute(() -> {
+            long t0 = System.nanoTime();
+            try {
+                int[] r = processChunk(sipIds, asOf);
+                runCollected.addAndGet(r[0]);
+                runBounced.addAndGet(r[1]);
+                collected.add(r[0]);
+                bounced.add(r[1]);
+            } catch (Exception e) {
+                runFailed.incrementAndGet();
+                failedChunks.increment();
+                log.error("SIP chunk starting at sip_id {} failed", sipIds.get(0), e);
+            } finally {
+                chunkLatency.recordSince(t0);
+                inFlight.release();
+            }
+        });
+    }
+
+    /** Runs one chunk in a single transaction; returns {collected, bounced}. */
+    int[] processChunk(List<Integer> sipIds, Date asOf) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return collect(sipIds, asOf);
+            } catch (SQLException e) {
+                if (attempt >= MAX_CHUNK_ATTEMPTS || !TransferService.isRetryable(e)) throw e;
+            }
+        }
+    }
+
+    private int[] collect(List<Integer> sipIds, Date asOf) throws Exception {
+        List<Integer> debited = new ArrayList<>(sipIds.size());
+        int bouncedCount = 0;
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+
+            List<SipPlan> plans = sipPlanDao.lockDue(sipIds, asOf, conn);
+            plans.sort(Comparator.comparingInt(SipPlan::getAccountId));
+
+            List<Transaction> rows = new ArrayList<>(plans.size());
+            List<SipPlan> settled = new ArrayList<>(plans.size());
+            for (SipPlan p : plans) {
+                Transaction t = new Transaction();
+                t.setFromAccountId(p.getAccountId());
+                t.setAmount(p.getMonthlyAmount());
+                t.setTxnType("SIP_INSTALLMENT");
+                t.setDescription("SIP #" + p.getSipId() + " installment due " + p.getNextInstallmentDate());
+
+                try {
+                    BigDecimal newBal = accountDao.adjustBalance(p.getAccountId(), p.getMonthlyAmount().negate(), conn);
+                    if (newBal == null) {
+                        p.setStatus("CLOSED");
+                        settled.add(p);
+                        continue;
+                    }
+                    t.setPostBalance(newBal);
+                    debited.add(p.getAccountId());
+                } catch (InsufficientFundsException e) {
+                    // the guarded update changed nothing; record the missed installment and move on
+                    t.setStatus("FAILED");
+                    bouncedCount++;
+                } catch (EngineOwnedAccountException e) {
+                    // nothing was written; the installment stays due for a later run
+                    log.warn("SIP #{} installment not collected: {}", p.getSipId(), e.getMessage());
+                    continue;
+                }
+                rows.add(t);
+                advance(p);
+                settled.add(p);
+            }
+
+            transactionDao.insertBatch(rows, conn);
+            sipPlanDao.advance(settled, conn);
+            conn.commit();
+        }
+
+        for (Integer accountId : debited) accountDao.afterCommit(accountId);
+        return new int[]{debited.size(), bouncedCount};
+    }
+
+    /**
+     * Moves the plan to its next installment. Dates are derived from the start date rather than
+     * the previous due date so a plan started on the 31st doesn't drift to the 28th for good.
+     */
+    static void advance(SipPlan p) {
+        LocalDate due = p.getNextInstallmentDate().toLocalDate();
+        LocalDate start = p.getStartDate() != null ? p.getStartDate().toLocalDate() : due;
+        long paid = ChronoUnit.MONTHS.between(YearMonth.from(start), YearMonth.from(due)) + 1;
+        p.setNextInstallmentDate(Date.valueOf(start.plusMonths(paid)));
+        if (p.getTenureMonths() != null && paid >= p.getTenureMonths()) p.setStatus("COMPLETED");
+    }
+
+    public long getCollected() { return collected.sum(); }
+    public long getBounced() { return bounced.sum(); }
+    public long getFailedChunks() { return failedChunks.sum(); }
+    public LatencyHistogram getChunkLatency() { return chunkLatency; }
+    public RunResult getLastRun() { return lastRun; }
+}
@@ -0,0 +1,126 @@
+package com.example.bank.service;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.DaoFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline bulk statement run: writes {@code <outDir>/<yyyy-MM>/account-<id>.csv} for every
+ * account. Account ids are paged in ranges of {@code bank.statement.rangeSize} and each range
+ * is rendered by one of {@code bank.statement.concurrency} threads, so at most that many
+ * statement cursors (and pooled connections) are open at once.
+ *
+ * <pre>java -cp 'WEB-INF/classes:WEB-INF/lib/*' com.example.bank.service.StatementGenerator 2024-05 /var/statements</pre>
+ */
+public class StatementGenerator {
+    private static final Logger log = LoggerFactory.getLogger(StatementGenerator.class);
+
+    private static final int CONCURRENCY = Integer.getInteger("bank.statement.concurrency", 4);
+    private static final int RANGE_SIZE = Integer.getInteger("bank.statement.rangeSize", 1_000);
+    private static final int WRITE_BUFFER = 64 * 1024;
+
+    private final AccountDao accountDao;
+    private final StatementService statementService;
+    private final int concurrency;
+
+    public StatementGenerator(AccountDao accountDao, StatementService statementService, int concurrency) {
+        this.accountDao = accountDao;
+        this.statementService = statementService;
+        this.concurrency = concurrency;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("usage: StatementGenerator <yyyy-MM> <outDir>");
+            System.exit(2);
+        }
+        YearMonth month = YearMonth.parse(args[0]);
+        Path outDir = Paths.get(args[1]);
+
+        AccountDao accountDao = DaoFactory.accountDao();
+        StatementService service = new StatementService(accountDao, DaoFactory.transactionDao());
+        try {
+            new StatementGenerator(accountDao, service, CONCURRENCY).generate(month, outDir);
+        } finally {
+            DBConnectionManager.shutdown();
+        }
+    }
+
+    /** Renders every account's statement; returns the number of files written. */
+    public int generate(YearMonth month, Path outDir) throws Exception {
+        Path dir = Files.createDirectories(outDir.resolve(month.toString()));
+        long start = System.currentTimeMillis();
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        // the id scan stays at most one range ahead of each worker
+        Semaphore inFlight = new Semaphore(concurrency * 2);
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong lines = new AtomicLong();
+
+        try {
+            int afterId = 0;
+            while (true) {
+                List<Integer> ids = accountDao.findIdsAfter(afterId, RANGE_SIZE);
+                if (ids.isEmpty()) break;
+                afterId = ids.get(ids.size() - 1);
+
+                inFlight.acquire();
+                pool.execute(() -> {
+                    try {
+                        for (int accountId : ids) {
+                            try {
+                                lines.addAndGet(writeOne(accountId, month, dir));
+                                written.incrementAndGet();
+                            } catch (Exception e) {
+                                failed.incrementAndGet();
+                                log.error("Statement for account {} failed", accountId, e);
+                            }
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+
+                if (ids.size() < RANGE_SIZE) break;
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.DAYS);
+        }
+
+        log.info("Wrote {} statements ({} transactions) for {} in {}ms, {} failed",
+                written.get(), lines.get(), month, System.currentTimeMillis() - start, failed.get());
+        return written.get();
+    }
+
+    private int writeOne(int accountId, YearMonth month, Path dir) throws Exception {
+        Path file = dir.resolve("account-" + accountId + ".csv");
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer out = new BufferedWriter(
+                     Channels.newWriter(ch, StandardCharsets.UTF_8.newEncoder(), WRITE_BUFFER), WRITE_BUFFER)) {
+            return statementService.write(accountId, month, out);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bank.service;
+
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.Account;
+import com.example.bank.model.Transaction;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+
+/**
+ * Renders monthly account statements as CSV. Rows go from the database cursor straight to the
+ * writer, so memory use does not depend on how busy the account was.
+ */
+public class StatementService {
+    private static final String HEADER = "date,transaction_id,type,description,debit,credit,balance,status\n";
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+
+    public StatementService(AccountDao accountDao, TransactionDao transactionDao) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+    }
+
+    /**
+     * Writes the statement of {@code accountId} for {@code month}: an OPENING_BALANCE line, one
+     * line per transaction, then a CLOSING_BALANCE line.
+     *
+     * @return the number of transaction lines written
+     */
+    public int write(int accountId, YearMonth month, Writer out) throws Exception {
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+
+        BigDecimal opening = openingBalance(accountId, from);
+        out.write(HEADER);
+        writeLine(out, from.toLocalDateTime().toString(), "", "OPENING_BALANCE", "", "", "", opening, "");
+
+        BigDecimal[] balance = {opening};
+        int[] count = {0};
+        transactionDao.streamRange(accountId, from, to, t -> {
+            boolean debit = isDebit(t, accountId);
+            boolean applied = !"FAILED".equals(t.getStatus());
+            if (t.getPostBalance() != null) {
+                balance[0] = t.getPostBalance();
+            } else if (applied) {
+                balance[0] = debit ? balance[0].subtract(t.getAmount()) : balance[0].add(t.getAmount());
+            }
+            writeLine(out, t.getTxnDate().toLocalDateTime().toString(),
+                    String.valueOf(t.getTransactionId()),
+                    t.getTxnType() == null ? "" : t.getTxnType(),
+                    t.getDescription() == null ? "" : t.getDescription(),
+                    debit ? t.getAmount().toString() : "",
+                    debit ? "" : t.getAmount().toString(),
+                    balance[0],
+                    t.getStatus() == null ? "" : t.getStatus());
+            count[0]++;
+        });
+
+        writeLine(out, to.toLocalDateTime().toString(), "", "CLOSING_BALANCE", "", "", "", balance[0], "");
+        out.flush();
+        return count[0];
+    }
+
+    /**
+     * Balance at {@code at}: the post balance of the last earlier row, else worked back from the
+     * first later row, else (no rows with balances at all) the current balance.
+     */
+    BigDecimal openingBalance(int accountId, Timestamp at) throws Exception {
+        Transaction before = transactionDao.findLastWithBalanceBefore(accountId, at);
+        if (before != null) return before.getPostBalance();
+
+        Transaction after = transactionDao.findFirstWithBalanceFrom(accountId, at);
+        if (after != null) {
+            return isDebit(after, accountId)
+                    ? after.getPostBalance().add(after.getAmount())
+                    : after.getPostBalance().subtract(after.getAmount());
+        }
+
+        Account a = accountDao.findById(accountId);
+        return a == null ? BigDecimal.ZERO : a.getBalance();
+    }
+
+    private static boolean isDebit(Transaction t, int accountId) {
+        return t.getFromAccountId() != null && t.getFromAccountId() == accountId
+                && !"TRANSFER_IN".equals(t.getTxnType());
+    }
+
+    private static void writeLine(Writer out, String date, String id, String type, String description,
+                                  String debit, String credit, BigDecimal balance, String status)
+            throws IOException {
+        out.write(date);
+        out.write(',');
+        out.write(id);
+        out.write(',');
+        out.write(type);
+        out.write(',');
+        writeEscaped(out, description);
+        out.write(',');
+        out.write(debit);
+        out.write(',');
+        out.write(credit);
+        out.write(',');
+        out.write(balance.toString());
+        out.write(',');
+        out.write(status);
+        out.write('\n');
+    }
+
+    private static void writeEscaped(Writer out, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.bank.service;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.AccountNotFoundException;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.Transaction;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Moves money between two accounts in one database transaction. Both rows are locked in
+ * ascending account-id order, the same order {@link LedgerWriter} uses, so two transfers in
+ * opposite directions can't deadlock each other. Deadlocks and lock-wait timeouts against
+ * other writers are retried with a short randomised backoff.
+ */
+public class TransferService {
+    private static final int MAX_ATTEMPTS = Integer.getInteger("bank.transfer.maxAttempts", 5);
+
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+
+    private final AccountDao accountDao;
+    private final TransactionDao transactionDao;
+
+    public TransferService(AccountDao accountDao, TransactionDao transactionDao) {
+        this.accountDao = accountDao;
+        this.transactionDao = transactionDao;
+    }
+
+    /** Balances of both sides after a committed transfer. */
+    public static class Result {
+        private final BigDecimal fromBalance;
+        private final BigDecimal toBalance;
+
+        public Result(BigDecimal fromBalance, BigDecimal toBalance) {
+            this.fromBalance = fromBalance;
+            this.toBalance = toBalance;
+        }
+
+        public BigDecimal getFromBalance() { return fromBalance; }
+        public BigDecimal getToBalance() { return toBalance; }
+    }
+
+    public Result transfer(int fromId, int toId, BigDecimal amount, String description) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try (Connection conn = DBConnectionManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    Result r = transfer(fromId, toId, amount, description, conn);
+                    conn.commit();
+                    accountDao.afterCommit(fromId);
+                    accountDao.afterCommit(toId);
+                    return r;
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                if (attempt >= MAX_ATTEMPTS || !isRetryable(e)) throw e;
+                Thread.sleep(ThreadLocalRandom.current().nextLong(1, 10L * attempt));
+            }
+        }
+    }
+
+    /**
+     * Applies the transfer on the caller's connection without committing. Writes a
+     * TRANSFER_OUT row carrying the source's post balance and a TRANSFER_IN row carrying the
+     * destination's, so each account's history has its own running balance.
+     */
+    public Result transfer(int fromId, int toId, BigDecimal amount, String description,
+                           Connection conn) throws Exception {
+        if (fromId == toId) throw new IllegalArgumentException("Cannot transfer to the same account");
+        if (amount.signum() <= 0) throw new IllegalArgumentException("Amount must be positive");
+
+        BigDecimal fromBal;
+        BigDecimal toBal;
+        if (fromId < toId) {
+            fromBal = require(fromId, accountDao.adjustBalance(fromId, amount.negate(), conn));
+            toBal = require(toId, accountDao.adjustBalance(toId, amount, conn));
+        } else {
+            toBal = require(toId, accountDao.adjustBalance(toId, amount, conn));
+            fromBal = require(fromId, accountDao.adjustBalance(fromId, amount.negate(), conn));
+        }
+
+        Transaction out = leg(fromId, toId, amount, "TRANSFER_OUT", description, fromBal);
+        Transaction in = leg(fromId, toId, amount, "TRANSFER_IN", description, toBal);
+        transactionDao.insertBatch(List.of(out, in), conn);
+
+        return new Result(fromBal, toBal);
+    }
+
+    private static Transaction leg(int fromId, int toId, BigDecimal amount, String type,
+                                   String description, BigDecimal postBalance) {
+        Transaction t = new Transaction();
+        t.setFromAccountId(fromId);
+        t.setToAccountId(toId);
+        t.setAmount(amount);
+        t.setTxnType(type);
+        t.setDescription(description);
+        t.setPostBalance(postBalance);
+        return t;
+    }
+
+    private static BigDecimal require(int accountId, BigDecimal balance) throws AccountNotFoundException {
+        if (balance == null) throw new AccountNotFoundException(accountId);
+        return balance;
+    }
+
+    public static boolean isRetryable(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                SQLException s = (SQLException) t;
+                if (s.getErrorCode() == ER_LOCK_DEADLOCK || s.getErrorCode() == ER_LOCK_WAIT_TIMEOUT
+                        || "40001".equals(s.getSQLState())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.bank.service;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.UserDao;
+import com.example.bank.model.Account;
+import com.example.bank.model.User;
+import com.example.bank.util.AccountNumberGenerator;
+import com.example.bank.util.JsonUtil;
+import com.example.bank.util.PasswordUtil;
+
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk user onboarding for branch migrations. Records are read from a JSON array with a
+ * streaming parser and handled {@code bank.onboarding.chunkSize} at a time:
+ * <ol>
+ *   <li>one {@code IN (...)} lookup finds the chunk's emails that already exist,</li>
+ *   <li>the passwords are hashed in parallel on a pool sized to the cores,</li>
+ *   <li>the users, and the initial accounts of records that ask for one, are inserted with
+ *       one JDBC batch each in a single transaction.</li>
+ * </ol>
+ * Each chunk's per-record results are written as soon as it commits.
+ *
+ * <pre>
+ * [{"firstName":"A","lastName":"B","email":"a@b.in","password":"...",
+ *   "accountType":"Savings","initialDeposit":500}]
+ * </pre>
+ *
+ * Also runnable offline: {@code java ... UserOnboardingService users.json > results.json}.
+ */
+public class UserOnboardingService {
+    private static final int CHUNK_SIZE = Integer.getInteger("bank.onboarding.chunkSize", 500);
+    private static final int HASH_THREADS =
+            Integer.getInteger("bank.onboarding.hashThreads", Runtime.getRuntime().availableProcessors());
+
+    private final UserDao userDao;
+    private final AccountDao accountDao;
+
+    public UserOnboardingService(UserDao userDao, AccountDao accountDao) {
+        this.userDao = userDao;
+        this.accountDao = accountDao;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("usage: UserOnboardingService <users.json>");
+            System.exit(2);
+        }
+        try (InputStream in = new FileInputStream(args[0])) {
+            new UserOnboardingService(DaoFactory.userDao(), DaoFactory.accountDao()).run(in, System.out);
+        } finally {
+            DBConnectionManager.shutdown();
+        }
+    }
+
+    /** Reads records from {@code in} and writes {@code {"results":[...],"created":n,"failed":n}} to {@code out}. */
+    public void run(InputStream in, OutputStream out) throws Exception {
+        ExecutorService hashPool = Executors.newFixedThreadPool(HASH_THREADS, r -> {
+            Thread t = new Thread(r, "onboarding-hasher");
+            t.setDaemon(true);
+            return t;
+        });
+        long created = 0;
+        long failed = 0;
+        String error = null;
+
+        try (JsonParser parser = JsonUtil.parser(in);
+             JsonGenerator gen = JsonUtil.generator(out)) {
+
+            if (!parser.hasNext() || parser.next() != JsonParser.Event.START_ARRAY) {
+                gen.writeStartObject().write("error", "Expected a JSON array of users").writeEnd();
+                return;
+            }
+            gen.writeStartObject().writeStartArray("results");
+
+            List<Record> chunk = new ArrayList<>(CHUNK_SIZE);
+            int index = 0;
+            try {
+                while (parser.hasNext()) {
+                    JsonParser.Event event = parser.next();
+                    if (event == JsonParser.Event.END_ARRAY) break;
+                    if (event != JsonParser.Event.START_OBJECT) {
+                        throw new JsonParsingException("Expected a user object", parser.getLocation());
+                    }
+                    chunk.add(Record.parse(index++, parser.getObject()));
+                    if (chunk.size() == CHUNK_SIZE) {
+                        process(chunk, hashPool);
+                        for (Record r : chunk) {
+                            if (r.error == null) created++;
+                            else failed++;
+                        }
+                        write(chunk, gen);
+                        chunk.clear();
+                    }
+                }
+            } catch (JsonParsingException e) {
+                // records read before the bad token are still onboarded below
+                error = "Malformed input at line " + e.getLocation().getLineNumber() + ": " + e.getMessage();
+            }
+
+            process(chunk, hashPool);
+            for (Record r : chunk) {
+                if (r.error == null) created++;
+                else failed++;
+            }
+            write(chunk, gen);
+
+            gen.writeEnd()
+               .write("created", created)
+               .write("failed", failed);
+            if (error != null) gen.write("error", error);
+            gen.writeEnd();
+        } finally {
+            hashPool.shutdownNow();
+        }
+    }
+
+    void process(List<Record> chunk, ExecutorService hashPool) throws Exception {
+        if (chunk.isEmpty()) return;
+
+        // duplicates inside the chunk first, then one query for the ones already stored
+        Set<String> emails = new LinkedHashSet<>();
+        for (Record r : chunk) {
+            if (r.error == null && !emails.add(r.user.getEmail())) r.error = "Duplicate email in input";
+        }
+        Set<String> existing = new HashSet<>(userDao.findExistingEmails(emails));
+        for (Record r : chunk) {
+            if (r.error == null && existing.contains(r.user.getEmail())) r.error = "User already exists";
+        }
+
+        List<Future<?>> hashes = new ArrayList<>(chunk.size());
+        for (Record r : chunk) {
+            if (r.error != null) continue;
+            hashes.add(hashPool.submit(() -> {
+                r.user.setPasswordHash(PasswordUtil.hashPassword(r.password, PasswordUtil.generateSalt()));
+                r.password = null;
+            }));
+        }
+        for (Future<?> f : hashes) f.get();
+
+        List<User> users = new ArrayList<>(chunk.size());
+        for (Record r : chunk) {
+            if (r.error == null) users.add(r.user);
+        }
+        if (users.isEmpty()) return;
+
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            userDao.createBatch(users, conn);
+
+            List<Account> accounts = new ArrayList<>();
+            for (Record r : chunk) {
+                if (r.error != null || r.account == null) continue;
+                r.account.setUserId(r.user.getUserId());
+                r.account.setAccountNumber(AccountNumberGenerator.shared().next());
+                accounts.add(r.account);
+            }
+            accountDao.createBatch(accounts, conn);
+            conn.commit();
+        } catch (Exception e) {
+            for (Record r : chunk) {
+                if (r.error == null) r.error = "Chunk rolled back: " + e.getMessage();
+            }
+        }
+    }
+
+    private static void write(List<Record> chunk, JsonGenerator gen) {
+        for (Record r : chunk) {
+            gen.writeStartObject().write("index", r.index);
+            if (r.user != null && r.user.getEmail() != null) gen.write("email", r.user.getEmail());
+            if (r.error == null) {
+                gen.write("status", "CREATED").write("userId", r.user.getUserId());
+                if (r.account != null) {
+                    gen.write("accountId", r.account.getAccountId())
+                       .write("accountNumber", r.account.getAccountNumber());
+                }
+            } else {
+                gen.write("status", "ERROR").write("error", r.error);
+            }
+            gen.writeEnd();
+        }
+        gen.flush();
+    }
+
+    static final class Record {
+        final int index;
+        User user;
+        char[] password;
+        Account account;
+        String error;
+
+        private Record(int index) {
+            this.index = index;
+        }
+
+        static Record parse(int index, JsonObject jo) {
+            Record r = new Record(index);
+            User u = new User();
+            u.setFirstName(jo.getString("firstName", ""));
+            u.setLastName(jo.getString("lastName", ""));
+            u.setFatherName(jo.getString("fatherName", ""));
+            u.setMotherName(jo.getString("motherName", ""));
+            u.setGender(jo.getString("gender", ""));
+            u.setAge(jo.getInt("age", 0));
+            u.setPhone(jo.getString("phone", ""));
+            u.setAadhaar(jo.getString("aadhaar", ""));
+            u.setPan(jo.getString("pan", ""));
+            u.setEmail(jo.getString("email", "").trim());
+            r.user = u;
+            r.password = jo.getString("password", "").toCharArray();
+
+            if (u.getEmail().isEmpty() || r.password.length == 0) {
+                r.error = "Email and password required";
+                return r;
+            }
+
+            if (jo.containsKey("accountType") || jo.containsKey("initialDeposit")) {
+                JsonNumber deposit = jo.get("initialDeposit") instanceof JsonNumber
+                        ? jo.getJsonNumber("initialDeposit") : null;
+                Account a = new Account();
+                a.setAccountType(jo.getString("accountType", "Savings"));
+                a.setBalance(deposit == null ? BigDecimal.ZERO : deposit.bigDecimalValue());
+                if (a.getBalance().signum() < 0) {
+                    r.error = "Initial deposit cannot be negative";
+                    return r;
+                }
+                r.account = a;
+            }
+            return r;
+        }
+    }
+}
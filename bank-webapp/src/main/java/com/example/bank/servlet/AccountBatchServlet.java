@@ -0,0 +1,304 @@
+package com.example.bank.servlet;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.AccountNotFoundException;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.EngineOwnedAccountException;
+import com.example.bank.dao.InsufficientFundsException;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.Transaction;
+import com.example.bank.service.AccountOwnershipIndex;
+import com.example.bank.service.BalanceEngine;
+import com.example.bank.service.TransferService;
+import com.example.bank.util.JsonUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.json.JsonException;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * POST /api/accounts/batch: applies a JSON array of deposit/withdraw/transfer operations.
+ * The body is read with a streaming parser and applied {@value #DEFAULT_CHUNK_SIZE} operations
+ * per transaction (configurable), and each chunk's per-item results are written and flushed
+ * as soon as it commits, so memory use doesn't grow with the size of the file.
+ *
+ * <p>Each chunk first locks every account it touches, in ascending id order, and only then
+ * applies its operations in file order. Concurrent batches and single transfers all take
+ * row locks in ascending id order, so they wait on each other instead of deadlocking. A chunk
+ * holds at most two row locks per operation until it commits, which is what keeps the default
+ * chunk small.
+ *
+ * <pre>
+ * [{"op":"deposit","accountId":1,"amount":100.00},
+ *  {"op":"withdraw","accountId":1,"amount":25.50},
+ *  {"op":"transfer","accountId":1,"toAccountId":2,"amount":10}]
+ * </pre>
+ */
+@WebServlet("/api/accounts/batch")
+public class AccountBatchServlet extends HttpServlet {
+    private static final Logger log = LoggerFactory.getLogger(AccountBatchServlet.class);
+
+    private static final int DEFAULT_CHUNK_SIZE = 100;
+    private static final int CHUNK_SIZE = Integer.getInteger("bank.batch.chunkSize", DEFAULT_CHUNK_SIZE);
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private final AccountDao accountDao = DaoFactory.accountDao();
+    private final TransactionDao transactionDao = DaoFactory.transactionDao();
+    private final TransferService transferService = new TransferService(accountDao, transactionDao);
+    private final AccountOwnershipIndex ownership = AccountOwnershipIndex.getInstance();
+    private final BalanceEngine balanceEngine = BalanceEngine.isEnabled() ? BalanceEngine.getInstance() : null;
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+
+        resp.setContentType("application/json");
+        int userId = (Integer) req.getAttribute(AuthFilter.USER_ID_ATTRIBUTE);
+
+        long applied = 0;
+        long failed = 0;
+        String error = null;
+
+        try (JsonParser parser = JsonUtil.parser(req.getInputStream());
+             JsonGenerator out = JsonUtil.generator(resp.getOutputStream())) {
+
+            boolean array;
+            try {
+                array = parser.hasNext() && parser.next() == JsonParser.Event.START_ARRAY;
+            } catch (JsonException e) {
+                array = false;
+            }
+            if (!array) {
+                resp.setStatus(400);
+                out.writeStartObject().write("error", "Expected a JSON array of operations").writeEnd();
+                return;
+            }
+
+            out.writeStartObject().writeStartArray("results");
+
+            List<Op> chunk = new ArrayList<>(CHUNK_SIZE);
+            int index = 0;
+            try {
+                while (parser.hasNext()) {
+                    JsonParser.Event event = parser.next();
+                    if (event == JsonParser.Event.END_ARRAY) break;
+                    if (event != JsonParser.Event.START_OBJECT) {
+                        throw new JsonParsingException("Expected an operation object", parser.getLocation());
+                    }
+
+                    Op parsed = Op.parse(index++, parser.getObject());
+                    if (!parsed.invalid) checkOwner(userId, parsed);
+                    chunk.add(parsed);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        applyChunk(chunk);
+                        for (Op op : chunk) {
+                            if (op.error == null) applied++;
+                            else failed++;
+                        }
+                        writeResults(chunk, out);
+                        chunk.clear();
+                    }
+                }
+            } catch (JsonParsingException e) {
+                // operations read before the bad token are still applied below
+                error = "Malformed input at line " + e.getLocation().getLineNumber()
+                        + ": " + e.getMessage();
+            }
+
+            applyChunk(chunk);
+            for (Op op : chunk) {
+                if (op.error == null) applied++;
+                else failed++;
+            }
+            writeResults(chunk, out);
+
+            out.writeEnd()
+               .write("applied", applied)
+               .write("failed", failed);
+            if (error != null) out.write("error", error);
+            out.writeEnd();
+        }
+    }
+
+    private void checkOwner(int userId, Op op) {
+        try {
+            if (!ownership.owns(userId, op.accountId)) {
+                op.reject("Access denied");
+            } else if (balanceEngine != null && (balanceEngine.owns(op.accountId)
+                    || op.type.equals("transfer") && balanceEngine.owns(op.toAccountId))) {
+                // the engine is the only writer of its accounts, and it isn't part of this transaction
+                op.reject("Account is held by the balance engine; use a single deposit or withdrawal");
+            }
+        } catch (Exception e) {
+            log.error("Ownership check for account {} failed", op.accountId, e);
+            op.reject("Ownership check failed");
+        }
+    }
+
+    private void applyChunk(List<Op> chunk) {
+        if (chunk.isEmpty()) return;
+
+        SortedSet<Integer> accountIds = new TreeSet<>();
+        for (Op op : chunk) {
+            if (op.invalid) continue;
+            accountIds.add(op.accountId);
+            if (op.type.equals("transfer")) accountIds.add(op.toAccountId);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try (Connection conn = DBConnectionManager.getConnection()) {
+                conn.setAutoCommit(false);
+                accountDao.lockAll(accountIds, conn);
+                List<Transaction> rows = new ArrayList<>(chunk.size());
+                for (Op op : chunk) {
+                    if (!op.invalid) apply(op, conn, rows);
+                }
+                transactionDao.insertBatch(rows, conn);
+                conn.commit();
+                for (Op op : chunk) {
+                    if (op.error != null) continue;
+                    accountDao.afterCommit(op.accountId);
+                    if (op.type.equals("transfer")) accountDao.afterCommit(op.toAccountId);
+                }
+                return;
+            } catch (Exception e) {
+                boolean retry = e instanceof SQLException && attempt < MAX_CHUNK_ATTEMPTS
+                        && TransferService.isRetryable((SQLException) e);
+                if (!retry) {
+                    log.error("Batch chunk starting at index {} rolled back after {} attempt(s)",
+                            chunk.get(0).index, attempt, e);
+                    for (Op op : chunk) {
+                        if (!op.invalid) {
+                            op.balance = null;
+                            op.error = "Chunk rolled back";
+                        }
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(Op op, Connection conn, List<Transaction> rows) throws Exception {
+        op.balance = null;
+        op.error = null;
+        try {
+            switch (op.type) {
+                case "deposit":
+                    op.balance = accountDao.adjustBalance(op.accountId, op.amount, conn);
+                    if (op.balance != null) rows.add(op.toTransaction("DEPOSIT", null, op.accountId));
+                    break;
+                case "withdraw":
+                    op.balance = accountDao.adjustBalance(op.accountId, op.amount.negate(), conn);
+                    if (op.balance != null) rows.add(op.toTransaction("WITHDRAWAL", op.accountId, null));
+                    break;
+                default: {
+                    // a transfer is two statements; undo the first leg if the second fails
+                    Savepoint sp = conn.setSavepoint();
+                    try {
+                        op.balance = transferService.transfer(op.accountId, op.toAccountId,
+                                op.amount, op.description, conn).getFromBalance();
+                    } catch (InsufficientFundsException | AccountNotFoundException | EngineOwnedAccountException e) {
+                        conn.rollback(sp);
+                        throw e;
+                    }
+                    conn.releaseSavepoint(sp);
+                }
+            }
+            if (op.balance == null) op.error = "Account not found";
+        } catch (InsufficientFundsException e) {
+            op.error = "Insufficient funds";
+        } catch (AccountNotFoundException e) {
+            op.error = "Account not found";
+        } catch (EngineOwnedAccountException e) {
+            op.error = "Account is held by the balance engine; use a single deposit or withdrawal";
+        }
+    }
+
+    private void writeResults(List<Op> chunk, JsonGenerator out) {
+        for (Op op : chunk) {
+            out.writeStartObject().write("index", op.index);
+            if (op.error == null) {
+                out.write("status", "OK").write("balance", op.balance.toString());
+            } else {
+                out.write("status", "ERROR").write("error", op.error);
+            }
+            out.writeEnd();
+        }
+        out.flush();
+    }
+
+    private static final class Op {
+        final int index;
+        String type;
+        int accountId;
+        int toAccountId;
+        BigDecimal amount;
+        String description;
+        boolean invalid;
+        BigDecimal balance;
+        String error;
+
+        private Op(int index) {
+            this.index = index;
+        }
+
+        static Op parse(int index, JsonObject jo) {
+            Op op = new Op(index);
+            op.type = jo.getString("op", "");
+            op.accountId = jo.getInt("accountId", 0);
+            op.toAccountId = jo.getInt("toAccountId", 0);
+            op.description = jo.getString("description", "Bulk import");
+
+            JsonNumber amount = jo.containsKey("amount") && jo.get("amount") instanceof JsonNumber
+                    ? jo.getJsonNumber("amount") : null;
+            if (amount != null) op.amount = amount.bigDecimalValue();
+
+            if (!op.type.equals("deposit") && !op.type.equals("withdraw") && !op.type.equals("transfer")) {
+                op.reject("Unknown op '" + op.type + "'");
+            } else if (op.amount == null || op.amount.signum() <= 0) {
+                op.reject("Amount must be positive");
+            } else if (op.type.equals("transfer") && op.accountId == op.toAccountId) {
+                op.reject("Cannot transfer to the same account");
+            }
+            return op;
+        }
+
+        private void reject(String message) {
+            invalid = true;
+            error = message;
+        }
+
+        Transaction toTransaction(String txnType, Integer from, Integer to) {
+            Transaction t = new Transaction();
+            t.setFromAccountId(from);
+            t.setToAccountId(to);
+            t.setAmount(amount);
+            t.setTxnType(txnType);
+            t.setDescription(description);
+            t.setPostBalance(balance);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.bank.servlet;
+
+import com.example.bank.service.AccountOwnershipIndex;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lets a request on /api/accounts/{id}/... through only if the authenticated user owns account
+ * {id}. Runs after {@link AuthFilter} (ordered in web.xml). Ownership comes from
+ * {@link AccountOwnershipIndex}, so the check costs no database round-trip once the user's
+ * accounts are indexed. Endpoints without an id in the path (create, batch) check in the servlet.
+ */
+@WebFilter(filterName = "AccountOwnershipFilter", asyncSupported = true)
+public class AccountOwnershipFilter extends HttpFilter {
+    private static final Pattern ACCOUNT_PATH = Pattern.compile("^/api/accounts/(\\d+)(/.*)?$");
+
+    private final AccountOwnershipIndex ownership = AccountOwnershipIndex.getInstance();
+
+    @Override
+    protected void doFilter(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+            throws IOException, ServletException {
+
+        String path = req.getServletPath() + (req.getPathInfo() == null ? "" : req.getPathInfo());
+        Matcher m = ACCOUNT_PATH.matcher(path);
+        if (m.matches()) {
+            int userId = (Integer) req.getAttribute(AuthFilter.USER_ID_ATTRIBUTE);
+            boolean owned;
+            try {
+                owned = ownership.owns(userId, Integer.parseInt(m.group(1)));
+            } catch (NumberFormatException e) {
+                owned = false;
+            } catch (Exception e) {
+                throw new ServletException(e);
+            }
+            if (!owned) {
+                forbidden(resp);
+                return;
+            }
+        }
+        chain.doFilter(req, resp);
+    }
+
+    static void forbidden(HttpServletResponse resp) throws IOException {
+        resp.setStatus(403);
+        resp.setContentType("application/json");
+        resp.getWriter().write("{\"error\":\"Access denied\"}");
+    }
+}
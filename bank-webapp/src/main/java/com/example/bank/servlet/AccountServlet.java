@@ -1,48 +1,94 @@
 package com.example.bank.servlet;
 
-import com.example.bank.DBConnectionManager;
 import com.example.bank.dao.AccountDao;
+import com.example.bank.dao.AccountNotFoundException;
+import com.example.bank.dao.DailyBalanceDao;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.EngineOwnedAccountException;
+import com.example.bank.dao.HistoryQuery;
+import com.example.bank.dao.InsufficientFundsException;
+import com.example.bank.dao.TransactionDao;
 import com.example.bank.dao.UserDao;
-import com.example.bank.dao.impl.JdbcAccountDao;
-import com.example.bank.dao.impl.JdbcUserDao;
 import com.example.bank.model.Account;
+import com.example.bank.model.DailyBalance;
+import com.example.bank.model.IdempotencyRecord;
+import com.example.bank.model.Transaction;
 import com.example.bank.model.User;
+import com.example.bank.service.AccountOwnershipIndex;
+import com.example.bank.service.BalanceEngine;
+import com.example.bank.service.DuplicateRequestException;
+import com.example.bank.service.IdempotencyService;
+import com.example.bank.service.LedgerWriter;
+import com.example.bank.service.StatementService;
+import com.example.bank.service.TransferService;
+import com.example.bank.util.AccountNumberGenerator;
+import com.example.bank.util.JsonUtil;
 
-import jakarta.json.Json;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonReader;
+import jakarta.json.stream.JsonGenerator;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.StringReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-
-@WebServlet("/api/accounts/*")
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.RejectedExecutionException;
+
+@WebServlet(urlPatterns = "/api/accounts/*", asyncSupported = true)
 public class AccountServlet extends HttpServlet {
-
-    private final AccountDao accountDao = new JdbcAccountDao();
-    private final UserDao userDao = new JdbcUserDao();
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SERIES_DAYS = 3_660;
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    private final AccountDao accountDao = DaoFactory.accountDao();
+    private final UserDao userDao = DaoFactory.userDao();
+    private final LedgerWriter ledgerWriter = LedgerWriter.getInstance();
+    private final TransactionDao transactionDao = DaoFactory.transactionDao();
+    private final DailyBalanceDao dailyBalanceDao = DaoFactory.dailyBalanceDao();
+    private final TransferService transferService =
+            new TransferService(accountDao, transactionDao);
+    private final StatementService statementService =
+            new StatementService(accountDao, transactionDao);
+    private final AccountOwnershipIndex ownership = AccountOwnershipIndex.getInstance();
+    private final IdempotencyService idempotency = IdempotencyService.getInstance();
+    private final BalanceEngine balanceEngine = BalanceEngine.isEnabled() ? BalanceEngine.getInstance() : null;
+    private final RequestExecutor executor = RequestExecutor.getInstance();
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
+        executor.execute(req, resp, r -> handlePost(req, r));
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+        executor.execute(req, resp, r -> handleGet(req, r));
+    }
+
+    private void handlePost(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
 
         String path = req.getPathInfo(); // /create or /{id}/deposit etc
         resp.setContentType("application/json");
 
         try {
-            String body = req.getReader().lines().reduce("", (a, b) -> a + b);
-            JsonReader jr = Json.createReader(new StringReader(body));
+            JsonReader jr = JsonUtil.reader(req.getReader());
             JsonObject jo = jr.readObject();
 
             if (path != null && path.equals("/create")) {
-                createAccount(jo, resp);
+                createAccount(jo, req, resp);
                 return;
             }
 
@@ -50,7 +96,7 @@ public class AccountServlet extends HttpServlet {
                 int id = Integer.parseInt(path.split("/")[1]);
                 BigDecimal amount =
                         new BigDecimal(jo.getJsonNumber("amount").toString());
-                deposit(id, amount, resp);
+                deposit(id, amount, req, resp);
                 return;
             }
 
@@ -58,7 +104,16 @@ public class AccountServlet extends HttpServlet {
                 int id = Integer.parseInt(path.split("/")[1]);
                 BigDecimal amount =
                         new BigDecimal(jo.getJsonNumber("amount").toString());
-                withdraw(id, amount, resp);
+                withdraw(id, amount, req, resp);
+                return;
+            }
+
+            if (path != null && path.matches("/\\d+/transfer")) {
+                int id = Integer.parseInt(path.split("/")[1]);
+                int toId = jo.getInt("toAccountId", 0);
+                BigDecimal amount =
+                        new BigDecimal(jo.getJsonNumber("amount").toString());
+                transfer(id, toId, amount, jo.getString("description", "Transfer via web"), resp);
                 return;
             }
 
@@ -71,8 +126,7 @@ public class AccountServlet extends HttpServlet {
         }
     }
 
-    @Override
-    protected void doGet(HttpServletRequest req, HttpServletResponse resp)
+    private void handleGet(HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
 
         // GET /api/accounts/{id}
@@ -90,7 +144,7 @@ public class AccountServlet extends HttpServlet {
                     return;
                 }
 
-                JsonObject jo = Json.createObjectBuilder()
+                JsonObject jo = JsonUtil.objectBuilder()
                         .add("accountId", account.getAccountId())
                         .add("accountNumber", account.getAccountNumber())
                         .add("accountType", account.getAccountType())
@@ -101,6 +155,24 @@ public class AccountServlet extends HttpServlet {
                 return;
             }
 
+            if (path != null && path.matches("/\\d+/transactions")) {
+                int id = Integer.parseInt(path.split("/")[1]);
+                history(id, req, resp);
+                return;
+            }
+
+            if (path != null && path.matches("/\\d+/statement")) {
+                int id = Integer.parseInt(path.split("/")[1]);
+                statement(id, req, resp);
+                return;
+            }
+
+            if (path != null && path.matches("/\\d+/balances")) {
+                int id = Integer.parseInt(path.split("/")[1]);
+                balances(id, req, resp);
+                return;
+            }
+
             resp.setStatus(404);
             resp.getWriter().write("{\"error\":\"Unknown endpoint\"}");
         } catch (Exception e) {
@@ -110,10 +182,214 @@ public class AccountServlet extends HttpServlet {
         }
     }
 
-    private void createAccount(JsonObject jo, HttpServletResponse resp)
+    /**
+     * GET /api/accounts/{id}/transactions?from=yyyy-MM-dd&amp;to=yyyy-MM-dd&amp;type=&amp;limit=&amp;cursor=
+     * Pages newest first; pass back {@code nextCursor} to get the following page.
+     */
+    private void history(int accountId, HttpServletRequest req, HttpServletResponse resp)
+            throws Exception {
+
+        HistoryQuery q = new HistoryQuery();
+        q.setAccountId(accountId);
+        try {
+            String from = req.getParameter("from");
+            String to = req.getParameter("to");
+            String limit = req.getParameter("limit");
+            String cursor = req.getParameter("cursor");
+            if (from != null) q.setFromDate(Timestamp.valueOf(LocalDate.parse(from).atStartOfDay()));
+            if (to != null) q.setToDate(Timestamp.valueOf(LocalDate.parse(to).plusDays(1).atStartOfDay()));
+            if (limit != null) q.setLimit(Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(limit))));
+            if (cursor != null) {
+                String[] parts = cursor.split("-");
+                q.setBeforeDate(new Timestamp(Long.parseLong(parts[0])));
+                q.setBeforeId(Integer.parseInt(parts[1]));
+            }
+        } catch (RuntimeException e) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Invalid query parameters\"}");
+            return;
+        }
+        q.setTxnType(req.getParameter("type"));
+
+        if (accountDao.findById(accountId) == null) {
+            resp.setStatus(404);
+            resp.getWriter().write("{\"error\":\"Account not found\"}");
+            return;
+        }
+
+        // fetch one extra row to learn whether another page follows
+        int pageSize = q.getLimit();
+        q.setLimit(pageSize + 1);
+
+        try (JsonGenerator out = JsonUtil.generator(resp.getWriter())) {
+            out.writeStartObject()
+               .write("accountId", accountId)
+               .writeStartArray("transactions");
+
+            Transaction[] last = new Transaction[1];
+            int[] count = new int[1];
+            transactionDao.findHistory(q, t -> {
+                if (++count[0] > pageSize) return;
+                boolean debit = t.getFromAccountId() != null && t.getFromAccountId() == accountId
+                        && !"TRANSFER_IN".equals(t.getTxnType());
+                out.writeStartObject()
+                   .write("transactionId", t.getTransactionId())
+                   .write("date", t.getTxnDate().toInstant().toString())
+                   .write("type", t.getTxnType() == null ? "" : t.getTxnType())
+                   .write("direction", debit ? "DEBIT" : "CREDIT")
+                   .write("amount", t.getAmount().toString());
+                Integer counterparty = debit ? t.getToAccountId() : t.getFromAccountId();
+                if (counterparty != null) out.write("counterpartyAccountId", counterparty);
+                if (t.getPostBalance() != null) out.write("postBalance", t.getPostBalance().toString());
+                if (t.getDescription() != null) out.write("description", t.getDescription());
+                out.writeEnd();
+                last[0] = t;
+            });
+
+            out.writeEnd();
+            if (count[0] > pageSize) {
+                out.write("nextCursor", last[0].getTxnDate().getTime() + "-" + last[0].getTransactionId());
+            } else {
+                out.writeNull("nextCursor");
+            }
+            out.writeEnd();
+        }
+    }
+
+    /**
+     * GET /api/accounts/{id}/balances?from=yyyy-MM-dd&amp;to=yyyy-MM-dd (defaults to the last 30 days)
+     * One entry per day with the closing balance and the day's credit/debit totals, read from
+     * {@code account_daily_balances}: days without movements carry the previous closing balance
+     * forward, so the query touches at most one row per day in the range.
+     */
+    private void balances(int accountId, HttpServletRequest req, HttpServletResponse resp)
+            throws Exception {
+
+        LocalDate from;
+        LocalDate to;
+        try {
+            String t = req.getParameter("to");
+            String f = req.getParameter("from");
+            to = t == null ? LocalDate.now() : LocalDate.parse(t);
+            from = f == null ? to.minusDays(29) : LocalDate.parse(f);
+        } catch (RuntimeException e) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Invalid query parameters\"}");
+            return;
+        }
+        if (from.isAfter(to) || from.plusDays(MAX_SERIES_DAYS - 1).isBefore(to)) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Date range must be 1 to " + MAX_SERIES_DAYS + " days\"}");
+            return;
+        }
+
+        if (accountDao.findById(accountId) == null) {
+            resp.setStatus(404);
+            resp.getWriter().write("{\"error\":\"Account not found\"}");
+            return;
+        }
+
+        BigDecimal opening;
+        DailyBalance before = dailyBalanceDao.findLastBefore(accountId, Date.valueOf(from));
+        if (before != null) {
+            opening = before.getClosingBalance();
+        } else {
+            // history older than the daily table: one indexed lookup into the ledger instead
+            Transaction last = transactionDao.findLastWithBalanceBefore(accountId,
+                    Timestamp.valueOf(from.atStartOfDay()));
+            opening = last == null ? BigDecimal.ZERO : last.getPostBalance();
+        }
+
+        try (JsonGenerator out = JsonUtil.generator(resp.getWriter())) {
+            out.writeStartObject()
+               .write("accountId", accountId)
+               .write("from", from.toString())
+               .write("to", to.toString())
+               .write("openingBalance", opening.toString())
+               .writeStartArray("days");
+
+            LocalDate[] next = {from};
+            BigDecimal[] closing = {opening};
+            dailyBalanceDao.findRange(accountId, Date.valueOf(from), Date.valueOf(to), d -> {
+                LocalDate day = d.getBalanceDate().toLocalDate();
+                for (; next[0].isBefore(day); next[0] = next[0].plusDays(1)) {
+                    writeDay(out, next[0], closing[0], BigDecimal.ZERO, BigDecimal.ZERO, 0);
+                }
+                closing[0] = d.getClosingBalance();
+                writeDay(out, day, closing[0], d.getCreditTotal(), d.getDebitTotal(), d.getTxnCount());
+                next[0] = day.plusDays(1);
+            });
+            for (; !next[0].isAfter(to); next[0] = next[0].plusDays(1)) {
+                writeDay(out, next[0], closing[0], BigDecimal.ZERO, BigDecimal.ZERO, 0);
+            }
+
+            out.writeEnd()
+               .write("closingBalance", closing[0].toString())
+               .writeEnd();
+        }
+    }
+
+    private static void writeDay(JsonGenerator out, LocalDate day, BigDecimal closing,
+                                 BigDecimal credits, BigDecimal debits, int txnCount) {
+        out.writeStartObject()
+           .write("date", day.toString())
+           .write("closingBalance", closing.toString())
+           .write("credits", credits.toString())
+           .write("debits", debits.toString())
+           .write("txnCount", txnCount)
+           .writeEnd();
+    }
+
+    /**
+     * GET /api/accounts/{id}/statement?month=yyyy-MM (defaults to the current month)
+     * Streams the statement as CSV; see {@link StatementService}.
+     */
+    private void statement(int accountId, HttpServletRequest req, HttpServletResponse resp)
             throws Exception {
 
-        int userId = jo.getInt("userId", 0);
+        YearMonth month;
+        try {
+            String m = req.getParameter("month");
+            month = m == null ? YearMonth.now() : YearMonth.parse(m);
+        } catch (RuntimeException e) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Invalid month\"}");
+            return;
+        }
+
+        if (accountDao.findById(accountId) == null) {
+            resp.setStatus(404);
+            resp.getWriter().write("{\"error\":\"Account not found\"}");
+            return;
+        }
+
+        resp.setContentType("text/csv");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Content-Disposition",
+                "attachment; filename=\"statement-" + accountId + "-" + month + ".csv\"");
+        Writer out = new BufferedWriter(
+                new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8), 16 * 1024);
+        try {
+            statementService.write(accountId, month, out);
+        } catch (Exception e) {
+            // nothing sent yet: drop the CSV headers so the error goes out as JSON
+            if (!resp.isCommitted()) {
+                resp.reset();
+                resp.setContentType("application/json");
+            }
+            throw e;
+        }
+    }
+
+    private void createAccount(JsonObject jo, HttpServletRequest req, HttpServletResponse resp)
+            throws Exception {
+
+        int authUserId = (Integer) req.getAttribute(AuthFilter.USER_ID_ATTRIBUTE);
+        int userId = jo.getInt("userId", authUserId);
+        if (userId != authUserId) {
+            AccountOwnershipFilter.forbidden(resp);
+            return;
+        }
         String accountType = jo.getString("accountType", "Savings");
         BigDecimal initialDeposit = BigDecimal.ZERO;
 
@@ -133,11 +409,12 @@ public class AccountServlet extends HttpServlet {
         a.setUserId(userId);
         a.setAccountType(accountType);
         a.setBalance(initialDeposit);
-        a.setAccountNumber(generateAccountNumber(userId));
+        a.setAccountNumber(AccountNumberGenerator.shared().next());
 
         int accountId = accountDao.create(a);
+        ownership.added(userId, accountId);
 
-        JsonObject out = Json.createObjectBuilder()
+        JsonObject out = JsonUtil.objectBuilder()
                 .add("accountId", accountId)
                 .add("accountNumber", a.getAccountNumber())
                 .add("balance", a.getBalance().toString())
@@ -147,8 +424,8 @@ public class AccountServlet extends HttpServlet {
         resp.getWriter().write(out.toString());
     }
 
-    private void deposit(int accountId, BigDecimal amount, HttpServletResponse resp)
-            throws Exception {
+    private void deposit(int accountId, BigDecimal amount, HttpServletRequest req,
+                         HttpServletResponse resp) throws Exception {
 
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
             resp.setStatus(400);
@@ -156,47 +433,10 @@ public class AccountServlet extends HttpServlet {
             return;
         }
 
-        try (Connection conn = DBConnectionManager.getConnection()) {
-            conn.setAutoCommit(false);
-
-            Account a = accountDao.findById(accountId);
-            if (a == null) {
-                resp.setStatus(404);
-                conn.rollback();
-                resp.getWriter().write("{\"error\":\"Account not found\"}");
-                return;
-            }
-
-            BigDecimal newBal = a.getBalance().add(amount);
-            accountDao.updateBalance(accountId, newBal, conn);
-
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "INSERT INTO transactions " +
-                    "(from_account_id,to_account_id,amount,txn_type,description," +
-                    " post_balance,status) VALUES (?,?,?,?,?,?,?)")) {
-
-                ps.setObject(1, null);
-                ps.setInt(2, accountId);
-                ps.setBigDecimal(3, amount);
-                ps.setString(4, "DEPOSIT");
-                ps.setString(5, "Deposit via web");
-                ps.setBigDecimal(6, newBal);
-                ps.setString(7, "SUCCESS");
-                ps.executeUpdate();
-            }
-
-            conn.commit();
-
-            JsonObject out = Json.createObjectBuilder()
-                    .add("accountId", accountId)
-                    .add("balance", newBal.toString())
-                    .build();
-
-            resp.getWriter().write(out.toString());
-        }
+        move(accountId, amount, true, req, resp);
     }
 
-    private void withdraw(int accountId, BigDecimal amount,
+    private void withdraw(int accountId, BigDecimal amount, HttpServletRequest req,
                           HttpServletResponse resp) throws Exception {
 
         if (amount.compareTo(BigDecimal.ZERO) <= 0) {
@@ -205,56 +445,146 @@ public class AccountServlet extends HttpServlet {
             return;
         }
 
-        try (Connection conn = DBConnectionManager.getConnection()) {
-            conn.setAutoCommit(false);
+        move(accountId, amount, false, req, resp);
+    }
 
-            Account a = accountDao.findById(accountId);
-            if (a == null) {
-                resp.setStatus(404);
-                conn.rollback();
-                resp.getWriter().write("{\"error\":\"Account not found\"}");
+    /**
+     * Posts a deposit or withdrawal through the ledger writer. With an {@code Idempotency-Key}
+     * header, a retry of a completed request gets the original response back instead of moving
+     * the money again: recent keys are answered from memory, older ones are caught by the key
+     * row written in the same transaction as the movement. A key reused for a different
+     * account, direction or amount is answered with 422.
+     */
+    private void move(int accountId, BigDecimal amount, boolean credit, HttpServletRequest req,
+                      HttpServletResponse resp) throws Exception {
+
+        String key = req.getHeader(IDEMPOTENCY_HEADER);
+        IdempotencyRecord idem = null;
+        if (key != null) {
+            if (key.isEmpty() || key.length() > IdempotencyService.MAX_KEY_LENGTH) {
+                resp.setStatus(400);
+                resp.getWriter().write("{\"error\":\"Invalid Idempotency-Key\"}");
                 return;
             }
-
-            if (a.getBalance().compareTo(amount) < 0) {
-                resp.setStatus(400);
-                conn.rollback();
-                resp.getWriter().write("{\"error\":\"Insufficient funds\"}");
+            int userId = (Integer) req.getAttribute(AuthFilter.USER_ID_ATTRIBUTE);
+            idem = IdempotencyService.newRecord(userId, key, accountId,
+                    credit ? "DEPOSIT" : "WITHDRAWAL", amount);
+            IdempotencyRecord prior = idempotency.recent(userId, key);
+            if (prior != null) {
+                replay(prior, idem, resp);
                 return;
             }
+        }
 
-            BigDecimal newBal = a.getBalance().subtract(amount);
-            accountDao.updateBalance(accountId, newBal, conn);
-
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "INSERT INTO transactions " +
-                    "(from_account_id,to_account_id,amount,txn_type,description," +
-                    " post_balance,status) VALUES (?,?,?,?,?,?,?)")) {
-
-                ps.setInt(1, accountId);
-                ps.setObject(2, null);
-                ps.setBigDecimal(3, amount);
-                ps.setString(4, "WITHDRAWAL");
-                ps.setString(5, "Withdrawal via web");
-                ps.setBigDecimal(6, newBal);
-                ps.setString(7, "SUCCESS");
-                ps.executeUpdate();
+        BigDecimal newBal;
+        try {
+            if (balanceEngine != null && balanceEngine.owns(accountId)) {
+                // answered from memory once the movement is in the engine's WAL
+                newBal = credit
+                        ? balanceEngine.deposit(accountId, amount, "Deposit via web", idem,
+                                b -> balanceJson(accountId, b))
+                        : balanceEngine.withdraw(accountId, amount, "Withdrawal via web", idem,
+                                b -> balanceJson(accountId, b));
+            } else {
+                newBal = credit
+                        ? ledgerWriter.deposit(accountId, amount, "Deposit via web", idem,
+                                b -> balanceJson(accountId, b))
+                        : ledgerWriter.withdraw(accountId, amount, "Withdrawal via web", idem,
+                                b -> balanceJson(accountId, b));
             }
+        } catch (InsufficientFundsException e) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Insufficient funds\"}");
+            return;
+        } catch (DuplicateRequestException e) {
+            IdempotencyRecord prior = idempotency.stored(e.getUserId(), e.getIdemKey());
+            if (prior == null) {
+                resp.setStatus(409);
+                resp.getWriter().write("{\"error\":\"Idempotency-Key already used\"}");
+                return;
+            }
+            replay(prior, idem, resp);
+            return;
+        } catch (RejectedExecutionException e) {
+            // the writer's queue is full; shed like the other saturated paths
+            resp.setStatus(503);
+            resp.setHeader("Retry-After", "1");
+            resp.getWriter().write("{\"error\":\"Server busy, please retry\"}");
+            return;
+        }
 
-            conn.commit();
+        if (newBal == null) {
+            resp.setStatus(404);
+            resp.getWriter().write("{\"error\":\"Account not found\"}");
+            return;
+        }
+
+        if (idem != null) idempotency.remember(idem);
+        resp.getWriter().write(balanceJson(accountId, newBal));
+    }
 
-            JsonObject out = Json.createObjectBuilder()
-                    .add("accountId", accountId)
-                    .add("balance", newBal.toString())
-                    .build();
+    private static String balanceJson(int accountId, BigDecimal balance) {
+        return JsonUtil.objectBuilder()
+                .add("accountId", accountId)
+                .add("balance", balance.toString())
+                .build()
+                .toString();
+    }
 
-            resp.getWriter().write(out.toString());
+    private static void replay(IdempotencyRecord prior, IdempotencyRecord request,
+                               HttpServletResponse resp) throws IOException {
+        if (!IdempotencyService.sameRequest(prior, request)) {
+            // the key was used for another request; replaying that answer would report a
+            // movement this request never made
+            resp.setStatus(422);
+            resp.getWriter().write("{\"error\":\"Idempotency-Key was already used for a different request\"}");
+            return;
         }
+        resp.setStatus(prior.getStatusCode());
+        resp.setHeader("Idempotent-Replayed", "true");
+        resp.getWriter().write(prior.getResponseBody());
     }
 
-    private String generateAccountNumber(int userId) {
-        long t = System.currentTimeMillis() % 1_000_000_000L;
-        return String.format("AC%04d%09d", userId, t);
+    private void transfer(int fromId, int toId, BigDecimal amount, String description,
+                          HttpServletResponse resp) throws Exception {
+
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Amount must be positive\"}");
+            return;
+        }
+
+        if (fromId == toId) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Cannot transfer to the same account\"}");
+            return;
+        }
+
+        TransferService.Result r;
+        try {
+            r = transferService.transfer(fromId, toId, amount, description);
+        } catch (InsufficientFundsException e) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Insufficient funds\"}");
+            return;
+        } catch (AccountNotFoundException e) {
+            resp.setStatus(404);
+            resp.getWriter().write("{\"error\":\"Account not found\"}");
+            return;
+        } catch (EngineOwnedAccountException e) {
+            resp.setStatus(409);
+            resp.getWriter().write("{\"error\":\"Account only supports deposits and withdrawals\"}");
+            return;
+        }
+
+        JsonObject out = JsonUtil.objectBuilder()
+                .add("accountId", fromId)
+                .add("toAccountId", toId)
+                .add("amount", amount.toString())
+                .add("balance", r.getFromBalance().toString())
+                .build();
+
+        resp.getWriter().write(out.toString());
     }
 }
 
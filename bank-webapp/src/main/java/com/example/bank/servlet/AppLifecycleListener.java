@@ -0,0 +1,49 @@
+package com.example.bank.servlet;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.service.BalanceEngine;
+import com.example.bank.service.FixedDepositMaturityEngine;
+import com.example.bank.service.IdempotencyService;
+import com.example.bank.service.LedgerWriter;
+import com.example.bank.service.PasswordHasher;
+import com.example.bank.service.SavingsInterestEngine;
+import com.example.bank.service.SipInstallmentScheduler;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+@WebListener
+public class AppLifecycleListener implements ServletContextListener {
+    private static final boolean FD_MATURITY_ENABLED =
+            Boolean.parseBoolean(System.getProperty("bank.fd.maturity.enabled", "true"));
+    private static final boolean SIP_ENABLED =
+            Boolean.parseBoolean(System.getProperty("bank.sip.enabled", "true"));
+    private static final boolean INTEREST_ENABLED =
+            Boolean.parseBoolean(System.getProperty("bank.interest.enabled", "true"));
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        // warm the pool so the first requests don't pay the connect handshake
+        DBConnectionManager.getPool();
+        // replays the engine's WAL into the database before any request can reach it
+        if (BalanceEngine.isEnabled()) BalanceEngine.getInstance();
+        if (FD_MATURITY_ENABLED) FixedDepositMaturityEngine.getInstance().start();
+        if (SIP_ENABLED) SipInstallmentScheduler.getInstance().start();
+        if (INTEREST_ENABLED) SavingsInterestEngine.getInstance().start();
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        // writers flush what's queued, so stop them before the pool goes away
+        FixedDepositMaturityEngine.shutdown();
+        SipInstallmentScheduler.shutdown();
+        SavingsInterestEngine.shutdown();
+        RequestExecutor.shutdown();
+        LedgerWriter.shutdown();
+        BalanceEngine.shutdown();
+        PasswordHasher.shutdown();
+        IdempotencyService.shutdown();
+        DBConnectionManager.shutdown();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.bank.servlet;
+
+import com.example.bank.util.TokenUtil;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.IOException;
+
+/**
+ * Rejects unauthenticated calls to the account APIs and exposes the caller's id to servlets as
+ * the {@value #USER_ID_ATTRIBUTE} request attribute.
+ *
+ * <p>In the default {@code token} session mode ({@code bank.session.mode}) the caller is taken
+ * from a signed {@link TokenUtil} token, sent either as {@code Authorization: Bearer} or in the
+ * HttpOnly {@value #COOKIE} cookie set at login; checking it is one HMAC, with no session state
+ * on any node. {@code container} mode keeps the old HttpSession behaviour.
+ *
+ * <p>Mapped in web.xml, which also fixes its place ahead of {@link AccountOwnershipFilter}.
+ */
+@WebFilter(filterName = "AuthFilter", asyncSupported = true)
+public class AuthFilter extends HttpFilter {
+    public static final String USER_ID_ATTRIBUTE = "userId";
+    static final String COOKIE = "BANK_TOKEN";
+    static final boolean TOKEN_MODE =
+            !"container".equalsIgnoreCase(System.getProperty("bank.session.mode", "token"));
+
+    @Override
+    protected void doFilter(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+            throws IOException, ServletException {
+
+        int userId = authenticate(req);
+        if (userId < 0) {
+            resp.setStatus(401);
+            resp.setContentType("application/json");
+            resp.getWriter().write("{\"error\":\"Not authenticated\"}");
+            return;
+        }
+
+        req.setAttribute(USER_ID_ATTRIBUTE, userId);
+        chain.doFilter(req, resp);
+    }
+
+    private static int authenticate(HttpServletRequest req) {
+        if (!TOKEN_MODE) {
+            HttpSession session = req.getSession(false);
+            Object id = session == null ? null : session.getAttribute(USER_ID_ATTRIBUTE);
+            return id instanceof Integer ? (Integer) id : -1;
+        }
+
+        String header = req.getHeader("Authorization");
+        if (header != null && header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return TokenUtil.verify(header.substring(7).trim());
+        }
+        Cookie[] cookies = req.getCookies();
+        if (cookies != null) {
+            for (Cookie c : cookies) {
+                if (COOKIE.equals(c.getName())) return TokenUtil.verify(c.getValue());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Signs {@code userId} in: sets the token cookie (token mode) or the session attribute
+     * (container mode). Returns the token, or {@code null} in container mode.
+     */
+    static String startSession(HttpServletRequest req, HttpServletResponse resp, int userId) {
+        if (!TOKEN_MODE) {
+            req.getSession(true).setAttribute(USER_ID_ATTRIBUTE, userId);
+            return null;
+        }
+        String token = TokenUtil.issue(userId);
+        setCookie(req, resp, token, TokenUtil.TTL_SECONDS);
+        return token;
+    }
+
+    static void endSession(HttpServletRequest req, HttpServletResponse resp) {
+        if (!TOKEN_MODE) {
+            HttpSession session = req.getSession(false);
+            if (session != null) session.invalidate();
+            return;
+        }
+        setCookie(req, resp, "", 0);
+    }
+
+    private static void setCookie(HttpServletRequest req, HttpServletResponse resp, String value, long maxAge) {
+        // Servlet 5 Cookie can't carry SameSite, so the header is written by hand
+        resp.addHeader("Set-Cookie", COOKIE + "=" + value
+                + "; Path=" + req.getContextPath() + "/"
+                + "; Max-Age=" + maxAge
+                + "; HttpOnly; SameSite=Strict"
+                + (req.isSecure() ? "; Secure" : ""));
+    }
+}
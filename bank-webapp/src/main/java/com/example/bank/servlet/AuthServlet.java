@@ -1,56 +1,87 @@
 package com.example.bank.servlet;
 
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.DuplicateKeyException;
 import com.example.bank.dao.UserDao;
-import com.example.bank.dao.impl.JdbcUserDao;
 import com.example.bank.model.User;
+import com.example.bank.service.PasswordHasher;
+import com.example.bank.util.JsonUtil;
 import com.example.bank.util.PasswordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import jakarta.json.Json;
+import jakarta.json.JsonException;
 import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
 import jakarta.json.JsonReader;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.io.StringReader;
-
-@WebServlet("/api/auth/*")
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@WebServlet(urlPatterns = "/api/auth/*", asyncSupported = true)
 public class AuthServlet extends HttpServlet {
-    private final UserDao userDao = new JdbcUserDao();
+    private static final Logger log = LoggerFactory.getLogger(AuthServlet.class);
+    private static final long ASYNC_TIMEOUT_MS = Long.getLong("bank.hash.requestTimeoutMs", 30_000L);
+
+    private final UserDao userDao = DaoFactory.userDao();
+    private final PasswordHasher hasher = PasswordHasher.getInstance();
+    private final RequestExecutor executor = RequestExecutor.getInstance();
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
+        executor.execute(req, resp, r -> handlePost(req, r));
+    }
 
-        String path = req.getPathInfo(); // /signup or /login
+    private void handlePost(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+
+        String path = req.getPathInfo(); // /signup, /login or /logout
         resp.setContentType("application/json");
 
+        if ("/logout".equals(path)) {
+            AuthFilter.endSession(req, resp);
+            resp.getWriter().write("{\"status\":\"logged out\"}");
+            return;
+        }
+
         try {
-            String body = req.getReader().lines().reduce("", (a,b)->a+b);
-            JsonReader jr = Json.createReader(new StringReader(body));
+            JsonReader jr = JsonUtil.reader(req.getReader());
             JsonObject jo = jr.readObject();
 
             if ("/signup".equals(path)) {
-                handleSignup(jo, resp);
+                handleSignup(jo, req, resp);
             } else if ("/login".equals(path)) {
                 handleLogin(jo, req, resp);
             } else {
                 resp.setStatus(404);
                 resp.getWriter().write("{\"error\":\"Unknown auth endpoint\"}");
             }
+        } catch (JsonException | ClassCastException e) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Malformed JSON\"}");
         } catch (Exception e) {
-            resp.setStatus(500);
-            resp.getWriter()
-                .write("{\"error\":\"" + e.getMessage().replace("\"", "'") + "\"}");
+            internalError(resp, e);
         }
     }
 
-    private void handleSignup(JsonObject jo, HttpServletResponse resp) throws Exception {
+    private void handleSignup(JsonObject jo,
+                              HttpServletRequest req,
+                              HttpServletResponse resp) throws Exception {
         String firstName  = jo.getString("firstName", "");
         String lastName   = jo.getString("lastName", "");
         String fatherName = jo.getString("fatherName", "");
@@ -69,15 +100,14 @@ public class AuthServlet extends HttpServlet {
             return;
         }
 
+        // spares the PBKDF2 work for the common case; the unique index on email still
+        // catches two signups racing for the same address
         if (userDao.findByEmail(email) != null) {
             resp.setStatus(409);
             resp.getWriter().write("{\"error\":\"User already exists\"}");
             return;
         }
 
-        byte[] salt = PasswordUtil.generateSalt();
-        String hash = PasswordUtil.hashPassword(password.toCharArray(), salt);
-
         User u = new User();
         u.setFirstName(firstName);
         u.setLastName(lastName);
@@ -89,18 +119,31 @@ public class AuthServlet extends HttpServlet {
         u.setAadhaar(aadhaar);
         u.setPan(pan);
         u.setEmail(email);
-        u.setPasswordHash(hash);
-
-        int id = userDao.create(u);
 
-        resp.setStatus(201);
-        JsonObject res = Json.createObjectBuilder()
-                .add("userId", id)
-                .add("email", email)
-                .build();
-        try (PrintWriter w = resp.getWriter()) {
-            w.write(res.toString());
-        }
+        byte[] salt = PasswordUtil.generateSalt();
+        offload(req, resp, () -> hasher.hash(password.toCharArray(), salt), hash -> {
+            u.setPasswordHash(hash);
+
+            int id;
+            try {
+                id = userDao.create(u);
+            } catch (DuplicateKeyException e) {
+                resp.setStatus(409);
+                resp.getWriter().write("{\"error\":\"User already exists\"}");
+                return;
+            }
+            // signed in straight away: the signup page creates the first account next
+            String token = AuthFilter.startSession(req, resp, id);
+
+            resp.setStatus(201);
+            JsonObjectBuilder res = JsonUtil.objectBuilder()
+                    .add("userId", id)
+                    .add("email", email);
+            if (token != null) res.add("token", token);
+            try (PrintWriter w = resp.getWriter()) {
+                w.write(res.build().toString());
+            }
+        });
     }
 
     private void handleLogin(JsonObject jo,
@@ -123,22 +166,169 @@ public class AuthServlet extends HttpServlet {
             return;
         }
 
-        boolean ok = PasswordUtil.verifyPassword(password.toCharArray(), u.getPasswordHash());
-        if (!ok) {
-            resp.setStatus(401);
-            resp.getWriter().write("{\"error\":\"Invalid credentials\"}");
+        offload(req, resp, () -> hasher.verify(password.toCharArray(), u.getPasswordHash()), ok -> {
+            if (!ok) {
+                resp.setStatus(401);
+                resp.getWriter().write("{\"error\":\"Invalid credentials\"}");
+                return;
+            }
+
+            String token = AuthFilter.startSession(req, resp, u.getUserId());
+
+            JsonObjectBuilder res = JsonUtil.objectBuilder()
+                    .add("userId", u.getUserId())
+                    .add("email", u.getEmail())
+                    .add("firstName", u.getFirstName());
+            if (token != null) res.add("token", token);
+            resp.getWriter().write(res.build().toString());
+        });
+    }
+
+    /** The PBKDF2 part of a request; has no visible effect, so it can be abandoned. */
+    private interface HashTask<T> {
+        T run() throws Exception;
+    }
+
+    /** The rest of the request: creates users or sessions and writes the response. */
+    private interface Reply<T> {
+        void write(T hashed) throws Exception;
+    }
+
+    /**
+     * Runs the PBKDF2 part of a request on the {@link PasswordHasher} pool and releases the
+     * container thread meanwhile. Answers 503 straight away when the hashing queue is full.
+     * The reply is handed back to a container thread with {@link AsyncContext#start}, since it
+     * may block on the database and the hashing pool only has a thread per core.
+     *
+     * <p>Whoever sets {@code done} first owns the response: the timeout listener, or the reply
+     * once hashing is over. The reply runs only if it wins, so a request that has already timed
+     * out never creates a user or session, nor writes after its 503.
+     */
+    private <T> void offload(HttpServletRequest req, HttpServletResponse resp, HashTask<T> task,
+                             Reply<T> reply) throws IOException {
+
+        if (req.isAsyncStarted()) {
+            awaitHash(resp, task, reply);
+            return;
+        }
+
+        AsyncContext ac = req.startAsync();
+        ac.setTimeout(ASYNC_TIMEOUT_MS);
+        AtomicBoolean done = new AtomicBoolean();
+
+        ac.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (done.compareAndSet(false, true)) {
+                    resp.setStatus(503);
+                    resp.getWriter().write("{\"error\":\"Request timed out\"}");
+                    ac.complete();
+                }
+            }
+
+            @Override public void onComplete(AsyncEvent event) { }
+            @Override public void onError(AsyncEvent event) { }
+            @Override public void onStartAsync(AsyncEvent event) { }
+        });
+
+        try {
+            hasher.execute(() -> {
+                if (done.get()) return; // timed out while queued
+                T hashed;
+                try {
+                    hashed = task.run();
+                } catch (Exception e) {
+                    if (done.compareAndSet(false, true)) {
+                        internalError(resp, e);
+                        ac.complete();
+                    }
+                    return;
+                }
+                if (done.get()) return;
+                try {
+                    ac.start(() -> {
+                        if (!done.compareAndSet(false, true)) return;
+                        try {
+                            reply.write(hashed);
+                        } catch (Exception e) {
+                            internalError(resp, e);
+                        } finally {
+                            ac.complete();
+                        }
+                    });
+                } catch (IllegalStateException e) {
+                    // timed out and completed since the check above
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            done.set(true);
+            resp.setStatus(503);
+            resp.setHeader("Retry-After", "1");
+            resp.getWriter().write("{\"error\":\"Server busy, please retry\"}");
+            ac.complete();
+        }
+    }
+
+    /**
+     * {@link #offload} for a request the {@link RequestExecutor} already runs on a virtual
+     * thread: the hashing still goes to the bounded pool, and this thread, cheap to park,
+     * waits for it and then replies itself. On timeout the hash is cancelled, and skipped if
+     * it hasn't started.
+     */
+    private <T> void awaitHash(HttpServletResponse resp, HashTask<T> task, Reply<T> reply)
+            throws IOException {
+        CompletableFuture<T> hashed = new CompletableFuture<>();
+        try {
+            hasher.execute(() -> {
+                if (hashed.isDone()) return;
+                try {
+                    hashed.complete(task.run());
+                } catch (Exception e) {
+                    hashed.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            resp.setStatus(503);
+            resp.setHeader("Retry-After", "1");
+            resp.getWriter().write("{\"error\":\"Server busy, please retry\"}");
             return;
         }
 
-        HttpSession session = req.getSession(true);
-        session.setAttribute("userId", u.getUserId());
+        T result;
+        try {
+            result = hashed.get(ASYNC_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            internalError(resp, e.getCause());
+            return;
+        } catch (TimeoutException e) {
+            hashed.cancel(false);
+            resp.setStatus(503);
+            resp.getWriter().write("{\"error\":\"Request timed out\"}");
+            return;
+        } catch (InterruptedException e) {
+            hashed.cancel(false);
+            Thread.currentThread().interrupt();
+            return;
+        }
 
-        JsonObject res = Json.createObjectBuilder()
-                .add("userId", u.getUserId())
-                .add("email", u.getEmail())
-                .add("firstName", u.getFirstName())
-                .build();
-        resp.getWriter().write(res.toString());
+        try {
+            reply.write(result);
+        } catch (Exception e) {
+            internalError(resp, e);
+        }
+    }
+
+    /** Logs {@code e} and answers 500 without its message, if nothing was sent yet. */
+    private static void internalError(HttpServletResponse resp, Throwable e) {
+        log.error("Auth request failed", e);
+        if (resp.isCommitted()) return;
+        try {
+            resp.resetBuffer();
+            resp.setStatus(500);
+            resp.getWriter().write("{\"error\":\"Internal error\"}");
+        } catch (IOException | IllegalStateException ignored) {
+            // client went away
+        }
     }
 }
 
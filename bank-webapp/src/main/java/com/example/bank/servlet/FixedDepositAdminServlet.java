@@ -0,0 +1,64 @@
+package com.example.bank.servlet;
+
+import com.example.bank.service.FixedDepositMaturityEngine;
+import com.example.bank.util.JsonUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * POST /api/admin/fds/maturity-run?date=yyyy-MM-dd: starts the maturity engine now instead of
+ * waiting for the daily schedule, and answers 202 without waiting for it; the outcome is logged.
+ * Safe to repeat. Open only to callers presenting the admin token, like {@link OnboardingServlet},
+ * and only for dates up to today, so deposits can't be paid out early.
+ */
+@WebServlet("/api/admin/fds/maturity-run")
+public class FixedDepositAdminServlet extends HttpServlet {
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+
+        resp.setContentType("application/json");
+
+        if (!OnboardingServlet.isAdmin(req)) {
+            AccountOwnershipFilter.forbidden(resp);
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate date;
+        try {
+            String d = req.getParameter("date");
+            date = d == null ? today : LocalDate.parse(d);
+        } catch (RuntimeException e) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Invalid date\"}");
+            return;
+        }
+        if (date.isAfter(today)) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"date cannot be in the future\"}");
+            return;
+        }
+
+        if (!FixedDepositMaturityEngine.getInstance().runInBackground(date)) {
+            resp.setStatus(409);
+            resp.getWriter().write("{\"error\":\"A maturity run is already in progress\"}");
+            return;
+        }
+
+        resp.setStatus(202);
+        resp.getWriter().write(JsonUtil.objectBuilder()
+                .add("asOf", date.toString())
+                .add("status", "started")
+                .build()
+                .toString());
+    }
+}
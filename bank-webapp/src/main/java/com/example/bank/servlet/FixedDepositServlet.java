@@ -0,0 +1,179 @@
+package com.example.bank.servlet;
+
+import com.example.bank.dao.AccountNotFoundException;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.EngineOwnedAccountException;
+import com.example.bank.dao.FixedDepositDao;
+import com.example.bank.dao.InsufficientFundsException;
+import com.example.bank.model.FixedDeposit;
+import com.example.bank.service.AccountOwnershipIndex;
+import com.example.bank.service.FixedDepositService;
+import com.example.bank.util.JsonUtil;
+
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+@WebServlet("/api/fds/*")
+public class FixedDepositServlet extends HttpServlet {
+    private final FixedDepositDao fixedDepositDao = DaoFactory.fixedDepositDao();
+    private final FixedDepositService fixedDepositService = new FixedDepositService(
+            DaoFactory.accountDao(), DaoFactory.transactionDao(), fixedDepositDao);
+    private final AccountOwnershipIndex ownership = AccountOwnershipIndex.getInstance();
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+
+        String path = req.getPathInfo(); // /open
+        resp.setContentType("application/json");
+
+        try {
+            if (path != null && path.equals("/open")) {
+                JsonReader jr = JsonUtil.reader(req.getReader());
+                open(jr.readObject(), req, resp);
+                return;
+            }
+
+            resp.setStatus(404);
+            resp.getWriter().write("{\"error\":\"Unknown fixed deposit endpoint\"}");
+        } catch (Exception e) {
+            resp.setStatus(500);
+            resp.getWriter()
+                .write("{\"error\":\"" + String.valueOf(e.getMessage()).replace("\"", "'") + "\"}");
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+
+        // GET /api/fds/{id} or /api/fds?accountId=
+        String path = req.getPathInfo();
+        resp.setContentType("application/json");
+
+        try {
+            if (path != null && path.matches("/\\d+")) {
+                FixedDeposit fd = fixedDepositDao.findById(Integer.parseInt(path.substring(1)));
+                if (fd == null) {
+                    resp.setStatus(404);
+                    resp.getWriter().write("{\"error\":\"Fixed deposit not found\"}");
+                    return;
+                }
+                if (!owns(req, fd.getAccountId())) {
+                    AccountOwnershipFilter.forbidden(resp);
+                    return;
+                }
+                try (JsonGenerator out = JsonUtil.generator(resp.getWriter())) {
+                    write(out, fd);
+                }
+                return;
+            }
+
+            String accountId = req.getParameter("accountId");
+            if ((path == null || path.equals("/")) && accountId != null && accountId.matches("\\d+")) {
+                if (!owns(req, Integer.parseInt(accountId))) {
+                    AccountOwnershipFilter.forbidden(resp);
+                    return;
+                }
+                List<FixedDeposit> fds = fixedDepositDao.findByAccountId(Integer.parseInt(accountId));
+                try (JsonGenerator out = JsonUtil.generator(resp.getWriter())) {
+                    out.writeStartObject()
+                       .write("accountId", Integer.parseInt(accountId))
+                       .writeStartArray("fixedDeposits");
+                    for (FixedDeposit fd : fds) write(out, fd);
+                    out.writeEnd().writeEnd();
+                }
+                return;
+            }
+
+            resp.setStatus(404);
+            resp.getWriter().write("{\"error\":\"Unknown endpoint\"}");
+        } catch (Exception e) {
+            resp.setStatus(500);
+            resp.getWriter()
+                .write("{\"error\":\"" + String.valueOf(e.getMessage()).replace("\"", "'") + "\"}");
+        }
+    }
+
+    private void open(JsonObject jo, HttpServletRequest req, HttpServletResponse resp) throws Exception {
+        int accountId = jo.getInt("accountId", 0);
+        if (!owns(req, accountId)) {
+            AccountOwnershipFilter.forbidden(resp);
+            return;
+        }
+        int tenureMonths = jo.getInt("tenureMonths", 0);
+        if (!jo.containsKey("principal") || tenureMonths <= 0) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"principal and tenureMonths are required\"}");
+            return;
+        }
+        if (jo.containsKey("interestRate")) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"interestRate is set by the bank and cannot be supplied\"}");
+            return;
+        }
+        BigDecimal principal = new BigDecimal(jo.getJsonNumber("principal").toString());
+        if (principal.compareTo(BigDecimal.ZERO) <= 0) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Principal must be positive\"}");
+            return;
+        }
+        BigDecimal rate = FixedDepositService.rateFor(tenureMonths);
+        if (rate == null) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"No fixed deposit is offered for that tenure\"}");
+            return;
+        }
+
+        FixedDeposit fd;
+        try {
+            fd = fixedDepositService.open(accountId, principal, rate, tenureMonths);
+        } catch (InsufficientFundsException e) {
+            resp.setStatus(400);
+            resp.getWriter().write("{\"error\":\"Insufficient funds\"}");
+            return;
+        } catch (AccountNotFoundException e) {
+            resp.setStatus(404);
+            resp.getWriter().write("{\"error\":\"Account not found\"}");
+            return;
+        } catch (EngineOwnedAccountException e) {
+            resp.setStatus(409);
+            resp.getWriter().write("{\"error\":\"Account only supports deposits and withdrawals\"}");
+            return;
+        }
+
+        resp.setStatus(201);
+        try (JsonGenerator out = JsonUtil.generator(resp.getWriter())) {
+            write(out, fd);
+        }
+    }
+
+    private boolean owns(HttpServletRequest req, int accountId) throws Exception {
+        int userId = (Integer) req.getAttribute(AuthFilter.USER_ID_ATTRIBUTE);
+        return ownership.owns(userId, accountId);
+    }
+
+    private static void write(JsonGenerator out, FixedDeposit fd) {
+        out.writeStartObject()
+           .write("fdId", fd.getFdId())
+           .write("accountId", fd.getAccountId())
+           .write("principal", fd.getPrincipal().toString())
+           .write("interestRate", fd.getInterestRate().toString())
+           .write("tenureMonths", fd.getTenureMonths());
+        if (fd.getStartDate() != null) out.write("startDate", fd.getStartDate().toString());
+        if (fd.getMaturityDate() != null) out.write("maturityDate", fd.getMaturityDate().toString());
+        if (fd.getMaturityAmount() != null) out.write("maturityAmount", fd.getMaturityAmount().toString());
+        if (fd.getStatus() != null) out.write("status", fd.getStatus());
+        out.writeEnd();
+    }
+}
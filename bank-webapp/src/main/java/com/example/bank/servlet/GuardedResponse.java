@@ -0,0 +1,170 @@
+package com.example.bank.servlet;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The response as a handler on another thread sees it, for {@link RequestExecutor}. Once
+ * {@link #close} has been called, by the async timeout or when the handler returns, everything
+ * the handler does to the response is silently dropped, so a handler that outlives its request
+ * can't write over the 503 or touch a response the container has recycled. Each change is made
+ * under a lock that {@link #close} also takes, so none is half-done when the response closes;
+ * a {@link ReentrantLock} rather than a monitor, as the handler may be on a virtual thread.
+ */
+final class GuardedResponse extends HttpServletResponseWrapper {
+    private final HttpServletResponse resp;
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean closed;
+    private PrintWriter writer;
+    private ServletOutputStream out;
+
+    GuardedResponse(HttpServletResponse resp) {
+        super(resp);
+        this.resp = resp;
+    }
+
+    /**
+     * Stops forwarding to the real response; true for the first caller only, who then owns it.
+     * Waits for a change in progress to finish.
+     */
+    boolean close() {
+        lock.lock();
+        try {
+            if (closed) return false;
+            closed = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private interface Change {
+        void apply() throws IOException;
+    }
+
+    private void guard(Change change) throws IOException {
+        lock.lock();
+        try {
+            if (!closed) change.apply();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void guardUnchecked(Change change) {
+        try {
+            guard(change);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override public void setStatus(int sc) { guardUnchecked(() -> resp.setStatus(sc)); }
+    @Override public void setHeader(String name, String value) { guardUnchecked(() -> resp.setHeader(name, value)); }
+    @Override public void addHeader(String name, String value) { guardUnchecked(() -> resp.addHeader(name, value)); }
+    @Override public void setIntHeader(String name, int value) { guardUnchecked(() -> resp.setIntHeader(name, value)); }
+    @Override public void addIntHeader(String name, int value) { guardUnchecked(() -> resp.addIntHeader(name, value)); }
+    @Override public void setDateHeader(String name, long date) { guardUnchecked(() -> resp.setDateHeader(name, date)); }
+    @Override public void addDateHeader(String name, long date) { guardUnchecked(() -> resp.addDateHeader(name, date)); }
+    @Override public void addCookie(Cookie cookie) { guardUnchecked(() -> resp.addCookie(cookie)); }
+    @Override public void setContentType(String type) { guardUnchecked(() -> resp.setContentType(type)); }
+    @Override public void setCharacterEncoding(String charset) { guardUnchecked(() -> resp.setCharacterEncoding(charset)); }
+    @Override public void setContentLength(int len) { guardUnchecked(() -> resp.setContentLength(len)); }
+    @Override public void setContentLengthLong(long len) { guardUnchecked(() -> resp.setContentLengthLong(len)); }
+    @Override public void setBufferSize(int size) { guardUnchecked(() -> resp.setBufferSize(size)); }
+    @Override public void reset() { guardUnchecked(resp::reset); }
+    @Override public void resetBuffer() { guardUnchecked(resp::resetBuffer); }
+    @Override public void flushBuffer() throws IOException { guard(resp::flushBuffer); }
+    @Override public void sendError(int sc) throws IOException { guard(() -> resp.sendError(sc)); }
+    @Override public void sendError(int sc, String msg) throws IOException { guard(() -> resp.sendError(sc, msg)); }
+    @Override public void sendRedirect(String location) throws IOException { guard(() -> resp.sendRedirect(location)); }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        lock.lock();
+        try {
+            if (writer == null) {
+                // fetched lazily, so a closed response never has its writer opened
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] buf, int off, int len) throws IOException {
+                        guard(() -> resp.getWriter().write(buf, off, len));
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        guard(() -> resp.getWriter().flush());
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        guard(() -> resp.getWriter().close());
+                    }
+                });
+            }
+            return writer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        lock.lock();
+        try {
+            if (out == null) {
+                out = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        guard(() -> resp.getOutputStream().write(b));
+                    }
+
+                    @Override
+                    public void write(byte[] buf, int off, int len) throws IOException {
+                        guard(() -> resp.getOutputStream().write(buf, off, len));
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        guard(() -> resp.getOutputStream().flush());
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        guard(() -> resp.getOutputStream().close());
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true; // writes block
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        throw new UnsupportedOperationException("non-blocking writes are not supported here");
+                    }
+                };
+            }
+            return out;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
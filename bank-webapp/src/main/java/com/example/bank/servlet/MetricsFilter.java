@@ -0,0 +1,119 @@
+package com.example.bank.servlet;
+
+import com.example.bank.util.MetricsRegistry;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Records count, status class and latency of every API request against its route template,
+ * e.g. {@code /api/accounts/42/deposit} as {@code /api/accounts/{id}/deposit}: any path
+ * segment containing a digit is taken to be an id or account number. The template is built in
+ * a per-thread buffer, so a request to a known route records without allocating.
+ *
+ * <p>Async requests (signup and login) are recorded when they complete.
+ * Mapped in web.xml, ahead of the other filters, so rejected requests are counted too.
+ */
+@WebFilter(filterName = "MetricsFilter", asyncSupported = true)
+public class MetricsFilter extends HttpFilter {
+    private static final ThreadLocal<StringBuilder> KEY = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    @Override
+    protected void doFilter(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+            throws IOException, ServletException {
+
+        long start = System.nanoTime();
+        MetricsRegistry.Endpoint endpoint = MetricsRegistry.endpoint(routeKey(req));
+        boolean ok = false;
+        try {
+            chain.doFilter(req, resp);
+            ok = true;
+        } finally {
+            if (!ok) {
+                endpoint.record(start, 500);
+            } else if (req.isAsyncStarted()) {
+                req.getAsyncContext().addListener(new Completion(endpoint, start));
+            } else {
+                endpoint.record(start, resp.getStatus());
+            }
+        }
+    }
+
+    static StringBuilder routeKey(HttpServletRequest req) {
+        StringBuilder sb = KEY.get();
+        sb.setLength(0);
+        sb.append(req.getMethod()).append(' ');
+        appendTemplate(sb, req.getServletPath());
+        String pathInfo = req.getPathInfo();
+        if (pathInfo != null) appendTemplate(sb, pathInfo);
+        return sb;
+    }
+
+    private static void appendTemplate(StringBuilder sb, String path) {
+        int i = 0;
+        int n = path.length();
+        while (i < n) {
+            if (path.charAt(i) == '/') {
+                sb.append('/');
+                i++;
+                continue;
+            }
+            int end = path.indexOf('/', i);
+            if (end < 0) end = n;
+            boolean id = false;
+            for (int j = i; j < end && !id; j++) {
+                id = Character.isDigit(path.charAt(j));
+            }
+            if (id) sb.append("{id}");
+            else sb.append(path, i, end);
+            i = end;
+        }
+    }
+
+    private static final class Completion implements AsyncListener {
+        private final MetricsRegistry.Endpoint endpoint;
+        private final long start;
+        private boolean recorded;
+
+        Completion(MetricsRegistry.Endpoint endpoint, long start) {
+            this.endpoint = endpoint;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse resp = (HttpServletResponse) event.getSuppliedResponse();
+            record(resp == null ? 200 : resp.getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            record(503);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            record(500);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        // a timed-out or failed request is completed afterwards too; count it once
+        private synchronized void record(int status) {
+            if (recorded) return;
+            recorded = true;
+            endpoint.record(start, status);
+        }
+    }
+}
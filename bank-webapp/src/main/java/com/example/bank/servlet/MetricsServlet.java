@@ -0,0 +1,24 @@
+package com.example.bank.servlet;
+
+import com.example.bank.util.MetricsRegistry;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/** GET /api/metrics: per-endpoint and per-DAO-method metrics in the Prometheus text format. */
+@WebServlet("/api/metrics")
+public class MetricsServlet extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+
+        resp.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        MetricsRegistry.writePrometheus(resp.getWriter());
+    }
+}
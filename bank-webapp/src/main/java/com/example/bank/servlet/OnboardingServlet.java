@@ -0,0 +1,53 @@
+package com.example.bank.servlet;
+
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.service.UserOnboardingService;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * POST /api/admin/users/bulk: bulk onboarding, see {@link UserOnboardingService} for the
+ * format. Creates users without a login, so it is only open to callers presenting the
+ * {@code bank.admin.token} in {@code X-Admin-Token}, and disabled when no token is configured.
+ */
+@WebServlet("/api/admin/users/bulk")
+public class OnboardingServlet extends HttpServlet {
+    private static final String ADMIN_TOKEN = System.getProperty("bank.admin.token", System.getenv("BANK_ADMIN_TOKEN"));
+
+    private final UserOnboardingService onboardingService =
+            new UserOnboardingService(DaoFactory.userDao(), DaoFactory.accountDao());
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+
+        resp.setContentType("application/json");
+
+        if (!isAdmin(req)) {
+            AccountOwnershipFilter.forbidden(resp);
+            return;
+        }
+
+        try {
+            onboardingService.run(req.getInputStream(), resp.getOutputStream());
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+    }
+
+    /** True if the request presents the configured admin token; always false when none is set. */
+    static boolean isAdmin(HttpServletRequest req) {
+        String presented = req.getHeader("X-Admin-Token");
+        return ADMIN_TOKEN != null && !ADMIN_TOKEN.isEmpty() && presented != null
+                && MessageDigest.isEqual(ADMIN_TOKEN.getBytes(StandardCharsets.UTF_8),
+                        presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
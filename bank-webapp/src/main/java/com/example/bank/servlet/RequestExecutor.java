@@ -0,0 +1,190 @@
+package com.example.bank.servlet;
+
+import com.example.bank.DBConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the blocking part of a request according to {@code bank.execution.mode}:
+ * <ul>
+ *   <li>{@code platform} (default): inline on the container thread, as before;</li>
+ *   <li>{@code virtual}: the request goes async and its handler runs on a fresh virtual
+ *       thread, so blocking JDBC no longer holds a container thread.</li>
+ * </ul>
+ * Virtual threads come from {@code Executors.newVirtualThreadPerTaskExecutor()}, looked up
+ * reflectively so the code still builds for Java 17; on an older JVM the mode falls back to
+ * {@code platform} with a warning. Build with {@code -Pjava21} to target 21.
+ *
+ * <p>Unbounded virtual threads would all pile into the connection pool and time out there
+ * with 500s, and Connector/J's synchronized sections pin their carrier threads while they
+ * wait. So at most {@code bank.execution.maxConcurrent} handlers (default: twice the pool
+ * size) run at once; a request that can't get a permit within
+ * {@code bank.execution.queueTimeoutMs} is shed with a 503, like a full hashing queue.
+ */
+public class RequestExecutor {
+    private static final Logger log = LoggerFactory.getLogger(RequestExecutor.class);
+
+    private static final String MODE = System.getProperty("bank.execution.mode", "platform");
+    private static final long QUEUE_TIMEOUT_MS = Long.getLong("bank.execution.queueTimeoutMs", 1_000L);
+    private static final long ASYNC_TIMEOUT_MS = Long.getLong("bank.execution.requestTimeoutMs", 30_000L);
+
+    private static volatile RequestExecutor instance;
+
+    private final ExecutorService virtualThreads;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final LongAdder shed = new LongAdder();
+
+    /** A servlet handler body, writing to {@code resp}. */
+    interface Handler {
+        void handle(HttpServletResponse resp) throws ServletException, IOException;
+    }
+
+    RequestExecutor(ExecutorService virtualThreads, int maxConcurrent) {
+        this.virtualThreads = virtualThreads;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public static RequestExecutor getInstance() {
+        RequestExecutor r = instance;
+        if (r == null) {
+            synchronized (RequestExecutor.class) {
+                r = instance;
+                if (r == null) {
+                    ExecutorService vts = "virtual".equalsIgnoreCase(MODE) ? newVirtualThreadExecutor() : null;
+                    int max = Integer.getInteger("bank.execution.maxConcurrent",
+                            DBConnectionManager.getPool().getMaxSize() * 2);
+                    r = new RequestExecutor(vts, max);
+                    instance = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            if (instance.virtualThreads != null) instance.virtualThreads.shutdown();
+            instance = null;
+        }
+    }
+
+    public boolean isVirtual() { return virtualThreads != null; }
+
+    /**
+     * Runs {@code handler} for the request. The handler writes its own response, including
+     * its error responses, exactly as it would on the container thread. On a virtual thread it
+     * gets a {@link GuardedResponse}: once the request has timed out, the handler is skipped if
+     * it hasn't started, and anything it still writes is dropped.
+     */
+    void execute(HttpServletRequest req, HttpServletResponse resp, Handler handler)
+            throws ServletException, IOException {
+
+        if (virtualThreads == null) {
+            handler.handle(resp);
+            return;
+        }
+
+        AsyncContext ac = req.startAsync();
+        ac.setTimeout(ASYNC_TIMEOUT_MS);
+        GuardedResponse guarded = new GuardedResponse(resp);
+        ac.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (guarded.close()) {
+                    resp.setStatus(503);
+                    resp.getWriter().write("{\"error\":\"Request timed out\"}");
+                    ac.complete();
+                }
+            }
+
+            @Override public void onComplete(AsyncEvent event) { }
+            @Override public void onError(AsyncEvent event) { }
+            @Override public void onStartAsync(AsyncEvent event) { }
+        });
+
+        try {
+            virtualThreads.execute(() -> {
+                try {
+                    run(guarded, handler);
+                } finally {
+                    if (guarded.close()) ac.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            guarded.close();
+            busy(resp);
+            ac.complete();
+        }
+    }
+
+    private void run(GuardedResponse resp, Handler handler) {
+        try {
+            if (!permits.tryAcquire(QUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                busy(resp);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            if (resp.isClosed()) return; // timed out while waiting for a permit
+            handler.handle(resp);
+        } catch (Exception e) {
+            log.error("Request handler failed", e);
+            if (!resp.isCommitted()) {
+                resp.setStatus(500);
+                try {
+                    resp.getWriter().write("{\"error\":\"Internal error\"}");
+                } catch (IOException ignored) {
+                    // client went away
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void busy(HttpServletResponse resp) {
+        shed.increment();
+        resp.setStatus(503);
+        resp.setHeader("Retry-After", "1");
+        try {
+            resp.getWriter().write("{\"error\":\"Server busy, please retry\"}");
+        } catch (IOException ignored) {
+            // client went away
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("bank.execution.mode=virtual needs Java 21; running requests on platform threads");
+            return null;
+        }
+    }
+
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public int getActive() { return maxConcurrent - permits.availablePermits(); }
+    public int getWaiting() { return permits.getQueueLength(); }
+    public long getShed() { return shed.sum(); }
+}
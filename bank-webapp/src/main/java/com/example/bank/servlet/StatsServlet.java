@@ -0,0 +1,137 @@
+package com.example.bank.servlet;
+
+import com.example.bank.ConnectionPool;
+import com.example.bank.DBConnectionManager;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.impl.CachingAccountDao;
+import com.example.bank.service.AccountOwnershipIndex;
+import com.example.bank.service.BalanceEngine;
+import com.example.bank.service.PasswordHasher;
+import com.example.bank.service.SavingsInterestEngine;
+import com.example.bank.service.SipInstallmentScheduler;
+import com.example.bank.util.BoundedCache;
+import com.example.bank.util.JsonUtil;
+import com.example.bank.util.LatencyHistogram;
+
+import jakarta.json.JsonObjectBuilder;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+@WebServlet("/api/stats")
+public class StatsServlet extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp)
+            throws ServletException, IOException {
+
+        resp.setContentType("application/json");
+
+        ConnectionPool pool = DBConnectionManager.getPool();
+        JsonObjectBuilder out = JsonUtil.objectBuilder()
+                .add("pool", JsonUtil.objectBuilder()
+                        .add("max", pool.getMaxSize())
+                        .add("total", pool.getTotal())
+                        .add("active", pool.getActive())
+                        .add("idle", pool.getIdle())
+                        .add("waiting", pool.getWaiting())
+                        .add("acquireLatency", histogram(pool.getAcquireLatency())));
+
+        CachingAccountDao accountCache = DaoFactory.accountCache();
+        if (accountCache != null) {
+            BoundedCache<?, ?> c = accountCache.getCache();
+            out.add("accountCache", JsonUtil.objectBuilder()
+                    .add("size", c.size())
+                    .add("hits", c.getHits())
+                    .add("misses", c.getMisses())
+                    .add("evictions", c.getEvictions()));
+        }
+
+        BoundedCache<?, ?> owners = AccountOwnershipIndex.getInstance().getCache();
+        out.add("ownershipIndex", JsonUtil.objectBuilder()
+                .add("users", owners.size())
+                .add("hits", owners.getHits())
+                .add("misses", owners.getMisses())
+                .add("evictions", owners.getEvictions()));
+
+        PasswordHasher hasher = PasswordHasher.getInstance();
+        out.add("passwordHashing", JsonUtil.objectBuilder()
+                .add("threads", hasher.getThreads())
+                .add("active", hasher.getActive())
+                .add("queueDepth", hasher.getQueueDepth())
+                .add("queueLimit", hasher.getQueueLimit())
+                .add("rejected", hasher.getRejected())
+                .add("queueWait", histogram(hasher.getQueueWait()))
+                .add("hashLatency", histogram(hasher.getHashLatency())));
+
+        SipInstallmentScheduler sip = SipInstallmentScheduler.getInstance();
+        JsonObjectBuilder sipStats = JsonUtil.objectBuilder()
+                .add("collected", sip.getCollected())
+                .add("bounced", sip.getBounced())
+                .add("failedChunks", sip.getFailedChunks())
+                .add("chunkLatency", histogram(sip.getChunkLatency()));
+        SipInstallmentScheduler.RunResult last = sip.getLastRun();
+        if (last != null) {
+            sipStats.add("lastRun", JsonUtil.objectBuilder()
+                    .add("asOf", last.getAsOf().toString())
+                    .add("collected", last.getCollected())
+                    .add("bounced", last.getBounced())
+                    .add("failedChunks", last.getFailedChunks())
+                    .add("elapsedMillis", last.getElapsedMillis())
+                    .add("installmentsPerSecond", last.getInstallmentsPerSecond()));
+        }
+        out.add("sipInstallments", sipStats);
+
+        SavingsInterestEngine interest = SavingsInterestEngine.getInstance();
+        JsonObjectBuilder interestStats = JsonUtil.objectBuilder()
+                .add("posted", interest.getPosted())
+                .add("failedRanges", interest.getFailedRanges());
+        SavingsInterestEngine.RunResult lastInterestRun = interest.getLastRun();
+        if (lastInterestRun != null) {
+            interestStats.add("lastRun", JsonUtil.objectBuilder()
+                    .add("period", lastInterestRun.getPeriod().toString())
+                    .add("posted", lastInterestRun.getPosted())
+                    .add("interestTotal", lastInterestRun.getInterestTotal().toString())
+                    .add("ranges", lastInterestRun.getRanges())
+                    .add("skippedRanges", lastInterestRun.getSkippedRanges())
+                    .add("failedRanges", lastInterestRun.getFailedRanges())
+                    .add("elapsedMillis", lastInterestRun.getElapsedMillis()));
+        }
+        out.add("savingsInterest", interestStats);
+
+        RequestExecutor executor = RequestExecutor.getInstance();
+        out.add("requestExecution", JsonUtil.objectBuilder()
+                .add("mode", executor.isVirtual() ? "virtual" : "platform")
+                .add("maxConcurrent", executor.getMaxConcurrent())
+                .add("active", executor.getActive())
+                .add("waiting", executor.getWaiting())
+                .add("shed", executor.getShed()));
+
+        if (BalanceEngine.isEnabled()) {
+            BalanceEngine engine = BalanceEngine.getInstance();
+            out.add("balanceEngine", JsonUtil.objectBuilder()
+                    .add("healthy", engine.isHealthy())
+                    .add("accounts", engine.getAccounts())
+                    .add("applied", engine.getApplied())
+                    .add("rejected", engine.getRejected())
+                    .add("flushLag", engine.getFlushLag())
+                    .add("walSegments", engine.getWalSegments()));
+        }
+
+        resp.getWriter().write(out.build().toString());
+    }
+
+    static JsonObjectBuilder histogram(LatencyHistogram h) {
+        return JsonUtil.objectBuilder()
+                .add("count", h.getCount())
+                .add("meanMicros", h.getMeanNanos() / 1_000.0)
+                .add("p50Micros", h.getPercentileMicros(0.50))
+                .add("p99Micros", h.getPercentileMicros(0.99))
+                .add("p999Micros", h.getPercentileMicros(0.999))
+                .add("maxMicros", h.getMaxNanos() / 1_000.0);
+    }
+}
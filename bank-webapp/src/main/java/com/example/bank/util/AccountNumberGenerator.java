@@ -0,0 +1,79 @@
+package com.example.bank.util;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collision-free account numbers without locks or database round-trips:
+ * {@code AC} + 2-digit node id + 13-digit sequence + Luhn check digit, e.g. {@code AC0112345678901236}.
+ *
+ * <p>The sequence is seconds since 2024-01-01 times {@value #PER_SECOND}, advanced with a CAS,
+ * so it never repeats within a process and, after a restart, starts past every number the
+ * previous run could have issued unless that run was handing out more than
+ * {@value #PER_SECOND} numbers a second for long enough to run ahead of the clock. Nodes are
+ * kept apart by {@code bank.node.id} (or {@code BANK_NODE_ID}), which must be unique per node.
+ */
+public final class AccountNumberGenerator {
+    private static final long EPOCH_SECONDS = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+    private static final long PER_SECOND = 10_000L;
+    private static final long MAX_SEQUENCE = 9_999_999_999_999L;
+
+    private static final AccountNumberGenerator SHARED = new AccountNumberGenerator(nodeIdFromConfig());
+
+    private final String prefix;
+    private final AtomicLong last = new AtomicLong();
+
+    public AccountNumberGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > 99) throw new IllegalArgumentException("Node id must be 0-99: " + nodeId);
+        this.prefix = String.format("%02d", nodeId);
+    }
+
+    public static AccountNumberGenerator shared() { return SHARED; }
+
+    public String next() {
+        long floor = (System.currentTimeMillis() / 1000 - EPOCH_SECONDS) * PER_SECOND;
+        long prev;
+        long seq;
+        do {
+            prev = last.get();
+            seq = Math.max(prev + 1, floor);
+        } while (!last.compareAndSet(prev, seq));
+        if (seq > MAX_SEQUENCE) throw new IllegalStateException("Account number sequence exhausted");
+
+        String s = Long.toString(seq);
+        StringBuilder sb = new StringBuilder(18).append("AC").append(prefix);
+        for (int i = s.length(); i < 13; i++) sb.append('0');
+        sb.append(s);
+        return sb.append(luhnCheckDigit(sb.substring(2))).toString();
+    }
+
+    /** True if {@code accountNumber} has the generator's shape and a valid check digit. */
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != 18 || !accountNumber.startsWith("AC")) return false;
+        String digits = accountNumber.substring(2, 17);
+        for (int i = 0; i < digits.length(); i++) {
+            if (!Character.isDigit(digits.charAt(i))) return false;
+        }
+        return luhnCheckDigit(digits) == accountNumber.charAt(17);
+    }
+
+    static char luhnCheckDigit(String digits) {
+        int sum = 0;
+        boolean dbl = true; // the digit next to the check digit is doubled
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int d = digits.charAt(i) - '0';
+            if (dbl) {
+                d *= 2;
+                if (d > 9) d -= 9;
+            }
+            sum += d;
+            dbl = !dbl;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    private static int nodeIdFromConfig() {
+        String id = System.getProperty("bank.node.id", System.getenv("BANK_NODE_ID"));
+        return id == null || id.isEmpty() ? 0 : Integer.parseInt(id.trim());
+    }
+}
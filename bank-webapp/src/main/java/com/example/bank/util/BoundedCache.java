@@ -0,0 +1,117 @@
+package com.example.bank.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Size- and TTL-bounded LRU cache. Keys are spread over independently locked segments, each
+ * an access-ordered {@link LinkedHashMap}, so readers of different keys rarely contend.
+ */
+public class BoundedCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxSize, long ttlMillis) {
+        int perSegment = Math.max(1, maxSize / SEGMENTS);
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment<>(perSegment, evictions);
+    }
+
+    public V get(K key) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            Entry<V> e = seg.map.get(key);
+            if (e != null && System.nanoTime() - e.createdAt < ttlNanos) {
+                hits.increment();
+                return e.value;
+            }
+            if (e != null) {
+                seg.map.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            seg.map.put(key, new Entry<>(value, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Runs {@code fn} with the segment holding {@code key} locked. Lets callers combine a
+     * check and a put (or a remove) without another thread interleaving on the same key.
+     */
+    public <R> R withLock(K key, BiFunction<K, BoundedCache<K, V>, R> fn) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            return fn.apply(key, this);
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            seg.map.remove(key);
+        }
+    }
+
+    public int size() {
+        int n = 0;
+        for (Segment<K, V> seg : segments) {
+            synchronized (seg) {
+                n += seg.map.size();
+            }
+        }
+        return n;
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (SEGMENTS - 1)];
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long createdAt;
+
+        Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        final LinkedHashMap<K, Entry<V>> map;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
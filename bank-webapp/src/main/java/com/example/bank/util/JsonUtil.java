@@ -0,0 +1,36 @@
+package com.example.bank.util;
+
+import jakarta.json.Json;
+import jakarta.json.JsonBuilderFactory;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonReaderFactory;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParserFactory;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Shared JSON-P factories. The static {@code Json.createXxx} methods look the provider up
+ * through ServiceLoader on every call; the factories here resolve it once and are thread-safe.
+ */
+public final class JsonUtil {
+    private static final JsonReaderFactory READER_FACTORY = Json.createReaderFactory(null);
+    private static final JsonBuilderFactory BUILDER_FACTORY = Json.createBuilderFactory(null);
+    private static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(null);
+    private static final JsonGeneratorFactory GENERATOR_FACTORY = Json.createGeneratorFactory(null);
+
+    private JsonUtil() {
+    }
+
+    public static JsonReader reader(Reader in) { return READER_FACTORY.createReader(in); }
+    public static JsonObjectBuilder objectBuilder() { return BUILDER_FACTORY.createObjectBuilder(); }
+    public static JsonParser parser(InputStream in) { return PARSER_FACTORY.createParser(in); }
+    public static JsonGenerator generator(Writer out) { return GENERATOR_FACTORY.createGenerator(out); }
+    public static JsonGenerator generator(OutputStream out) { return GENERATOR_FACTORY.createGenerator(out); }
+}
@@ -0,0 +1,83 @@
+package com.example.bank.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (HDR style): every power of two
+ * is split into {@value #SUB_BUCKETS} linear sub-buckets, so any recorded value is
+ * reported within ~12% of its true value. Recording never allocates.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(indexOf(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        long m;
+        while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) {
+            // retry
+        }
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() { return count.get(); }
+    public long getSumNanos() { return sum.get(); }
+    public long getMaxNanos() { return max.get(); }
+
+    public long getMeanNanos() {
+        long c = count.get();
+        return c == 0 ? 0 : sum.get() / c;
+    }
+
+    /** Upper bound (nanos) of the bucket holding the given quantile, 0 when empty. */
+    public long getPercentileNanos(double quantile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBoundOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    public double getPercentileMicros(double quantile) {
+        return getPercentileNanos(quantile) / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    public int bucketCount() { return BUCKETS; }
+    public long bucketValue(int index) { return counts.get(index); }
+
+    /** Inclusive upper bound in nanos of bucket {@code index}. */
+    public static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exp = index / SUB_BUCKETS - 1 + SUB_BUCKET_BITS;
+        long sub = index % SUB_BUCKETS;
+        long base = 1L << exp;
+        long width = base >> SUB_BUCKET_BITS;
+        long upper = base + (sub + 1) * width - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (exp - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exp - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.bank.util;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide request and query metrics, written out in the Prometheus text format by
+ * {@code MetricsServlet}.
+ *
+ * <p>Endpoints are keyed by method and route template ({@code POST /api/accounts/{id}/deposit})
+ * in a lock-free open-addressed table, so looking one up for a route seen before doesn't
+ * allocate. At most {@value #MAX_ENDPOINTS} routes are tracked; requests for any further
+ * route (typically 404 probes) are counted under {@code route="other"}.
+ *
+ * <p>Query timers are registered once, when a DAO decorator is built, and then recorded into
+ * directly.
+ */
+public final class MetricsRegistry {
+    private static final int MAX_ENDPOINTS = 256;
+    private static final int TABLE_SIZE = 1024; // power of two, at most a quarter full
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final AtomicReferenceArray<Endpoint> ENDPOINTS = new AtomicReferenceArray<>(TABLE_SIZE);
+    private static final AtomicInteger ENDPOINT_COUNT = new AtomicInteger();
+    private static final Endpoint OTHER = new Endpoint("other", "other", "other");
+    private static final List<Query> QUERIES = new CopyOnWriteArrayList<>();
+
+    private MetricsRegistry() {
+    }
+
+    /** Counters and latency of one method + route template. */
+    public static final class Endpoint {
+        private final String key;
+        private final String method;
+        private final String route;
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private Endpoint(String key, String method, String route) {
+            this.key = key;
+            this.method = method;
+            this.route = route;
+        }
+
+        /** Records one finished request; an exception that escaped the servlet counts as a 500. */
+        public void record(long startNanos, int status) {
+            latency.recordSince(startNanos);
+            if (status >= 500) serverErrors.increment();
+            else if (status >= 400) clientErrors.increment();
+        }
+
+        public String getMethod() { return method; }
+        public String getRoute() { return route; }
+        public long getRequests() { return latency.getCount(); }
+        public long getClientErrors() { return clientErrors.sum(); }
+        public long getServerErrors() { return serverErrors.sum(); }
+        public LatencyHistogram getLatency() { return latency; }
+    }
+
+    private static final class Query {
+        final String dao;
+        final String method;
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        Query(String dao, String method) {
+            this.dao = dao;
+            this.method = method;
+        }
+    }
+
+    /**
+     * The endpoint for {@code key}, which must be {@code <METHOD> <route template>}. The key is
+     * only copied the first time it is seen, so callers can pass a reused buffer.
+     */
+    public static Endpoint endpoint(CharSequence key) {
+        int h = hash(key);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            int slot = (h + i) & (TABLE_SIZE - 1);
+            Endpoint e = ENDPOINTS.get(slot);
+            if (e == null) {
+                if (ENDPOINT_COUNT.get() >= MAX_ENDPOINTS) return OTHER;
+                Endpoint created = newEndpoint(key.toString());
+                if (ENDPOINTS.compareAndSet(slot, null, created)) {
+                    ENDPOINT_COUNT.incrementAndGet();
+                    return created;
+                }
+                e = ENDPOINTS.get(slot); // lost the race: the slot may now hold our key
+            }
+            if (e.key.contentEquals(key)) return e;
+        }
+        return OTHER;
+    }
+
+    /** Registers a query timer; called once per DAO method when a decorator is built. */
+    public static LatencyHistogram query(String dao, String method) {
+        Query q = new Query(dao, method);
+        QUERIES.add(q);
+        return q.latency;
+    }
+
+    public static void writePrometheus(PrintWriter out) {
+        List<Endpoint> endpoints = endpoints();
+        out.println("# HELP bank_http_requests_total Requests handled, by method and route.");
+        out.println("# TYPE bank_http_requests_total counter");
+        for (Endpoint e : endpoints) {
+            out.println("bank_http_requests_total" + labels(e) + " " + e.getRequests());
+        }
+        out.println("# HELP bank_http_client_errors_total Requests answered with a 4xx status.");
+        out.println("# TYPE bank_http_client_errors_total counter");
+        for (Endpoint e : endpoints) {
+            out.println("bank_http_client_errors_total" + labels(e) + " " + e.getClientErrors());
+        }
+        out.println("# HELP bank_http_server_errors_total Requests answered with a 5xx status or an exception.");
+        out.println("# TYPE bank_http_server_errors_total counter");
+        for (Endpoint e : endpoints) {
+            out.println("bank_http_server_errors_total" + labels(e) + " " + e.getServerErrors());
+        }
+        out.println("# HELP bank_http_request_duration_seconds Request latency, by method and route.");
+        out.println("# TYPE bank_http_request_duration_seconds summary");
+        for (Endpoint e : endpoints) {
+            writeSummary(out, "bank_http_request_duration_seconds",
+                    "method=\"" + e.method + "\",route=\"" + escape(e.route) + "\"", e.latency);
+        }
+        out.println("# HELP bank_dao_query_duration_seconds DAO call latency, by DAO and method.");
+        out.println("# TYPE bank_dao_query_duration_seconds summary");
+        for (Query q : QUERIES) {
+            writeSummary(out, "bank_dao_query_duration_seconds",
+                    "dao=\"" + q.dao + "\",method=\"" + q.method + "\"", q.latency);
+        }
+    }
+
+    private static List<Endpoint> endpoints() {
+        List<Endpoint> list = new ArrayList<>();
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            Endpoint e = ENDPOINTS.get(i);
+            if (e != null) list.add(e);
+        }
+        if (OTHER.getRequests() > 0) list.add(OTHER);
+        return list;
+    }
+
+    private static void writeSummary(PrintWriter out, String name, String labels, LatencyHistogram h) {
+        for (double q : QUANTILES) {
+            out.println(name + "{" + labels + ",quantile=\"" + q + "\"} " + seconds(h.getPercentileNanos(q)));
+        }
+        out.println(name + "_sum{" + labels + "} " + seconds(h.getSumNanos()));
+        out.println(name + "_count{" + labels + "} " + h.getCount());
+    }
+
+    private static Endpoint newEndpoint(String key) {
+        int space = key.indexOf(' ');
+        return new Endpoint(key, key.substring(0, space), key.substring(space + 1));
+    }
+
+    private static String labels(Endpoint e) {
+        return "{method=\"" + e.method + "\",route=\"" + escape(e.route) + "\"}";
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static int hash(CharSequence s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) h = 31 * h + s.charAt(i);
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bank.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Stateless session tokens: {@code <userId>.<expiryEpochSeconds>.<signature>} where the
+ * signature is HMAC-SHA256 over the first two fields. Verifying needs no session or database
+ * lookup, so any node holding the same {@code bank.token.secret} accepts any other node's tokens.
+ */
+public final class TokenUtil {
+    private static final Logger log = LoggerFactory.getLogger(TokenUtil.class);
+
+    private static final String ALGO = "HmacSHA256";
+    public static final long TTL_SECONDS = Long.getLong("bank.token.ttlSeconds", 8 * 3600L);
+
+    private static final SecretKeySpec KEY = new SecretKeySpec(loadSecret(), ALGO);
+    // Mac instances are stateful and not thread-safe, and getInstance is a provider lookup
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(ALGO);
+            mac.init(KEY);
+            return mac;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private TokenUtil() {
+    }
+
+    public static String issue(int userId) {
+        long expires = System.currentTimeMillis() / 1000 + TTL_SECONDS;
+        String payload = userId + "." + expires;
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /** The token's user id, or -1 when the token is malformed, forged or expired. */
+    public static int verify(String token) {
+        if (token == null) return -1;
+        int dot1 = token.indexOf('.');
+        int dot2 = dot1 < 0 ? -1 : token.indexOf('.', dot1 + 1);
+        if (dot1 <= 0 || dot2 < 0) return -1;
+
+        try {
+            byte[] expected = sign(token.substring(0, dot2));
+            byte[] actual = Base64.getUrlDecoder().decode(token.substring(dot2 + 1));
+            if (!MessageDigest.isEqual(expected, actual)) return -1;
+
+            long expires = Long.parseLong(token, dot1 + 1, dot2, 10);
+            if (expires < System.currentTimeMillis() / 1000) return -1;
+            return Integer.parseInt(token, 0, dot1, 10);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static byte[] sign(String payload) {
+        return MAC.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] loadSecret() {
+        String secret = System.getProperty("bank.token.secret", System.getenv("BANK_TOKEN_SECRET"));
+        if (secret != null && !secret.isEmpty()) return secret.getBytes(StandardCharsets.UTF_8);
+
+        log.warn("bank.token.secret is not set; using a random key, so tokens only work on this node "
+                + "until it restarts");
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bank;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the same work on several threads that are released together, so they contend from the
+ * first call instead of starting one after another as the pool spins up.
+ */
+public final class Concurrently {
+
+    public interface Worker {
+        /** {@code thread} is 0 to threads - 1. */
+        void run(int thread) throws Exception;
+    }
+
+    private Concurrently() {
+    }
+
+    /** Runs {@code worker} on {@code threads} threads and waits for all; rethrows the first failure. */
+    public static void run(int threads, Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : workers) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) throw (Exception) cause;
+                    if (cause instanceof Error) throw (Error) cause;
+                    throw e;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.bank;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One in-memory H2 database in MySQL mode, built from schema.sql and shared by every test in
+ * the JVM: DBConnectionManager reads {@code bank.db.*} once, when it is first used, so
+ * {@link #url()} must run before anything touches the DAOs. Tests keep apart by working on
+ * users and accounts of their own.
+ */
+public final class TestDatabase {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static String url;
+
+    private TestDatabase() {
+    }
+
+    public static synchronized String url() throws Exception {
+        if (url == null) {
+            // contended rows can wait longer than H2's default 1s lock timeout
+            String u = "jdbc:h2:mem:tests;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+            createSchema(u);
+            System.setProperty("bank.db.url", u);
+            System.setProperty("bank.db.user", "");
+            System.setProperty("bank.db.password", "");
+            url = u;
+        }
+        return url;
+    }
+
+    public static Connection connect() throws Exception {
+        return DriverManager.getConnection(url());
+    }
+
+    /** Creates a user with no accounts; returns the user id. */
+    public static int user() throws Exception {
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO users (first_name,last_name,email) VALUES ('Test','User',?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, "test" + SEQUENCE.incrementAndGet() + "@example.com");
+            ps.executeUpdate();
+            return generatedKey(ps);
+        }
+    }
+
+    /** Creates a user owning one Savings account with {@code balance}; returns the account id. */
+    public static int account(BigDecimal balance) throws Exception {
+        return account(user(), balance);
+    }
+
+    /** Opens a Savings account with {@code balance} for {@code userId}; returns the account id. */
+    public static int account(int userId, BigDecimal balance) throws Exception {
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO accounts (user_id,account_number,account_type,balance) VALUES (?,?,'Savings',?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, userId);
+            ps.setString(2, "TEST" + SEQUENCE.incrementAndGet());
+            ps.setBigDecimal(3, balance);
+            ps.executeUpdate();
+            return generatedKey(ps);
+        }
+    }
+
+    public static BigDecimal balance(int accountId) throws Exception {
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement("SELECT balance FROM accounts WHERE account_id = ?")) {
+            ps.setInt(1, accountId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getBigDecimal(1);
+            }
+        }
+    }
+
+    private static void createSchema(String url) throws SQLException, IOException {
+        String ddl;
+        try (InputStream in = TestDatabase.class.getResourceAsStream("/schema.sql")) {
+            if (in == null) throw new IOException("schema.sql not on the test classpath");
+            ddl = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement st = conn.createStatement()) {
+            for (String sql : ddl.replaceAll("(?m)--.*$", "").split(";")) {
+                sql = sql.trim();
+                // the database is the connection's own; H2 has no CREATE DATABASE / USE
+                if (sql.isEmpty() || sql.startsWith("CREATE DATABASE") || sql.startsWith("USE ")) continue;
+                st.execute(sql);
+            }
+        }
+    }
+
+    private static int generatedKey(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.Concurrently;
+import com.example.bank.DBConnectionManager;
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.InsufficientFundsException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads debiting one account at once through the guarded UPDATE in
+ * {@link JdbcAccountDao#adjustBalance}: together they ask for far more than the balance, and
+ * exactly as many debits as the balance covers may succeed.
+ */
+class AdjustBalanceStressTest {
+    private static final int THREADS = 16;
+    private static final int DEBITS_PER_THREAD = 50;
+    private static final BigDecimal OPENING = new BigDecimal("1000.00");
+    private static final BigDecimal DEBIT = new BigDecimal("7.00");
+
+    private final JdbcAccountDao accountDao = new JdbcAccountDao();
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        int accountId = TestDatabase.account(OPENING);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicInteger negative = new AtomicInteger();
+
+        Concurrently.run(THREADS, thread -> {
+            for (int i = 0; i < DEBITS_PER_THREAD; i++) {
+                try (Connection conn = DBConnectionManager.getConnection()) {
+                    conn.setAutoCommit(false);
+                    try {
+                        BigDecimal after = accountDao.adjustBalance(accountId, DEBIT.negate(), conn);
+                        conn.commit();
+                        if (after.signum() < 0) negative.incrementAndGet();
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        conn.rollback();
+                        refused.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        int covered = OPENING.divideToIntegralValue(DEBIT).intValueExact();
+        BigDecimal balance = TestDatabase.balance(accountId);
+        assertEquals(0, negative.get(), "a debit reported a negative balance");
+        assertEquals(covered, succeeded.get(), "debits the balance covers");
+        assertEquals(THREADS * DEBITS_PER_THREAD - covered, refused.get(), "debits refused");
+        assertEquals(OPENING.subtract(DEBIT.multiply(BigDecimal.valueOf(covered))), balance);
+        assertTrue(balance.signum() >= 0);
+    }
+}
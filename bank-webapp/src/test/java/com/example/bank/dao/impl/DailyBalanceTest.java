@@ -0,0 +1,77 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.DBConnectionManager;
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.TransactionDao;
+import com.example.bank.model.DailyBalance;
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The daily roll-up is written in the ledger row's own transaction, so a write that is rolled
+ * back and run again, as lock retries and the ledger writer's one-at-a-time fallback do, is
+ * counted once. LedgerWriterTest covers the same for the writer's one-at-a-time fallback.
+ */
+class DailyBalanceTest {
+    private static final Date FROM = Date.valueOf("2000-01-01");
+    private static final Date TO = Date.valueOf("2100-01-01");
+
+    private final TransactionDao transactionDao = DaoFactory.transactionDao();
+    private final JdbcDailyBalanceDao dailyBalanceDao = new JdbcDailyBalanceDao();
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+    }
+
+    @Test
+    void retriedWriteIsCountedOnce() throws Exception {
+        int accountId = TestDatabase.account(new BigDecimal("100.00"));
+        List<Transaction> rows = List.of(deposit(accountId, "40.00", "140.00"));
+
+        try (Connection conn = DBConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            transactionDao.insertBatch(rows, conn);
+            conn.rollback(); // e.g. a deadlock on a later statement
+            transactionDao.insertBatch(rows, conn);
+            conn.commit();
+        }
+
+        DailyBalance day = onlyDay(accountId);
+        assertEquals(1, day.getTxnCount());
+        assertEquals(new BigDecimal("40.00"), day.getCreditTotal());
+        assertEquals(new BigDecimal("140.00"), day.getClosingBalance());
+    }
+
+    private DailyBalance onlyDay(int accountId) throws Exception {
+        List<DailyBalance> days = days(accountId);
+        assertEquals(1, days.size());
+        return days.get(0);
+    }
+
+    private List<DailyBalance> days(int accountId) throws Exception {
+        List<DailyBalance> days = new ArrayList<>();
+        dailyBalanceDao.findRange(accountId, FROM, TO, days::add);
+        return days;
+    }
+
+    private static Transaction deposit(int accountId, String amount, String postBalance) {
+        Transaction t = new Transaction();
+        t.setToAccountId(accountId);
+        t.setAmount(new BigDecimal(amount));
+        t.setTxnType("DEPOSIT");
+        t.setDescription("test");
+        t.setPostBalance(new BigDecimal(postBalance));
+        return t;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.Concurrently;
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.DuplicateKeyException;
+import com.example.bank.model.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Signups are kept to one user per email by uq_users_email, not by a check before the insert. */
+class JdbcUserDaoTest {
+    private static final int THREADS = 8;
+
+    private final JdbcUserDao userDao = new JdbcUserDao();
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+    }
+
+    @Test
+    void secondSignupWithSameEmailIsDuplicateKey() throws Exception {
+        userDao.create(user("dup@example.com"));
+
+        assertThrows(DuplicateKeyException.class, () -> userDao.create(user("dup@example.com")));
+        assertNotNull(userDao.findByEmail("dup@example.com"));
+    }
+
+    @Test
+    void concurrentSignupsForOneEmailCreateOneUser() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        Concurrently.run(THREADS, thread -> {
+            try {
+                userDao.create(user("race@example.com"));
+                created.incrementAndGet();
+            } catch (DuplicateKeyException e) {
+                duplicates.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, created.get());
+        assertEquals(THREADS - 1, duplicates.get());
+    }
+
+    private static User user(String email) {
+        User u = new User();
+        u.setFirstName("Test");
+        u.setLastName("User");
+        u.setEmail(email);
+        u.setPasswordHash("x");
+        return u;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bank.dao.impl;
+
+import com.example.bank.Concurrently;
+import com.example.bank.DBConnectionManager;
+import com.example.bank.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Threads moving money both ways between the same accounts, writing the rows in opposite
+ * orders: taking both locks up front through {@link JdbcAccountDao#lockAll} keeps them from
+ * deadlocking, whatever order the updates come in afterwards.
+ */
+class LockAllTest {
+    private static final int THREADS = 8;
+    private static final int MOVES_PER_THREAD = 100;
+    private static final BigDecimal OPENING = new BigDecimal("1000.00");
+    private static final BigDecimal MOVE = new BigDecimal("1.00");
+
+    private final JdbcAccountDao accountDao = new JdbcAccountDao();
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+    }
+
+    @Test
+    void opposingWritersDoNotDeadlock() throws Exception {
+        int a = TestDatabase.account(OPENING);
+        int b = TestDatabase.account(OPENING);
+
+        Concurrently.run(THREADS, thread -> {
+            int from = thread % 2 == 0 ? a : b;
+            int to = thread % 2 == 0 ? b : a;
+            for (int i = 0; i < MOVES_PER_THREAD; i++) {
+                try (Connection conn = DBConnectionManager.getConnection()) {
+                    conn.setAutoCommit(false);
+                    // the caller names them in either order; the locks are still taken ascending
+                    accountDao.lockAll(List.of(to, from), conn);
+                    accountDao.adjustBalance(from, MOVE.negate(), conn);
+                    accountDao.adjustBalance(to, MOVE, conn);
+                    conn.commit();
+                }
+            }
+        });
+
+        assertEquals(OPENING, TestDatabase.balance(a));
+        assertEquals(OPENING, TestDatabase.balance(b));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bank.service;
+
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.impl.JdbcAccountDao;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountOwnershipIndexTest {
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+    }
+
+    @Test
+    void accountCreatedElsewhereIsFoundWithoutWaitingForTheTtl() throws Exception {
+        AccountOwnershipIndex index = new AccountOwnershipIndex(new JdbcAccountDao(), 100, 300_000L);
+        int userId = TestDatabase.user();
+        int first = TestDatabase.account(userId, BigDecimal.ZERO);
+        assertTrue(index.owns(userId, first));
+
+        // as if opened through another node: nothing reported it to this index
+        int second = TestDatabase.account(userId, BigDecimal.ZERO);
+        assertTrue(index.owns(userId, second));
+        assertTrue(index.accountIdsOf(userId).contains(second), "reload not cached");
+    }
+
+    @Test
+    void otherUsersAccountsStayDenied() throws Exception {
+        AccountOwnershipIndex index = new AccountOwnershipIndex(new JdbcAccountDao(), 100, 300_000L);
+        int userId = TestDatabase.user();
+        TestDatabase.account(userId, BigDecimal.ZERO);
+        int someoneElses = TestDatabase.account(BigDecimal.ZERO);
+
+        assertFalse(index.owns(userId, someoneElses));
+        assertFalse(index.owns(userId, someoneElses));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bank.service;
+
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.DaoFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The balance engine's shard leases: a second node can't start the engine while the first
+ * holds them, and a node whose lease is taken stops without writing to the database.
+ */
+class BalanceEngineLeaseTest {
+    private static final int SHARDS = 2;
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+    }
+
+    @AfterEach
+    void freeLeases() throws Exception {
+        try (Connection conn = TestDatabase.connect(); Statement st = conn.createStatement()) {
+            st.executeUpdate("UPDATE balance_engine_checkpoints SET owner = NULL, lease_until = NULL");
+        }
+    }
+
+    @Test
+    void secondNodeCannotStartWhileTheLeaseIsHeld() throws Exception {
+        int accountId = TestDatabase.account(new BigDecimal("100.00"));
+        BalanceEngine first = engine("node-a", accountId);
+        try {
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> engine("node-b", accountId));
+            assertTrue(e.getMessage().contains("node-a"), e.getMessage());
+        } finally {
+            first.close();
+        }
+
+        // closing gave the lease up
+        engine("node-b", accountId).close();
+    }
+
+    @Test
+    void lostLeaseStopsTheEngineWithoutFlushing() throws Exception {
+        int accountId = TestDatabase.account(new BigDecimal("100.00"));
+        BalanceEngine engine = engine("node-a", accountId);
+        try {
+            try (Connection conn = TestDatabase.connect(); Statement st = conn.createStatement()) {
+                st.executeUpdate("UPDATE balance_engine_checkpoints SET owner = 'node-b'");
+            }
+
+            assertEquals(new BigDecimal("110.00"),
+                    engine.deposit(accountId, new BigDecimal("10.00"), "lease test", null, null));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (engine.isHealthy() && System.currentTimeMillis() < deadline) Thread.sleep(20);
+
+            assertFalse(engine.isHealthy(), "engine still taking movements after losing its lease");
+            assertEquals(new BigDecimal("100.00"), TestDatabase.balance(accountId));
+            assertThrows(IllegalStateException.class,
+                    () -> engine.deposit(accountId, new BigDecimal("10.00"), "lease test", null, null));
+        } finally {
+            engine.close();
+        }
+    }
+
+    private static BalanceEngine engine(String owner, int accountId) throws Exception {
+        Path wal = Files.createTempDirectory("engine-wal");
+        return new BalanceEngine(DaoFactory.databaseAccountDao(), DaoFactory.transactionDao(),
+                DaoFactory.idempotencyDao(), DaoFactory.engineCheckpointDao(), Set.of(accountId), SHARDS,
+                wal, owner);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.bank.service;
+
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.model.IdempotencyRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A stored Idempotency-Key remembers which movement it was used for, so a retry can be told
+ * apart from a different request that reuses the key.
+ */
+class IdempotencyServiceTest {
+    private static LedgerWriter writer;
+    private static IdempotencyService idempotency;
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+        writer = new LedgerWriter(DaoFactory.accountDao(), DaoFactory.transactionDao(), DaoFactory.idempotencyDao(), 1);
+        idempotency = new IdempotencyService(DaoFactory.idempotencyDao(), 100, 24);
+    }
+
+    @AfterAll
+    static void close() {
+        writer.close();
+    }
+
+    @Test
+    void reusedKeyIsMatchedOnAccountTypeAndAmount() throws Exception {
+        int userId = TestDatabase.user();
+        int accountId = TestDatabase.account(userId, new BigDecimal("100.00"));
+        int otherId = TestDatabase.account(userId, new BigDecimal("100.00"));
+
+        writer.deposit(accountId, new BigDecimal("25"), "test",
+                IdempotencyService.newRecord(userId, "k-1", accountId, "DEPOSIT", new BigDecimal("25")),
+                b -> "{\"balance\":\"" + b + "\"}");
+
+        IdempotencyRecord retry = IdempotencyService.newRecord(userId, "k-1", accountId, "DEPOSIT", new BigDecimal("25.00"));
+        assertThrows(DuplicateRequestException.class, () -> writer.deposit(accountId, new BigDecimal("25.00"),
+                "test", retry, b -> "{}"));
+        assertEquals(new BigDecimal("125.00"), TestDatabase.balance(accountId));
+
+        IdempotencyRecord stored = idempotency.stored(userId, "k-1");
+        assertEquals("DEPOSIT", stored.getTxnType());
+        assertEquals(new BigDecimal("25.00"), stored.getAmount());
+        assertTrue(IdempotencyService.sameRequest(stored, retry));
+        assertFalse(IdempotencyService.sameRequest(stored,
+                IdempotencyService.newRecord(userId, "k-1", accountId, "DEPOSIT", new BigDecimal("26"))));
+        assertFalse(IdempotencyService.sameRequest(stored,
+                IdempotencyService.newRecord(userId, "k-1", accountId, "WITHDRAWAL", new BigDecimal("25"))));
+        assertFalse(IdempotencyService.sameRequest(stored,
+                IdempotencyService.newRecord(userId, "k-1", otherId, "DEPOSIT", new BigDecimal("25"))));
+    }
+}
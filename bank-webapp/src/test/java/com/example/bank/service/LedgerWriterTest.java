@@ -0,0 +1,88 @@
+package com.example.bank.service;
+
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.model.DailyBalance;
+import com.example.bank.model.Transaction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LedgerWriterTest {
+    private static LedgerWriter writer;
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+        writer = new LedgerWriter(DaoFactory.accountDao(), DaoFactory.transactionDao(), DaoFactory.idempotencyDao(), 1);
+    }
+
+    @AfterAll
+    static void close() {
+        writer.close();
+    }
+
+    @Test
+    void entryTheDatabaseRefusesFailsAlone() throws Exception {
+        int a = TestDatabase.account(new BigDecimal("10.00"));
+        int b = TestDatabase.account(new BigDecimal("10.00"));
+        int c = TestDatabase.account(new BigDecimal("10.00"));
+        LedgerWriter.Entry ok1 = deposit(a, "5.00");
+        // past DECIMAL(15,2), so the balance update itself fails
+        LedgerWriter.Entry bad = deposit(b, "99999999999999.00");
+        LedgerWriter.Entry ok2 = deposit(c, "7.00");
+
+        writer.flush(List.of(ok1, bad, ok2));
+
+        assertEquals(new BigDecimal("15.00"), ok1.result.get());
+        assertEquals(new BigDecimal("17.00"), ok2.result.get());
+        ExecutionException e = assertThrows(ExecutionException.class, bad.result::get);
+        assertInstanceOf(SQLException.class, e.getCause());
+        assertEquals(new BigDecimal("15.00"), TestDatabase.balance(a));
+        assertEquals(new BigDecimal("10.00"), TestDatabase.balance(b));
+        assertEquals(new BigDecimal("17.00"), TestDatabase.balance(c));
+    }
+
+    @Test
+    void fallbackCountsEachEntryOnceInDailyBalances() throws Exception {
+        int a = TestDatabase.account(new BigDecimal("10.00"));
+        int b = TestDatabase.account(new BigDecimal("10.00"));
+
+        // the batch fails on the second entry and is re-run one entry at a time
+        writer.flush(List.of(deposit(a, "5.00"), deposit(b, "99999999999999.00"), deposit(a, "2.50")));
+
+        List<DailyBalance> days = days(a);
+        assertEquals(1, days.size());
+        assertEquals(2, days.get(0).getTxnCount());
+        assertEquals(new BigDecimal("7.50"), days.get(0).getCreditTotal());
+        assertEquals(new BigDecimal("17.50"), days.get(0).getClosingBalance());
+        assertEquals(List.of(), days(b));
+    }
+
+    private static List<DailyBalance> days(int accountId) throws Exception {
+        List<DailyBalance> days = new ArrayList<>();
+        DaoFactory.dailyBalanceDao().findRange(accountId, Date.valueOf("2000-01-01"),
+                Date.valueOf("2100-01-01"), days::add);
+        return days;
+    }
+
+    private static LedgerWriter.Entry deposit(int accountId, String amount) {
+        Transaction t = new Transaction();
+        t.setToAccountId(accountId);
+        t.setAmount(new BigDecimal(amount));
+        t.setTxnType("DEPOSIT");
+        t.setDescription("ledger test");
+        return new LedgerWriter.Entry(accountId, new BigDecimal(amount), t, null, null);
+    }
+}
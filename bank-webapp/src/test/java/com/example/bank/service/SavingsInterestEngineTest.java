@@ -0,0 +1,123 @@
+package com.example.bank.service;
+
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.DaoFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.YearMonth;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Running a month again, whether it finished or stopped between posting a range and
+ * checkpointing it, must not credit interest a second time.
+ */
+class SavingsInterestEngineTest {
+    private static final BigDecimal OPENING = new BigDecimal("1000.00");
+
+    private final SavingsInterestEngine engine = new SavingsInterestEngine(DaoFactory.accountDao(),
+            DaoFactory.transactionDao(), DaoFactory.dailyBalanceDao(), DaoFactory.interestAccrualDao(), null);
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+    }
+
+    @Test
+    void rerunDoesNotCreditTwice() throws Exception {
+        YearMonth period = YearMonth.now().minusMonths(1);
+        int accountId = TestDatabase.account(OPENING);
+        openedBefore(accountId, period);
+        BigDecimal interest = interest(period);
+
+        SavingsInterestEngine.RunResult first = engine.run(period);
+        assertEquals(0, first.getFailedRanges());
+        assertEquals(OPENING.add(interest), TestDatabase.balance(accountId));
+
+        // every range checkpointed: nothing to do
+        SavingsInterestEngine.RunResult second = engine.run(period);
+        assertEquals(0, second.getPosted());
+        assertEquals(second.getRanges(), second.getSkippedRanges());
+
+        // as if the run had stopped after posting but before checkpointing
+        deleteCheckpoints(period);
+        SavingsInterestEngine.RunResult resumed = engine.run(period);
+        assertEquals(0, resumed.getPosted());
+        assertEquals(0, resumed.getSkippedRanges());
+
+        assertEquals(OPENING.add(interest), TestDatabase.balance(accountId));
+        assertEquals(1, interestCredits(accountId));
+    }
+
+    @Test
+    void engineAccountsOfOneUserAreEachCredited() throws Exception {
+        YearMonth period = YearMonth.now().minusMonths(2);
+        int userId = TestDatabase.user();
+        int a = TestDatabase.account(userId, OPENING);
+        int b = TestDatabase.account(userId, OPENING);
+        openedBefore(a, period);
+        openedBefore(b, period);
+        BigDecimal interest = interest(period);
+
+        BalanceEngine balanceEngine = new BalanceEngine(DaoFactory.databaseAccountDao(), DaoFactory.transactionDao(),
+                DaoFactory.idempotencyDao(), DaoFactory.engineCheckpointDao(), Set.of(a, b), 2,
+                Files.createTempDirectory("engine-wal"), "interest-test");
+        try {
+            SavingsInterestEngine viaEngine = new SavingsInterestEngine(DaoFactory.accountDao(),
+                    DaoFactory.transactionDao(), DaoFactory.dailyBalanceDao(), DaoFactory.interestAccrualDao(),
+                    balanceEngine);
+            viaEngine.run(period);
+            deleteCheckpoints(period);
+            viaEngine.run(period);
+
+            assertEquals(OPENING.add(interest), balanceEngine.balanceOf(a));
+            assertEquals(OPENING.add(interest), balanceEngine.balanceOf(b));
+        } finally {
+            balanceEngine.close();
+        }
+    }
+
+    private static BigDecimal interest(YearMonth period) {
+        return OPENING.multiply(BigDecimal.valueOf(period.lengthOfMonth()))
+                .multiply(new BigDecimal("3.5")).divide(BigDecimal.valueOf(36_500), 2, RoundingMode.HALF_EVEN);
+    }
+
+    private static void openedBefore(int accountId, YearMonth period) throws Exception {
+        try (Connection conn = TestDatabase.connect();
+             PreparedStatement ps = conn.prepareStatement("UPDATE accounts SET opened_at = ? WHERE account_id = ?")) {
+            ps.setDate(1, Date.valueOf(period.minusMonths(1).atDay(1)));
+            ps.setInt(2, accountId);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void deleteCheckpoints(YearMonth period) throws Exception {
+        try (Connection conn = TestDatabase.connect();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM interest_accrual_checkpoints WHERE period_start = ?")) {
+            ps.setDate(1, Date.valueOf(period.atDay(1)));
+            ps.executeUpdate();
+        }
+    }
+
+    private static int interestCredits(int accountId) throws Exception {
+        try (Connection conn = TestDatabase.connect();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM transactions WHERE to_account_id = ? AND txn_type = 'INTEREST_CREDIT'")) {
+            ps.setInt(1, accountId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
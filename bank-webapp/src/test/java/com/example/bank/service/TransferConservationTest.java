@@ -0,0 +1,96 @@
+package com.example.bank.service;
+
+import com.example.bank.Concurrently;
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.dao.InsufficientFundsException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Random transfers in both directions among a few accounts from many threads at once, through
+ * {@link TransferService} as the servlets use it. Money is only moved, never made or lost: the
+ * total across the accounts stays what it was, none goes below zero, and each account's ledger
+ * rows add up to its balance.
+ */
+class TransferConservationTest {
+    private static final int ACCOUNTS = 10;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 150;
+    private static final BigDecimal OPENING = new BigDecimal("1000.00");
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+    }
+
+    @Test
+    void concurrentTransfersConserveTheTotal() throws Exception {
+        TransferService transferService = new TransferService(DaoFactory.accountDao(), DaoFactory.transactionDao());
+        int[] ids = new int[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) ids[i] = TestDatabase.account(OPENING);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        Concurrently.run(THREADS, thread -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                int from = ids[rnd.nextInt(ACCOUNTS)];
+                int to = ids[rnd.nextInt(ACCOUNTS - 1)];
+                if (to == from) to = ids[ACCOUNTS - 1];
+                BigDecimal amount = BigDecimal.valueOf(rnd.nextInt(1, 40_000), 2);
+                try {
+                    transferService.transfer(from, to, amount, "conservation test");
+                    succeeded.incrementAndGet();
+                } catch (InsufficientFundsException e) {
+                    refused.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, succeeded.get() + refused.get());
+        assertTrue(succeeded.get() > 0, "no transfer went through");
+
+        BigDecimal total = BigDecimal.ZERO;
+        int outRows = 0;
+        try (Connection conn = TestDatabase.connect()) {
+            for (int id : ids) {
+                BigDecimal balance = TestDatabase.balance(id);
+                assertTrue(balance.signum() >= 0, "account " + id + " overdrawn: " + balance);
+                total = total.add(balance);
+
+                BigDecimal in = sum(conn, "SELECT COALESCE(SUM(amount),0) FROM transactions"
+                        + " WHERE to_account_id = ? AND txn_type = 'TRANSFER_IN'", id);
+                BigDecimal out = sum(conn, "SELECT COALESCE(SUM(amount),0) FROM transactions"
+                        + " WHERE from_account_id = ? AND txn_type = 'TRANSFER_OUT'", id);
+                assertEquals(0, OPENING.add(in).subtract(out).compareTo(balance),
+                        "ledger of account " + id + " doesn't add up to its balance " + balance);
+                outRows += sum(conn, "SELECT COUNT(*) FROM transactions"
+                        + " WHERE from_account_id = ? AND txn_type = 'TRANSFER_OUT'", id).intValue();
+            }
+        }
+        assertEquals(0, OPENING.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total),
+                "total across the accounts changed: " + total);
+        assertEquals(succeeded.get(), outRows, "TRANSFER_OUT rows");
+    }
+
+    private static BigDecimal sum(Connection conn, String sql, int accountId) throws Exception {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, accountId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getBigDecimal(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bank.service;
+
+import com.example.bank.Concurrently;
+import com.example.bank.TestDatabase;
+import com.example.bank.dao.DaoFactory;
+import com.example.bank.util.AccountNumberGenerator;
+import com.example.bank.util.JsonUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent {@link UserOnboardingService} runs storing users with accounts: every account
+ * number they report and store is valid and distinct.
+ */
+class UserOnboardingServiceTest {
+    private static final int RUNS = 4;
+    private static final int USERS_PER_RUN = 10;
+
+    @BeforeAll
+    static void database() throws Exception {
+        TestDatabase.url();
+    }
+
+    @Test
+    void concurrentOnboardingStoresDistinctAccountNumbers() throws Exception {
+        String batch = Long.toString(System.nanoTime(), 36);
+        UserOnboardingService onboarding = new UserOnboardingService(DaoFactory.userDao(), DaoFactory.accountDao());
+        JsonObject[] results = new JsonObject[RUNS];
+
+        Concurrently.run(RUNS, run -> {
+            StringBuilder json = new StringBuilder("[");
+            for (int u = 0; u < USERS_PER_RUN; u++) {
+                if (u > 0) json.append(',');
+                json.append("{\"firstName\":\"On\",\"lastName\":\"Board\",\"email\":\"onboard-")
+                    .append(batch).append('-').append(run).append('-').append(u)
+                    .append("@example.com\",\"password\":\"secret\",\"accountType\":\"Savings\",\"initialDeposit\":100}");
+            }
+            byte[] in = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            onboarding.run(new ByteArrayInputStream(in), out);
+            results[run] = JsonUtil.reader(new StringReader(out.toString(StandardCharsets.UTF_8))).readObject();
+        });
+
+        Set<String> reported = new HashSet<>();
+        for (JsonObject result : results) {
+            assertEquals(USERS_PER_RUN, result.getInt("created"), result.toString());
+            for (JsonValue v : result.getJsonArray("results")) {
+                String n = v.asJsonObject().getString("accountNumber");
+                assertTrue(AccountNumberGenerator.isValid(n), n);
+                assertTrue(reported.add(n), "account number reported twice: " + n);
+            }
+        }
+
+        try (Connection conn = TestDatabase.connect();
+             PreparedStatement ps = conn.prepareStatement(
+                     "SELECT COUNT(*), COUNT(DISTINCT a.account_number) FROM accounts a"
+                             + " JOIN users u ON u.user_id = a.user_id WHERE u.email LIKE ?")) {
+            ps.setString(1, "onboard-" + batch + "-%");
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                assertEquals(RUNS * USERS_PER_RUN, rs.getInt(1), "accounts stored");
+                assertEquals(rs.getInt(1), rs.getInt(2), "distinct account numbers stored");
+            }
+        }
+    }
+}
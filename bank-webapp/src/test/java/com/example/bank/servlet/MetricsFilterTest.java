@@ -0,0 +1,77 @@
+package com.example.bank.servlet;
+
+import com.example.bank.util.MetricsRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Request metrics are labelled by route template, so the number of label sets stays bounded
+ * however many accounts are hit or junk paths are probed.
+ */
+class MetricsFilterTest {
+
+    @Test
+    void idsAreTemplated() {
+        assertEquals("POST /api/accounts/{id}/deposit",
+                MetricsFilter.routeKey(request("POST", "/api/accounts", "/42/deposit")).toString());
+        assertEquals("GET /api/accounts/{id}/transactions",
+                MetricsFilter.routeKey(request("GET", "/api/accounts", "/SB0012345/transactions")).toString());
+        assertEquals("POST /api/auth/login",
+                MetricsFilter.routeKey(request("POST", "/api/auth", "/login")).toString());
+    }
+
+    @Test
+    void manyAccountsShareOneEndpoint() {
+        MetricsRegistry.Endpoint first = endpoint("POST", "/api/accounts", "/1/withdraw");
+        for (int id = 2; id <= 10_000; id++) {
+            assertSame(first, endpoint("POST", "/api/accounts", "/" + id + "/withdraw"));
+        }
+    }
+
+    @Test
+    void junkPathsEndUpUnderOther() {
+        Set<MetricsRegistry.Endpoint> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < 1_000; i++) {
+            // no digits, so nothing is templated away
+            seen.add(endpoint("GET", "/api/probe-" + letters(i), null));
+        }
+        MetricsRegistry.Endpoint last = endpoint("GET", "/api/probe-last", null);
+
+        assertTrue(seen.size() <= 257, "tracked " + seen.size() + " routes");
+        assertEquals("other", last.getRoute());
+    }
+
+    private static MetricsRegistry.Endpoint endpoint(String method, String servletPath, String pathInfo) {
+        return MetricsRegistry.endpoint(MetricsFilter.routeKey(request(method, servletPath, pathInfo)));
+    }
+
+    private static String letters(int n) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return sb.toString();
+    }
+
+    private static HttpServletRequest request(String method, String servletPath, String pathInfo) {
+        return (HttpServletRequest) Proxy.newProxyInstance(MetricsFilterTest.class.getClassLoader(),
+                new Class<?>[] {HttpServletRequest.class}, (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getMethod": return method;
+                        case "getServletPath": return servletPath;
+                        case "getPathInfo": return pathInfo;
+                        default: throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bank.servlet;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A handler that outlives its request must not write over the timeout's 503: the response it
+ * holds is a {@link GuardedResponse}, closed by whichever side finishes first.
+ */
+class RequestExecutorTest {
+
+    @Test
+    void guardedResponseDropsWritesAfterClose() throws Exception {
+        FakeResponse real = new FakeResponse();
+        GuardedResponse guarded = new GuardedResponse(real.proxy());
+
+        guarded.setStatus(201);
+        guarded.getWriter().write("before");
+        assertTrue(guarded.close());
+        assertFalse(guarded.close());
+
+        guarded.setStatus(500);
+        guarded.setHeader("X-Late", "1");
+        guarded.getWriter().write("after");
+        guarded.getWriter().flush();
+
+        assertEquals(201, real.status);
+        assertEquals("before", real.body.toString());
+        assertFalse(real.headers.contains("X-Late"));
+    }
+
+    @Test
+    void timedOutRequestGetsOneResponse() throws Exception {
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        RequestExecutor executor = new RequestExecutor(threads, 1);
+        FakeResponse resp = new FakeResponse();
+        FakeAsync async = new FakeAsync();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.execute(async.request(), resp.proxy(), r -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            r.setStatus(200);
+            r.getWriter().write("{\"late\":true}");
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for (AsyncListener l : async.listeners) l.onTimeout(new AsyncEvent(async.context));
+        release.countDown();
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(503, resp.status);
+        assertEquals("{\"error\":\"Request timed out\"}", resp.body.toString());
+        assertEquals(1, async.completed.get());
+    }
+
+    private static final class FakeResponse {
+        int status = 200;
+        final StringWriter body = new StringWriter();
+        final PrintWriter writer = new PrintWriter(body, true);
+        final List<String> headers = new ArrayList<>();
+
+        HttpServletResponse proxy() {
+            return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {HttpServletResponse.class}, (p, m, args) -> {
+                        switch (m.getName()) {
+                            case "setStatus": status = (Integer) args[0]; return null;
+                            case "getStatus": return status;
+                            case "setHeader": headers.add((String) args[0]); return null;
+                            case "getWriter": return writer;
+                            case "isCommitted": return false;
+                            default: throw new UnsupportedOperationException(m.getName());
+                        }
+                    });
+        }
+    }
+
+    private static final class FakeAsync {
+        final List<AsyncListener> listeners = new ArrayList<>();
+        final AtomicInteger completed = new AtomicInteger();
+        final AsyncContext context = (AsyncContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {AsyncContext.class}, (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "addListener": listeners.add((AsyncListener) args[0]); return null;
+                        case "setTimeout": return null;
+                        case "complete": completed.incrementAndGet(); return null;
+                        case "getRequest": case "getResponse": return null;
+                        default: throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+
+        HttpServletRequest request() {
+            return (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {HttpServletRequest.class}, (p, m, args) -> {
+                        if (m.getName().equals("startAsync")) return context;
+                        throw new UnsupportedOperationException(m.getName());
+                    });
+        }
+    }
+}
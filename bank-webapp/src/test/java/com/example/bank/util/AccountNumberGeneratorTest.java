@@ -0,0 +1,50 @@
+package com.example.bank.util;
+
+import com.example.bank.Concurrently;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Millions of account numbers drawn from {@link AccountNumberGenerator#shared()} by many
+ * threads at once: none may come out twice, and each must carry a valid check digit.
+ */
+class AccountNumberGeneratorTest {
+    private static final int THREADS = 16;
+    private static final int PER_THREAD = 250_000;
+
+    @Test
+    void sharedGeneratorNeverRepeatsAcrossThreads() throws Exception {
+        // numbers are kept as their 15 digits in a long, so 4M of them fit in 32MB
+        long[][] drawn = new long[THREADS][PER_THREAD];
+        Concurrently.run(THREADS, thread -> {
+            long[] mine = drawn[thread];
+            for (int i = 0; i < PER_THREAD; i++) {
+                String n = AccountNumberGenerator.shared().next();
+                if (!AccountNumberGenerator.isValid(n)) fail("bad account number " + n);
+                mine[i] = Long.parseLong(n.substring(2, 17));
+            }
+        });
+
+        long[] all = new long[THREADS * PER_THREAD];
+        for (int t = 0; t < THREADS; t++) System.arraycopy(drawn[t], 0, all, t * PER_THREAD, PER_THREAD);
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) fail("account number issued twice: AC" + all[i]);
+        }
+    }
+
+    @Test
+    void checkDigitCatchesASingleWrongDigit() {
+        String n = new AccountNumberGenerator(7).next();
+        assertTrue(AccountNumberGenerator.isValid(n), n);
+        assertEquals("AC07", n.substring(0, 4));
+        char wrong = n.charAt(10) == '9' ? '0' : (char) (n.charAt(10) + 1);
+        assertFalse(AccountNumberGenerator.isValid(n.substring(0, 10) + wrong + n.substring(11)));
+    }
+}